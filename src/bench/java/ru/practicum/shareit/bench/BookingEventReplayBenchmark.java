@@ -0,0 +1,109 @@
+package ru.practicum.shareit.bench;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.events.BookingEvent;
+import ru.practicum.shareit.booking.events.BookingEventType;
+import ru.practicum.shareit.booking.events.BookingSnapshotCodec;
+import ru.practicum.shareit.booking.events.UserBookingStatsProjection;
+
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Восстановление проекции {@link UserBookingStatsProjection} по журналу из {@code events} событий:
+ * {@code replayFromStart} применяет весь журнал, {@code restoreFromSnapshot} читает снимок, снятый
+ * за {@code tail} событий до конца, и дочитывает хвост. Журнал генерируется в памяти с фиксированным seed,
+ * поэтому время чтения из базы не входит в замер — сравнивается работа самой проекции и формата снимка.
+ * <p>
+ * Запуск: {@code mvn -Pbench test-compile exec:exec -Dbench.args=BookingEventReplayBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BookingEventReplayBenchmark {
+
+    private static final BookingEventType[] TYPES = BookingEventType.values();
+    private static final LocalDateTime OCCURRED_AT = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Param({"10000000"})
+    private int events;
+
+    @Param({"100000"})
+    private int users;
+
+    @Param({"100000"})
+    private int tail;
+
+    private byte[] types;
+    private int[] owners;
+    private int[] bookers;
+    private byte[] snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        types = new byte[events];
+        owners = new int[events];
+        bookers = new int[events];
+        for (int i = 0; i < events; i++) {
+            // Примерно как в жизни: каждое бронирование создаётся, затем одобряется, отклоняется или истекает.
+            if (i % 2 == 0) {
+                types[i] = (byte) BookingEventType.CREATED.ordinal();
+                owners[i] = 1 + random.nextInt(users);
+                bookers[i] = 1 + random.nextInt(users);
+            } else {
+                types[i] = (byte) (1 + random.nextInt(TYPES.length - 1));
+                owners[i] = owners[i - 1];
+                bookers[i] = bookers[i - 1];
+            }
+        }
+
+        UserBookingStatsProjection projection = new UserBookingStatsProjection();
+        replay(projection, 0, events - tail);
+        snapshot = BookingSnapshotCodec.encode(new long[]{events - tail}, projection);
+        System.out.printf("%nSnapshot at %d events: %d users, %d bytes%n", events - tail, projection.size(),
+                snapshot.length);
+    }
+
+    @Benchmark
+    public UserBookingStatsProjection replayFromStart() {
+        UserBookingStatsProjection projection = new UserBookingStatsProjection();
+        replay(projection, 0, events);
+        return projection;
+    }
+
+    @Benchmark
+    public UserBookingStatsProjection restoreFromSnapshot() {
+        UserBookingStatsProjection projection = new UserBookingStatsProjection();
+        long[] positions = BookingSnapshotCodec.decode(snapshot, projection);
+        replay(projection, (int) positions[0], events);
+        return projection;
+    }
+
+    @Benchmark
+    public byte[] writeSnapshot(ReplayedState state) {
+        return BookingSnapshotCodec.encode(new long[]{events}, state.projection);
+    }
+
+    @State(Scope.Benchmark)
+    public static class ReplayedState {
+
+        private UserBookingStatsProjection projection;
+
+        @Setup(Level.Trial)
+        public void setUp(BookingEventReplayBenchmark benchmark) {
+            projection = benchmark.replayFromStart();
+        }
+    }
+
+    private void replay(UserBookingStatsProjection projection, int from, int to) {
+        for (int i = from; i < to; i++) {
+            projection.apply(new BookingEvent(i + 1, i / 2 + 1, TYPES[types[i]], i / 2 + 1, owners[i], bookers[i],
+                    OCCURRED_AT));
+        }
+    }
+}
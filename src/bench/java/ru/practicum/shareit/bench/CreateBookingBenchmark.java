@@ -0,0 +1,117 @@
+package ru.practicum.shareit.bench;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Пропускная способность {@code BookingService.createBooking} на H2 в памяти и число SQL-операторов Hibernate
+ * на одно бронирование (печатается после каждой итерации; запросы через JdbcTemplate сюда не входят).
+ * С {@code coldCache=true} кэш второго уровня очищается перед каждым вызовом.
+ * <p>
+ * Запуск: {@code mvn -Pbench test-compile exec:exec -Dbench.args=CreateBookingBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 30, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class CreateBookingBenchmark {
+
+    private static final int OWNERS = 100;
+    private static final int BOOKERS = 100;
+
+    @Param({"false", "true"})
+    private boolean coldCache;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private Statistics statistics;
+    private EntityManagerFactory entityManagerFactory;
+    private final AtomicLong operations = new AtomicLong();
+    private long[] itemIds;
+    private long[] bookerIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringApplication.run(ShareItApp.class,
+                "--spring.main.web-application-type=none",
+                "--spring.datasource.driverClassName=org.h2.Driver",
+                "--spring.datasource.url=jdbc:h2:mem:bench;MODE=PostgreSQL",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--logging.level.root=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                "--logging.level.org.springframework.transaction.interceptor=WARN",
+                "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN",
+                "--shareit.booking.lifecycle.enabled=false",
+                "--shareit.booking.archive.enabled=false",
+                "--shareit.outbox.enabled=false");
+        bookingService = context.getBean(BookingService.class);
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        UserService userService = context.getBean(UserService.class);
+        ItemService itemService = context.getBean(ItemService.class);
+        itemIds = new long[OWNERS];
+        bookerIds = new long[BOOKERS];
+        for (int i = 0; i < OWNERS; i++) {
+            UserDto owner = userService.saveUser(new UserDto(null, "owner" + i, "owner" + i + "@example.com"));
+            itemIds[i] = itemService.saveItem(owner.getId(),
+                    ItemDto.builder().name("item" + i).description("description").available(true).build()).getId();
+        }
+        for (int i = 0; i < BOOKERS; i++) {
+            bookerIds[i] = userService.saveUser(new UserDto(null, "booker" + i, "booker" + i + "@example.com")).getId();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void resetStatistics() {
+        statistics.clear();
+        operations.set(0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void printStatements() {
+        System.out.printf("%n%.2f statements per booking%n",
+                (double) statistics.getPrepareStatementCount() / Math.max(1, operations.get()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object createBooking() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDateTime start = LocalDateTime.now().plusDays(1 + random.nextInt(300));
+        BookingRequestDto request = BookingRequestDto.builder()
+                .itemId(itemIds[random.nextInt(itemIds.length)])
+                .start(start)
+                .end(start.plusDays(1))
+                .build();
+        if (coldCache) {
+            entityManagerFactory.getCache().evictAll();
+        }
+        operations.incrementAndGet();
+        return bookingService.createBooking(bookerIds[random.nextInt(bookerIds.length)], request);
+    }
+}
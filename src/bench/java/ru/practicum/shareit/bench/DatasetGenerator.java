@@ -0,0 +1,505 @@
+package ru.practicum.shareit.bench;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import ru.practicum.shareit.item.geo.GeoGrid;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Синтетические данные для замеров: {@code users}, {@code items}, {@code bookings}, {@code comments}
+ * и согласованные с ними {@code booking_counters} в объёме, кратном {@code scale}.
+ * <p>
+ * Распределения скошены, как в живом сервисе: владельцы вещей, популярность вещей у бронирующих
+ * и активность бронирующих следуют закону Ципфа (есть владельцы с сотнями вещей, вещи с тысячами бронирований
+ * и пользователи с длинной историей), а небольшая доля вещей собирает почти все комментарии. Вещи сосредоточены
+ * вокруг {@code CITIES} городов, размеры которых тоже следуют закону Ципфа. Бронирования
+ * вещи идут без пересечений в окне от двух лет назад до двух месяцев вперёд; статусы и флаги
+ * {@code is_started}/{@code is_finished} соответствуют времени {@code now}, комментарии оставляют
+ * бронировавшие после завершения одобренного бронирования.
+ * <p>
+ * При одинаковых {@code seed}, {@code scale} и {@code now} получаются одни и те же строки с одними и теми же id.
+ * В PostgreSQL данные грузятся через {@code COPY}, в остальные базы — пакетами JDBC. Вторичные индексы
+ * из {@code schema.sql} на время загрузки удаляются и строятся заново в конце: на H2 это сокращает загрузку
+ * бронирований вчетверо. После загрузки счётчики id таблиц переводятся за последний выданный id.
+ * <p>
+ * Запуск: {@code mvn -Pbench test-compile exec:exec -Dbench.main=ru.practicum.shareit.bench.DatasetGenerator
+ * -Dbench.args="url=jdbc:postgresql://localhost:5432/shareit user=postgres password=1 scale=1 seed=42 reset=true"}.
+ * Параметр {@code reset=true} пересоздаёт схему из {@code schema.sql}, без него таблицы должны быть пусты.
+ * Для H2 подходит файловая база, например {@code url=jdbc:h2:file:./target/dataset;MODE=PostgreSQL}.
+ * Приложение поверх загруженной базы запускается с {@code --spring.sql.init.mode=never}, иначе {@code schema.sql}
+ * пересоздаст таблицы.
+ */
+public class DatasetGenerator {
+
+    static final int USERS_PER_SCALE = 10_000;
+    static final int ITEMS_PER_SCALE = 30_000;
+    static final int BOOKINGS_PER_SCALE = 300_000;
+    static final int CITIES = 200;
+
+    private static final double CITY_SPREAD_DEGREES = 0.15;
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final int COPY_BUFFER = 1 << 20;
+    private static final String INDEX_NAME = "(?s)CREATE INDEX IF NOT EXISTS (\\w+) ON .*";
+
+    private static final String[] TOOLS = {"drill", "saw", "hammer", "ladder", "tent", "kayak", "bike", "projector",
+            "camera", "tripod", "grill", "mixer", "vacuum", "sander", "jigsaw", "wrench", "compressor", "generator",
+            "scooter", "snowboard", "skis", "guitar", "amplifier", "speaker", "drone", "telescope", "sewing machine",
+            "lawn mower", "trimmer", "pressure washer", "canoe", "stroller", "crib", "car seat", "roof box",
+            "trailer", "heater", "fan", "dehumidifier", "microscope"};
+    private static final String[] ADJECTIVES = {"cordless", "heavy", "compact", "professional", "vintage", "electric",
+            "portable", "folding", "large", "small", "old", "new", "rugged", "quiet", "powerful", "lightweight"};
+    private static final String[] PURPOSES = {"weekend repairs", "camping", "a party", "renovation", "travel",
+            "the garden", "filming", "moving house", "a trip to the lake", "the kids"};
+    private static final String[] REVIEWS = {"Worked perfectly", "Owner was very helpful", "A bit worn but fine",
+            "Exactly as described", "Battery died quickly", "Would rent again", "Picked up late, otherwise ok",
+            "Great value", "Missing a part", "Saved my weekend"};
+
+    private final int scale;
+    private final long seed;
+    private final LocalDateTime now;
+    private final Map<String, Long> counts = new LinkedHashMap<>();
+
+    public DatasetGenerator(int scale, long seed, LocalDateTime now) {
+        if (scale < 1) {
+            throw new IllegalArgumentException("scale must be positive: " + scale);
+        }
+        this.scale = scale;
+        this.seed = seed;
+        this.now = now;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        // exec:exec передаёт bench.args одним аргументом.
+        for (String option : String.join(" ", args).trim().split("\\s+")) {
+            int eq = option.indexOf('=');
+            if (eq < 1) {
+                throw new IllegalArgumentException("Expected key=value, got: " + option);
+            }
+            options.put(option.substring(0, eq), option.substring(eq + 1));
+        }
+        String url = options.getOrDefault("url", "jdbc:h2:file:./target/dataset;MODE=PostgreSQL");
+        DatasetGenerator generator = new DatasetGenerator(
+                Integer.parseInt(options.getOrDefault("scale", "1")),
+                Long.parseLong(options.getOrDefault("seed", "42")),
+                options.containsKey("now")
+                        ? LocalDateTime.parse(options.get("now"))
+                        : LocalDateTime.now().truncatedTo(ChronoUnit.DAYS));
+        try (Connection connection = DriverManager.getConnection(url, options.getOrDefault("user", "sa"),
+                options.getOrDefault("password", ""))) {
+            long started = System.nanoTime();
+            generator.load(connection, Boolean.parseBoolean(options.getOrDefault("reset", "false")));
+            long millis = (System.nanoTime() - started) / 1_000_000;
+            long rows = generator.counts().values().stream().mapToLong(Long::longValue).sum();
+            System.out.printf("%s: %s rows in %d ms (%d rows/s)%n", url, generator.counts(), millis,
+                    rows * 1000 / Math.max(1, millis));
+            generator.printSkew(connection);
+        }
+    }
+
+    /**
+     * Загружает набор данных одной транзакцией на таблицу; при {@code reset} схема сначала пересоздаётся.
+     */
+    public void load(Connection connection, boolean reset) throws SQLException {
+        if (reset) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("schema.sql"));
+        } else {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM users")) {
+                rs.next();
+                if (rs.getLong(1) > 0) {
+                    throw new IllegalStateException("Table users is not empty; pass reset=true to recreate the schema");
+                }
+            }
+        }
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            int users = scale * USERS_PER_SCALE;
+            int items = scale * ITEMS_PER_SCALE;
+            List<String> indexes = secondaryIndexes();
+            execute(connection, indexes.stream()
+                    .map(index -> "DROP INDEX IF EXISTS " + index.replaceAll(INDEX_NAME, "$1"))
+                    .toList());
+            long[] owners = loadUsersAndItems(connection, users, items);
+            loadBookingsAndComments(connection, users, owners);
+            execute(connection, indexes);
+            loadCounters(connection);
+            restartIdentity(connection);
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    public Map<String, Long> counts() {
+        return counts;
+    }
+
+    /**
+     * Пользователи и вещи; возвращает владельца каждой вещи по индексу {@code itemId - 1}.
+     */
+    private long[] loadUsersAndItems(Connection connection, int users, int items) throws SQLException {
+        try (Sink sink = sink(connection, "users", "id", "name", "email")) {
+            for (long id = 1; id <= users; id++) {
+                sink.row(id, "user" + id, "user" + id + "@example.com");
+            }
+        }
+        counts.put("users", (long) users);
+        connection.commit();
+
+        SplittableRandom random = new SplittableRandom(seed);
+        // Ранги Ципфа отображаются на перемешанные id, чтобы крупные владельцы не были первыми пользователями.
+        Zipf ownerRanks = new Zipf(users, 1.1);
+        long[] ownerIds = permutation(users, random);
+        long[] owners = new long[items];
+        // Координаты берутся из отдельного генератора, чтобы остальные колонки не зависели от них.
+        SplittableRandom places = new SplittableRandom(~seed);
+        double[][] cities = new double[CITIES][];
+        for (int city = 0; city < CITIES; city++) {
+            cities[city] = new double[]{places.nextDouble(-50, 60), places.nextDouble(-180, 180)};
+        }
+        Zipf cityRanks = new Zipf(CITIES, 1.0);
+        try (Sink sink = sink(connection, "items", "id", "name", "description", "is_available", "owner_id",
+                "latitude", "longitude", "geo_cell")) {
+            for (int i = 0; i < items; i++) {
+                long id = i + 1;
+                owners[i] = ownerIds[ownerRanks.sample(random)];
+                String tool = pick(TOOLS, random);
+                String adjective = pick(ADJECTIVES, random);
+                double[] city = cities[cityRanks.sample(places)];
+                double latitude = Math.max(-90, Math.min(90, city[0] + places.nextGaussian() * CITY_SPREAD_DEGREES));
+                double longitude = city[1] + places.nextGaussian() * CITY_SPREAD_DEGREES;
+                longitude = ((longitude + 180) % 360 + 360) % 360 - 180;
+                sink.row(id, adjective + " " + tool + " #" + id,
+                        capitalize(adjective) + " " + tool + " for " + pick(PURPOSES, random),
+                        random.nextInt(10) != 0, owners[i], latitude, longitude, GeoGrid.cellOf(latitude, longitude));
+            }
+        }
+        counts.put("items", (long) items);
+        connection.commit();
+        return owners;
+    }
+
+    /**
+     * COPY в PostgreSQL идёт в одну таблицу за раз, поэтому бронирования и комментарии пишутся двумя проходами
+     * одного и того же генератора: второй проход повторяет те же бронирования и пишет только комментарии.
+     */
+    private void loadBookingsAndComments(Connection connection, int users, long[] owners) throws SQLException {
+        try (Sink bookings = sink(connection, "bookings", "id", "start_date", "end_date", "item_id", "booker_id",
+                "status", "is_started", "is_finished")) {
+            counts.put("bookings", generateBookings(users, owners, bookings, null)[0]);
+        }
+        connection.commit();
+        try (Sink comments = sink(connection, "comments", "id", "text", "item_id", "author_id", "created_at")) {
+            counts.put("comments", generateBookings(users, owners, null, comments)[1]);
+        }
+        connection.commit();
+    }
+
+    /**
+     * Число бронирований вещи задаёт Ципф по вещам, бронирующего — Ципф по пользователям. Бронирования вещи
+     * раскладываются по окну подряд, каждое занимает часть своего слота, так что одобренные не пересекаются.
+     * Возвращает число бронирований и комментариев.
+     */
+    private long[] generateBookings(int users, long[] owners, Sink bookingSink, Sink commentSink)
+            throws SQLException {
+        SplittableRandom random = new SplittableRandom(seed + 1);
+        int items = owners.length;
+        int bookings = scale * BOOKINGS_PER_SCALE;
+        Zipf itemRanks = new Zipf(items, 1.0);
+        long[] itemIds = permutation(items, random);
+        int[] perItem = new int[items];
+        for (int i = 0; i < bookings; i++) {
+            perItem[(int) itemIds[itemRanks.sample(random)] - 1]++;
+        }
+        Zipf bookerRanks = new Zipf(users, 0.9);
+        long[] bookerIds = permutation(users, random);
+        // Один процент вещей обсуждают почти после каждого бронирования, остальные — изредка.
+        boolean[] discussed = new boolean[items];
+        for (int i = 0; i < items / 100; i++) {
+            discussed[random.nextInt(items)] = true;
+        }
+
+        LocalDateTime windowStart = now.minusYears(2);
+        long windowMinutes = ChronoUnit.MINUTES.between(windowStart, now.plusMonths(2));
+        long bookingId = 0;
+        long commentId = 0;
+        for (int i = 0; i < items; i++) {
+            if (perItem[i] == 0) {
+                continue;
+            }
+            long itemId = i + 1;
+            long slot = Math.max(2, windowMinutes / perItem[i]);
+            for (int k = 0; k < perItem[i]; k++) {
+                long booker = bookerIds[bookerRanks.sample(random)];
+                while (booker == owners[i]) {
+                    booker = bookerIds[bookerRanks.sample(random)];
+                }
+                LocalDateTime start = windowStart.plusMinutes(k * slot + random.nextLong(slot / 2));
+                LocalDateTime end = start.plusMinutes(1 + random.nextLong(Math.min(slot / 2, 14 * 24 * 60)));
+                String status = status(start, end, random);
+                boolean approved = "APPROVED".equals(status);
+                boolean finished = approved && !end.isAfter(now);
+                bookingId++;
+                if (bookingSink != null) {
+                    bookingSink.row(bookingId, start, end, itemId, booker, status, approved && !start.isAfter(now),
+                            finished);
+                }
+
+                if (finished && random.nextInt(100) < (discussed[i] ? 90 : 5)) {
+                    String text = pick(REVIEWS, random);
+                    LocalDateTime created = end.plusMinutes(random.nextLong(3 * 24 * 60));
+                    commentId++;
+                    if (commentSink != null) {
+                        commentSink.row(commentId, text, itemId, booker, created.isAfter(now) ? now : created);
+                    }
+                }
+            }
+        }
+        return new long[]{bookingId, commentId};
+    }
+
+    /**
+     * Прошедшие бронирования в основном одобрены, будущие часто ещё ждут ответа; ожидавшие, чей срок
+     * начался, уже просрочены, как их оставил бы {@code BookingLifecycleScheduler}.
+     */
+    private String status(LocalDateTime start, LocalDateTime end, SplittableRandom random) {
+        int roll = random.nextInt(100);
+        if (start.isAfter(now)) {
+            return roll < 60 ? "APPROVED" : roll < 95 ? "WAITING" : "REJECTED";
+        }
+        if (end.isAfter(now)) {
+            return "APPROVED";
+        }
+        return roll < 85 ? "APPROVED" : roll < 95 ? "REJECTED" : "EXPIRED";
+    }
+
+    /**
+     * Счётчики сводки в одной полосе на пользователя, роль и состояние — как после обработки всех бронирований
+     * сервисом.
+     */
+    private void loadCounters(Connection connection) throws SQLException {
+        String state = "CASE WHEN b.status <> 'APPROVED' THEN b.status WHEN b.is_finished THEN 'PAST' "
+                + "WHEN b.is_started THEN 'CURRENT' ELSE 'FUTURE' END";
+        long rows = 0;
+        try (Statement statement = connection.createStatement()) {
+            rows += statement.executeUpdate("INSERT INTO booking_counters (user_id, role, state, stripe, cnt) "
+                    + "SELECT i.owner_id, 'OWNER', " + state + ", 0, COUNT(*) FROM bookings b "
+                    + "JOIN items i ON i.id = b.item_id GROUP BY i.owner_id, " + state);
+            rows += statement.executeUpdate("INSERT INTO booking_counters (user_id, role, state, stripe, cnt) "
+                    + "SELECT b.booker_id, 'BOOKER', " + state + ", 0, COUNT(*) FROM bookings b "
+                    + "GROUP BY b.booker_id, " + state);
+        }
+        counts.put("booking_counters", rows);
+    }
+
+    /**
+     * {@code CREATE INDEX} из {@code schema.sql}.
+     */
+    private static List<String> secondaryIndexes() {
+        try {
+            String schema = new ClassPathResource("schema.sql").getContentAsString(StandardCharsets.UTF_8);
+            return Arrays.stream(schema.split(";"))
+                    .map(String::trim)
+                    .filter(statement -> statement.matches(INDEX_NAME))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void execute(Connection connection, List<String> statements) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+        connection.commit();
+    }
+
+    private void restartIdentity(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String table : counts.keySet()) {
+                if (!"booking_counters".equals(table)) {
+                    statement.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (counts.get(table) + 1));
+                }
+            }
+        }
+    }
+
+    private void printSkew(Connection connection) throws SQLException {
+        Map<String, String> queries = new LinkedHashMap<>();
+        queries.put("max items per owner", "SELECT MAX(c) FROM (SELECT COUNT(*) c FROM items GROUP BY owner_id) t");
+        queries.put("owners with items", "SELECT COUNT(DISTINCT owner_id) FROM items");
+        queries.put("max items per geo cell", "SELECT MAX(c) FROM (SELECT COUNT(*) c FROM items GROUP BY geo_cell) t");
+        queries.put("max bookings per item", "SELECT MAX(c) FROM (SELECT COUNT(*) c FROM bookings GROUP BY item_id) t");
+        queries.put("max bookings per booker",
+                "SELECT MAX(c) FROM (SELECT COUNT(*) c FROM bookings GROUP BY booker_id) t");
+        queries.put("max comments per item", "SELECT MAX(c) FROM (SELECT COUNT(*) c FROM comments GROUP BY item_id) t");
+        try (Statement statement = connection.createStatement()) {
+            for (Map.Entry<String, String> query : queries.entrySet()) {
+                try (ResultSet rs = statement.executeQuery(query.getValue())) {
+                    rs.next();
+                    System.out.printf("  %-24s %d%n", query.getKey(), rs.getLong(1));
+                }
+            }
+        }
+    }
+
+    private static Sink sink(Connection connection, String table, String... columns) throws SQLException {
+        if (connection.isWrapperFor(PGConnection.class)) {
+            return new CopySink(connection.unwrap(PGConnection.class), table, columns);
+        }
+        return new BatchSink(connection, table, columns);
+    }
+
+    private static long[] permutation(int n, SplittableRandom random) {
+        long[] ids = new long[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i + 1;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long swap = ids[i];
+            ids[i] = ids[j];
+            ids[j] = swap;
+        }
+        return ids;
+    }
+
+    private static String pick(String[] values, SplittableRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String capitalize(String value) {
+        return Character.toUpperCase(value.charAt(0)) + value.substring(1);
+    }
+
+    /**
+     * Распределение Ципфа на рангах {@code 0..n-1}: выбор бинарным поиском по накопленным весам.
+     */
+    static final class Zipf {
+
+        private final double[] cumulative;
+
+        Zipf(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int rank = 0; rank < n; rank++) {
+                sum += 1 / Math.pow(rank + 1, exponent);
+                cumulative[rank] = sum;
+            }
+        }
+
+        int sample(SplittableRandom random) {
+            double target = random.nextDouble() * cumulative[cumulative.length - 1];
+            int index = Arrays.binarySearch(cumulative, target);
+            return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+        }
+    }
+
+    private interface Sink extends AutoCloseable {
+
+        void row(Object... values) throws SQLException;
+
+        @Override
+        void close() throws SQLException;
+    }
+
+    /**
+     * {@code COPY ... FROM STDIN} в формате CSV: строки копятся в буфере и уходят на сервер порциями.
+     */
+    private static final class CopySink implements Sink {
+
+        private final CopyIn copy;
+        private final StringBuilder buffer = new StringBuilder(COPY_BUFFER + 1024);
+
+        CopySink(PGConnection connection, String table, String... columns) throws SQLException {
+            this.copy = connection.getCopyAPI().copyIn("COPY " + table + " (" + String.join(", ", columns)
+                    + ") FROM STDIN (FORMAT csv)");
+        }
+
+        @Override
+        public void row(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    buffer.append(',');
+                }
+                Object value = values[i];
+                if (value instanceof String text) {
+                    buffer.append('"').append(text.replace("\"", "\"\"")).append('"');
+                } else if (value != null) {
+                    buffer.append(value);
+                }
+            }
+            buffer.append('\n');
+            if (buffer.length() >= COPY_BUFFER) {
+                flush();
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            flush();
+            copy.endCopy();
+        }
+
+        private void flush() throws SQLException {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copy.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+    }
+
+    private static final class BatchSink implements Sink {
+
+        private final PreparedStatement statement;
+        private int pending;
+
+        BatchSink(Connection connection, String table, String... columns) throws SQLException {
+            String placeholders = String.join(", ", Arrays.stream(columns).map(column -> "?").toList());
+            this.statement = connection.prepareStatement("INSERT INTO " + table + " (" + String.join(", ", columns)
+                    + ") VALUES (" + placeholders + ")");
+        }
+
+        @Override
+        public void row(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                statement.setObject(i + 1, values[i]);
+            }
+            statement.addBatch();
+            if (++pending == BATCH_SIZE) {
+                statement.executeBatch();
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (pending > 0) {
+                statement.executeBatch();
+            }
+            statement.close();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package ru.practicum.shareit.bench;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация списка из 10 000 бронирований (с вложенными вещью, комментариями и бронирующим)
+ * в JSON, CBOR и Smile, с модулем Blackbird и без него. Размер ответа печатается при подготовке.
+ * <p>
+ * Запуск: {@code mvn -Pbench test-compile exec:exec -Dbench.args=DtoSerializationBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoSerializationBenchmark {
+
+    @Param({"json", "json-blackbird", "cbor-blackbird", "smile-blackbird"})
+    private String format;
+
+    @Param({"10000"})
+    private int size;
+
+    private ObjectMapper mapper;
+    private List<BookingDto> bookings;
+
+    @Setup
+    public void setUp() throws Exception {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+        if (format.endsWith("blackbird")) {
+            builder.modulesToInstall(new BlackbirdModule());
+        }
+        mapper = builder.factory(factory(format)).build();
+        bookings = bookings(size);
+        System.out.printf("%n%s: %d bytes for %d bookings%n", format, mapper.writeValueAsBytes(bookings).length, size);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return mapper.writeValueAsBytes(bookings);
+    }
+
+    private static JsonFactory factory(String format) {
+        if (format.startsWith("cbor")) {
+            return new CBORFactory();
+        }
+        if (format.startsWith("smile")) {
+            return new SmileFactory();
+        }
+        return new JsonFactory();
+    }
+
+    private static List<BookingDto> bookings(int size) {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+        List<BookingDto> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            List<CommentDto> comments = new ArrayList<>();
+            for (int c = 0; c < i % 4; c++) {
+                comments.add(CommentDto.builder()
+                        .id((long) c)
+                        .text("Отличная вещь, всё работает " + c)
+                        .authorName("user" + c)
+                        .created(now.minusDays(c))
+                        .build());
+            }
+            ItemDto item = ItemDto.builder()
+                    .id((long) i % 500)
+                    .name("Дрель " + i % 500)
+                    .description("Аккумуляторная дрель с набором бит")
+                    .available(true)
+                    .comments(comments)
+                    .build();
+            result.add(BookingDto.builder()
+                    .id(i)
+                    .start(now.plusHours(i))
+                    .end(now.plusHours(i + 2))
+                    .item(item)
+                    .booker(UserDto.builder().id((long) i % 1000).name("user" + i % 1000)
+                            .email("user" + i % 1000 + "@mail.ru").build())
+                    .status(BookingStatus.values()[i % BookingStatus.values().length])
+                    .build());
+        }
+        return result;
+    }
+}
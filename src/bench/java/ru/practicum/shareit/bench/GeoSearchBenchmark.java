@@ -0,0 +1,108 @@
+package ru.practicum.shareit.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import ru.practicum.shareit.item.ItemSearchSql;
+import ru.practicum.shareit.item.geo.GeoGrid;
+import ru.practicum.shareit.item.geo.GeoQuery;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск вещей в круге на H2 в памяти с {@code items} вещами вокруг {@link DatasetGenerator#CITIES} городов:
+ * {@code grid} — запрос {@link GeoQuery} с диапазонами {@code geo_cell} по индексу, {@code scan} — тот же запрос
+ * прямо по {@code items}, то есть с расстоянием для каждой подходящей по тексту вещи. Центр круга — случайный город.
+ * <p>
+ * Запуск: {@code mvn -Pbench test-compile exec:exec -Dbench.args=GeoSearchBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class GeoSearchBenchmark {
+
+    private static final String[] TOOLS = {"drill", "saw", "hammer", "ladder", "tent", "kayak", "bike", "projector"};
+    private static final double CITY_SPREAD_DEGREES = 0.15;
+    private static final int BATCH_SIZE = 10_000;
+
+    @Param({"2000000"})
+    private int items;
+
+    @Param({"5", "50"})
+    private double radiusKm;
+
+    private SingleConnectionDataSource dataSource;
+    private NamedParameterJdbcTemplate jdbc;
+    private double[][] cities;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:geo;MODE=PostgreSQL", "sa", "", true);
+        ScriptUtils.executeSqlScript(dataSource.getConnection(), new ClassPathResource("schema.sql"));
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.update("INSERT INTO users (name, email) VALUES ('owner', 'owner@example.com')");
+
+        SplittableRandom random = new SplittableRandom(42);
+        cities = new double[DatasetGenerator.CITIES][];
+        for (int city = 0; city < cities.length; city++) {
+            cities[city] = new double[]{random.nextDouble(-50, 60), random.nextDouble(-180, 180)};
+        }
+        DatasetGenerator.Zipf cityRanks = new DatasetGenerator.Zipf(cities.length, 1.0);
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < items; i++) {
+            double[] city = cities[cityRanks.sample(random)];
+            double latitude = Math.max(-90, Math.min(90, city[0] + random.nextGaussian() * CITY_SPREAD_DEGREES));
+            double longitude = city[1] + random.nextGaussian() * CITY_SPREAD_DEGREES;
+            longitude = ((longitude + 180) % 360 + 360) % 360 - 180;
+            batch.add(new Object[]{TOOLS[random.nextInt(TOOLS.length)] + " " + i, "description " + i,
+                    random.nextInt(10) > 0, latitude, longitude, GeoGrid.cellOf(latitude, longitude)});
+            if (batch.size() == BATCH_SIZE || i == items - 1) {
+                template.batchUpdate("INSERT INTO items (name, description, is_available, owner_id, "
+                        + "latitude, longitude, geo_cell) VALUES (?, ?, ?, 1, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        template.execute("ANALYZE");
+        jdbc = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public int grid() {
+        return search(false);
+    }
+
+    @Benchmark
+    public int scan() {
+        return search(true);
+    }
+
+    private int search(boolean scan) {
+        double[] city = cities[ThreadLocalRandom.current().nextInt(cities.length)];
+        GeoQuery geo = GeoQuery.of(city[0], city[1], radiusKm);
+        if (scan) {
+            geo = new GeoQuery("items i", geo.parameters());
+        }
+        Map<String, Object> parameters = new HashMap<>(geo.parameters());
+        parameters.put("pattern", ItemSearchSql.pattern("drill"));
+        parameters.put("limit", 20);
+        parameters.put("offset", 0);
+        return jdbc.queryForList(geo.search("i.id, i.name", false), parameters).size();
+    }
+}
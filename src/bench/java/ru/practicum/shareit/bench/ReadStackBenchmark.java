@@ -0,0 +1,141 @@
+package ru.practicum.shareit.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.reactive.ReactiveReadServer;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность эндпоинтов чтения через HTTP: сервлетный стек (Tomcat, JPA) против неблокирующего
+ * (Netty, R2DBC) на одной и той же H2 в памяти, 16 клиентских потоков. Ограничение частоты запросов выключено,
+ * иначе сервлетный стек упирался бы в лимит одновременных запросов, а не в базу; у обоих стеков по 10 соединений.
+ * <p>
+ * Цифры неблокирующего стека здесь не переносятся на PostgreSQL: драйвер r2dbc-h2 выполняет запрос синхронно
+ * в потоке подписчика, и под нагрузкой запросы собираются на одном цикле событий Netty, пока клиенты
+ * не упираются в таймаут. Сравнивать стеки нужно на PostgreSQL.
+ * <p>
+ * Запуск: {@code mvn -Pbench test-compile exec:exec -Dbench.args=ReadStackBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class ReadStackBenchmark {
+
+    private static final int USERS = 200;
+    private static final int ITEMS_PER_USER = 5;
+    private static final int BOOKINGS_PER_USER = 50;
+
+    @Param({"servlet", "reactive"})
+    private String stack;
+
+    @Param({"search", "bookings"})
+    private String endpoint;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private long[] userIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringApplication.run(ShareItApp.class,
+                "--server.port=0",
+                "--spring.datasource.driverClassName=org.h2.Driver",
+                "--spring.datasource.url=jdbc:h2:mem:bench;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--shareit.reactive.enabled=true",
+                "--shareit.reactive.port=0",
+                "--shareit.reactive.url=r2dbc:h2:mem:///bench",
+                "--shareit.reactive.username=sa",
+                "--shareit.reactive.password=",
+                "--shareit.reactive.max-pool-size=10",
+                "--shareit.rate-limit.enabled=false",
+                "--shareit.bulkhead.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                "--logging.level.org.springframework.transaction.interceptor=WARN",
+                "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN",
+                "--shareit.booking.lifecycle.enabled=false",
+                "--shareit.booking.archive.enabled=false",
+                "--shareit.outbox.enabled=false");
+
+        UserService userService = context.getBean(UserService.class);
+        ItemService itemService = context.getBean(ItemService.class);
+        userIds = new long[USERS];
+        List<Long> itemIds = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            userIds[i] = userService.saveUser(new UserDto(null, "user" + i, "user" + i + "@example.com")).getId();
+            for (int j = 0; j < ITEMS_PER_USER; j++) {
+                itemIds.add(itemService.saveItem(userIds[i], ItemDto.builder()
+                        .name("item" + i + "-" + j)
+                        .description("description " + j)
+                        .available(true)
+                        .build()).getId());
+            }
+        }
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Object[]> bookings = new ArrayList<>();
+        for (long userId : userIds) {
+            for (int k = 0; k < BOOKINGS_PER_USER; k++) {
+                long itemId = itemIds.get(ThreadLocalRandom.current().nextInt(itemIds.size()));
+                bookings.add(new Object[]{start.plusDays(k), start.plusDays(k).plusHours(2), itemId, userId});
+            }
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate("INSERT INTO bookings (start_date, end_date, item_id, "
+                + "booker_id, status) VALUES (?, ?, ?, ?, 'APPROVED')", bookings);
+
+        int port = "reactive".equals(stack)
+                ? context.getBean(ReactiveReadServer.class).getPort()
+                : Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+        baseUrl = "http://localhost:" + port;
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int read() throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long userId = userIds[random.nextInt(userIds.length)];
+        String path = "search".equals(endpoint)
+                ? "/items/search?text=item" + random.nextInt(USERS) + "-"
+                : "/bookings?state=ALL&size=20&page=" + random.nextInt(2);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("X-Sharer-User-Id", String.valueOf(userId))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(path + " -> " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
@@ -0,0 +1,81 @@
+package ru.practicum.shareit.bench;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.coalescing.SingleFlight;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.UnaryOperator;
+
+/**
+ * Нагрузка на «базу» при росте числа конкурентных чтений одного ключа.
+ * Загрузчик имитирует конвейер {@code getItemById} задержкой {@code loadMicros}; счётчик {@code loads}
+ * показывает, сколько раз он реально выполнился, {@code requests} — сколько запросов обслужено.
+ * С объединением {@code loads} в секунду остаётся почти постоянным при любом числе потоков,
+ * без него растёт вместе с {@code requests}.
+ * <p>
+ * Запуск: {@code mvn -Pbench test-compile exec:exec -Dbench.args=SingleFlightBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class SingleFlightBenchmark {
+
+    private static final Long KEY = 42L;
+
+    @Param({"true", "false"})
+    private boolean coalescing;
+
+    @Param({"2000"})
+    private long loadMicros;
+
+    private SingleFlight<Long, String> singleFlight;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long requests;
+        public long loads;
+    }
+
+    @Setup
+    public void setUp() {
+        singleFlight = new SingleFlight<>("bench", UnaryOperator.identity(), new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String read1(Counters counters) {
+        return read(counters);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public String read16(Counters counters) {
+        return read(counters);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public String read64(Counters counters) {
+        return read(counters);
+    }
+
+    private String read(Counters counters) {
+        counters.requests++;
+        if (!coalescing) {
+            return load(counters);
+        }
+        return singleFlight.execute(KEY, () -> load(counters));
+    }
+
+    private String load(Counters counters) {
+        counters.loads++;
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(loadMicros));
+        return "item";
+    }
+}
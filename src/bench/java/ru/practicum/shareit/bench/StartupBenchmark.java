@@ -0,0 +1,131 @@
+package ru.practicum.shareit.bench;
+
+import org.h2.Driver;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Время от запуска JVM до первого успешного {@code GET /users}: обычный fat jar против сборки профиля
+ * {@code fast-startup} (AOT без архива CDS и AOT вместе с ним). Приложение каждый раз запускается в отдельном
+ * процессе на H2 в памяти; печатаются минимум и медиана по запускам.
+ * <p>
+ * Сначала нужна сборка: {@code mvn -Pfast-startup -DskipTests package}, затем
+ * {@code mvn -Pbench test-compile exec:exec -Dbench.main=ru.practicum.shareit.bench.StartupBenchmark -Dbench.args=10}
+ */
+public class StartupBenchmark {
+
+    private static final Path TARGET = Path.of("target");
+    private static final String JAR = "shareit-0.0.1-SNAPSHOT.jar";
+    private static final long TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 && args[0].matches("\\d+") ? Integer.parseInt(args[0]) : 10;
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String h2 = Path.of(Driver.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        Path fatJar = TARGET.resolve(JAR);
+        Path fastStartup = TARGET.resolve("fast-startup");
+        Path archive = fastStartup.resolve("application.jsa");
+        for (Path required : List.of(fatJar, fastStartup.resolve(JAR), archive)) {
+            if (!Files.exists(required)) {
+                throw new IllegalStateException(required + " не найден, нужна сборка mvn -Pfast-startup -DskipTests package");
+            }
+        }
+        // H2 добавляется в конец classpath: архив CDS допускает только дописанные после обучающего запуска пути.
+        String extracted = fastStartup.resolve(JAR) + File.pathSeparator + h2;
+
+        Map<String, List<String>> variants = new LinkedHashMap<>();
+        variants.put("default", List.of(java, "-Dloader.path=" + h2, "-cp", fatJar.toString(),
+                "org.springframework.boot.loader.launch.PropertiesLauncher"));
+        variants.put("aot", List.of(java, "-Dspring.aot.enabled=true", "-cp", extracted,
+                "ru.practicum.shareit.ShareItApp"));
+        variants.put("aot+cds", List.of(java, "-XX:SharedArchiveFile=" + archive, "-Xlog:cds=off",
+                "-Dspring.aot.enabled=true", "-cp", extracted, "ru.practicum.shareit.ShareItApp"));
+
+        Map<String, long[]> results = new LinkedHashMap<>();
+        variants.keySet().forEach(name -> results.put(name, new long[runs]));
+        // Варианты чередуются, чтобы фоновая нагрузка машины распределялась между ними поровну.
+        for (int run = -1; run < runs; run++) {
+            for (Map.Entry<String, List<String>> variant : variants.entrySet()) {
+                long millis = measure(variant.getValue());
+                if (run >= 0) {
+                    results.get(variant.getKey())[run] = millis;
+                }
+            }
+        }
+
+        System.out.printf("%-10s %8s %8s  (ms to first 200, %d runs)%n", "variant", "min", "median", runs);
+        results.forEach((name, times) -> {
+            Arrays.sort(times);
+            System.out.printf("%-10s %8d %8d%n", name, times[0], times[times.length / 2]);
+        });
+    }
+
+    private static long measure(List<String> launch) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>(launch);
+        command.addAll(List.of(
+                "--server.port=" + port,
+                "--spring.datasource.url=jdbc:h2:mem:startup;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--logging.level.root=WARN"));
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            URI uri = URI.create("http://localhost:" + port + "/users");
+            while (System.nanoTime() - started < TIMEOUT_NANOS) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Приложение завершилось с кодом " + process.exitValue()
+                            + ": " + String.join(" ", command));
+                }
+                if (isOk(uri)) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                }
+                Thread.sleep(5);
+            }
+            throw new IllegalStateException("Приложение не ответило за 2 минуты: " + String.join(" ", command));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static boolean isOk(URI uri) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+            connection.setConnectTimeout(100);
+            connection.setReadTimeout(1000);
+            try {
+                return connection.getResponseCode() == 200;
+            } finally {
+                connection.disconnect();
+            }
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -37,13 +37,13 @@ public class Booking {
     @Column(name = "end_date")
     private LocalDateTime end;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @NotNull(groups = Create.class, message = "Предмет не может быть пустым")
     @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
     @JoinColumn(name = "item_id")
     private Item item;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @NotNull(groups = Create.class, message = "Бронирующий не может быть пустым")
     @JoinColumn(name = "booker_id")
     @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
@@ -53,5 +53,11 @@ public class Booking {
     @Column(name = "status")
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
+
+    @Column(name = "is_started")
+    private boolean started;
+
+    @Column(name = "is_finished")
+    private boolean finished;
 }
 
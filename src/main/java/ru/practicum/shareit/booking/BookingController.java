@@ -2,16 +2,21 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.summary.BookingSummaryDto;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.fields.FieldSet;
 import ru.practicum.shareit.intf.Create;
 
-import java.util.List;
-
 import static ru.practicum.shareit.item.ItemController.USER_ID;
+import static ru.practicum.shareit.item.ItemController.checkPage;
 
 @RestController
 @RequestMapping("/bookings")
@@ -37,27 +42,67 @@ public class BookingController {
         return bookingService.setBookingApproval(userId, bookingId, approved);
     }
 
+    @GetMapping("/summary")
+    @ResponseStatus(HttpStatus.OK)
+    public BookingSummaryDto getSummary(@RequestHeader(USER_ID) long userId) {
+        log.info("Received request to get booking summary for user with ID: {}", userId);
+        return bookingService.getSummary(userId);
+    }
+
     @GetMapping("/{bookingId}")
     @ResponseStatus(HttpStatus.OK)
-    public BookingDto getBookingByIdAndBookerOrOwner(@PathVariable long bookingId,
-                                                     @RequestHeader(USER_ID) long userId) {
+    public MappingJacksonValue getBookingByIdAndBookerOrOwner(@PathVariable long bookingId,
+                                                              @RequestHeader(USER_ID) long userId,
+                                                              @RequestParam(value = FieldSet.PARAM, required = false)
+                                                              String fields) {
         log.info("Received request to get booking by ID {} for user with ID: {}", bookingId, userId);
-        return bookingService.getBookingByIdAndBookerOrOwner(bookingId, userId);
+        FieldSet fieldSet = FieldSet.parse(fields, BookingDto.class);
+        return fieldSet.apply(bookingService.getBookingByIdAndBookerOrOwner(bookingId, userId, fieldSet),
+                BookingDto.FILTER);
     }
 
     @GetMapping("/owner")
     @ResponseStatus(HttpStatus.OK)
-    public List<BookingDto> findBookingsByStateAndOwnerId(@RequestHeader(USER_ID) long userId,
-                                                          @RequestParam(value = "state", required = false) String state) {
+    public MappingJacksonValue findBookingsByStateAndOwnerId(@RequestHeader(USER_ID) long userId,
+                                                             @RequestParam(value = "state", required = false) String state,
+                                                             @RequestParam(value = FieldSet.PARAM, required = false)
+                                                             String fields,
+                                                             @RequestParam(value = "page", defaultValue = "0") int page,
+                                                             @RequestParam(value = "size", required = false) Integer size) {
         log.info("Received request to get bookings by owner with ID: {} and state: {}", userId, state);
-        return bookingService.findBookingsByStateAndOwnerId(userId, state);
+        FieldSet fieldSet = FieldSet.parse(fields, BookingDto.class);
+        Pageable pageable = toPageable(page, size);
+        return fieldSet.apply(bookingService.findBookingsByStateAndOwnerId(userId, state, fieldSet, pageable),
+                BookingDto.FILTER);
     }
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public List<BookingDto> findBookingsByStateAndBookerId(@RequestHeader(USER_ID) long userId,
-                                                           @RequestParam(value = "state", required = false) String state) {
+    public MappingJacksonValue findBookingsByStateAndBookerId(@RequestHeader(USER_ID) long userId,
+                                                              @RequestParam(value = "state", required = false) String state,
+                                                              @RequestParam(value = FieldSet.PARAM, required = false)
+                                                              String fields,
+                                                              @RequestParam(value = "page", defaultValue = "0") int page,
+                                                              @RequestParam(value = "size", required = false) Integer size) {
         log.info("Received request to get bookings by booker with ID: {} and state: {}", userId, state);
-        return bookingService.findBookingsByStateAndBookerId(userId, state);
+        FieldSet fieldSet = FieldSet.parse(fields, BookingDto.class);
+        Pageable pageable = toPageable(page, size);
+        return fieldSet.apply(bookingService.findBookingsByStateAndBookerId(userId, state, fieldSet, pageable),
+                BookingDto.FILTER);
+    }
+
+    /**
+     * Без {@code size} возвращается весь список, как и до появления пагинации. Размер и глубина страницы
+     * ограничены так же, как в поиске вещей.
+     */
+    private static Pageable toPageable(int page, Integer size) {
+        if (size == null) {
+            return Pageable.unpaged();
+        }
+        if (page < 0 || size < 1) {
+            throw new ValidationException("Invalid pagination parameters: page=" + page + ", size=" + size);
+        }
+        checkPage(page, size);
+        return PageRequest.of(page, size);
     }
-}
\ No newline at end of file
+}
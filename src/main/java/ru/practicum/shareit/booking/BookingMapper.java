@@ -2,8 +2,12 @@ package ru.practicum.shareit.booking;
 
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.fields.FieldSet;
+import ru.practicum.shareit.item.ItemAvailability;
 import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.UserMapper;
+import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -14,6 +18,14 @@ public class BookingMapper {
     private final UserMapper userMapper = new UserMapper();
 
     public BookingDto mapToBookingDto(Booking booking) {
+        return mapToBookingDto(booking, FieldSet.ALL);
+    }
+
+    /**
+     * Связанные вещь и бронирующий загружаются лениво, поэтому обращение к ним только для запрошенных полей
+     * избавляет от лишних запросов. Вещь собирается по её полям, выбранным через точку ({@code item.name}).
+     */
+    public BookingDto mapToBookingDto(Booking booking, FieldSet fields) {
         if (booking == null) {
             return null;
         }
@@ -22,8 +34,32 @@ public class BookingMapper {
                 .id(booking.getId())
                 .start(booking.getStart())
                 .end(booking.getEnd())
-                .item(itemMapper.mapToItemDto(booking.getItem()))
-                .booker(userMapper.mapToUserDto(booking.getBooker()))
+                .item(fields.includes("item") ? itemMapper.mapToItemDto(booking.getItem(), fields.nested("item")) : null)
+                .booker(fields.includes("booker") ? userMapper.mapToUserDto(booking.getBooker()) : null)
+                .status(booking.getStatus())
+                .build();
+    }
+
+    /**
+     * Ответ на создание бронирования без повторного чтения: вещь собирается из проекции, по которой
+     * проверялось бронирование, а от бронирующего в ответе только id. Комментарии вещи и имя с почтой
+     * бронирующего отдаёт {@code GET /bookings/{bookingId}}.
+     */
+    public BookingDto mapToNewBookingDto(Booking booking, ItemAvailability item) {
+        return BookingDto.builder()
+                .id(booking.getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .item(ItemDto.builder()
+                        .id(booking.getItem().getId())
+                        .name(item.getName())
+                        .description(item.getDescription())
+                        .available(item.getAvailable())
+                        .requestId(item.getRequest())
+                        .latitude(item.getLatitude())
+                        .longitude(item.getLongitude())
+                        .build())
+                .booker(UserDto.builder().id(booking.getBooker().getId()).build())
                 .status(booking.getStatus())
                 .build();
     }
@@ -41,8 +77,12 @@ public class BookingMapper {
     }
 
     public List<BookingDto> mapToBookingDtoList(List<Booking> bookings) {
+        return mapToBookingDtoList(bookings, FieldSet.ALL);
+    }
+
+    public List<BookingDto> mapToBookingDtoList(List<Booking> bookings, FieldSet fields) {
         return bookings.stream()
-                .map(this::mapToBookingDto)
+                .map(booking -> mapToBookingDto(booking, fields))
                 .collect(Collectors.toList());
     }
 }
\ No newline at end of file
@@ -1,22 +1,24 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
-import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.summary.BookingParticipants;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    List<Booking> findBookingsByItemOwner(long ownerId, Sort sort);
-
     boolean existsBookingsByBookerIdOrItemOwner(long bookerId, long ownerId);
 
-    List<Booking> findBookingsByBookerIdOrItemOwner(long bookerId, long ownerId, Sort sort);
-
     boolean existsByItemIdAndBookerIdAndStatusAndEndBefore(Long itemId, Long bookerId, BookingStatus status,
                                                            LocalDateTime localDateTime);
 
@@ -28,25 +30,121 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
 
     boolean existsByIdAndBookerIdOrItemOwner(Long id, Long bookerId, Long ownerId);
 
-    List<Booking> findBookingsByBookerIdOrderByStartDesc(long userId);
+    List<Booking> findBookingsByItemOwnerAndStartBeforeAndEndAfter(long userId, LocalDateTime now, LocalDateTime now1,
+                                                                   Pageable pageable);
+
+    List<Booking> findBookingsByBookerIdAndStartBeforeAndEndAfter(long userId, LocalDateTime now, LocalDateTime now1,
+                                                                  Pageable pageable);
 
-    List<Booking> findBookingsByBookerIdAndStatus(long userId, BookingStatus bookingStatus, Sort start);
+    List<Booking> findBookingsByItemOwner(long ownerId, Pageable pageable);
 
-    List<Booking> findBookingsByItemOwnerAndStatus(long userId, BookingStatus bookingStatus, Sort start);
+    List<Booking> findBookingsByBookerId(long bookerId, Pageable pageable);
 
-    List<BookingDto> findBookingsByItemOwnerAndStartBeforeAndEndAfter(long userId, LocalDateTime now, LocalDateTime now1);
+    List<Booking> findBookingsByBookerIdOrItemOwner(long bookerId, long ownerId, Pageable pageable);
 
-    List<BookingDto> findBookingsByBookerIdAndStartBeforeAndEndAfter(long userId, LocalDateTime now, LocalDateTime now1);
+    List<Booking> findBookingsByItemOwnerAndStatus(long ownerId, BookingStatus status, Pageable pageable);
 
-    List<BookingDto> findBookingsByItemOwnerAndEndBeforeOrderByEndDesc(long userId, LocalDateTime now);
+    List<Booking> findBookingsByBookerIdAndStatus(long bookerId, BookingStatus status, Pageable pageable);
 
-    List<BookingDto> findBookingsByBookerIdAndEndBeforeOrderByEndDesc(long userId, LocalDateTime now);
+    List<Booking> findBookingsByItemOwnerAndEndBefore(long ownerId, LocalDateTime now, Pageable pageable);
+
+    List<Booking> findBookingsByBookerIdAndEndBefore(long bookerId, LocalDateTime now, Pageable pageable);
 
     @Query("SELECT b FROM Booking b " +
             "WHERE b.item.id IN :itemIds " +
             "AND b.status = ru.practicum.shareit.booking.BookingStatus.APPROVED " +
             "ORDER BY b.start ASC")
     List<Booking> findApprovedBookingsForItems(@Param("itemIds") List<Long> itemIds);
+
+    @Query("SELECT b FROM Booking b " +
+            "JOIN FETCH b.item " +
+            "JOIN FETCH b.booker " +
+            "WHERE b.item.id IN :itemIds " +
+            "AND b.status = ru.practicum.shareit.booking.BookingStatus.APPROVED " +
+            "ORDER BY b.start ASC")
+    List<Booking> findApprovedBookingsWithBookerForItems(@Param("itemIds") Collection<Long> itemIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b WHERE b.id = :id")
+    Optional<Booking> findByIdForUpdate(@Param("id") long id);
+
+    @Query(value = "SELECT id FROM bookings WHERE status = 'WAITING' AND start_date <= :now " +
+            "ORDER BY start_date LIMIT :limit FOR UPDATE", nativeQuery = true)
+    List<Long> lockWaitingBookingsStartedBefore(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Query(value = "SELECT id FROM bookings WHERE status = 'APPROVED' AND is_started = false AND start_date <= :now " +
+            "ORDER BY start_date LIMIT :limit FOR UPDATE", nativeQuery = true)
+    List<Long> lockUnstartedBookingsStartedBefore(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Query(value = "SELECT id FROM bookings WHERE status = 'APPROVED' AND is_started = true AND is_finished = false " +
+            "AND end_date <= :now ORDER BY end_date LIMIT :limit FOR UPDATE", nativeQuery = true)
+    List<Long> lockUnfinishedBookingsEndedBefore(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Бронирования, которые закончились до {@code endedBefore} и больше не меняют состояние.
+     */
+    @Query(value = "SELECT id FROM bookings WHERE end_date < :endedBefore " +
+            "AND (status IN ('REJECTED', 'EXPIRED') OR is_finished = true) " +
+            "ORDER BY end_date LIMIT :limit FOR UPDATE", nativeQuery = true)
+    List<Long> lockArchivableBookings(@Param("endedBefore") LocalDateTime endedBefore, @Param("limit") int limit);
+
+    /**
+     * Ещё не начавшиеся бронирования в статусе {@code status}, где пользователь — бронирующий или владелец вещи.
+     */
+    @Query(value = "SELECT b.id FROM bookings b WHERE b.status = :status AND b.start_date > :now " +
+            "AND (b.booker_id = :userId OR b.item_id IN (SELECT i.id FROM items i WHERE i.owner_id = :userId)) " +
+            "ORDER BY b.id LIMIT :limit FOR UPDATE", nativeQuery = true)
+    List<Long> lockUpcomingBookingsOfUser(@Param("userId") long userId, @Param("status") String status,
+                                          @Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = ru.practicum.shareit.booking.BookingStatus.REJECTED WHERE b.id IN :ids")
+    int rejectBookings(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Booking b WHERE b.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = ru.practicum.shareit.booking.BookingStatus.EXPIRED WHERE b.id IN :ids")
+    int expireBookings(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Booking b SET b.started = true WHERE b.id IN :ids")
+    int markStarted(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Booking b SET b.finished = true WHERE b.id IN :ids")
+    int markFinished(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT b.item.owner AS ownerId, b.booker.id AS bookerId, COUNT(b) AS count FROM Booking b " +
+            "WHERE b.id IN :ids GROUP BY b.item.owner, b.booker.id")
+    List<BookingParticipants> countParticipants(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT COUNT(b) FROM Booking b " +
+            "WHERE b.status = ru.practicum.shareit.booking.BookingStatus.WAITING AND b.start <= :now")
+    long countWaitingBookingsStartedBefore(@Param("now") LocalDateTime now);
+
+    @Query("SELECT COUNT(b) FROM Booking b " +
+            "WHERE b.status = ru.practicum.shareit.booking.BookingStatus.APPROVED " +
+            "AND b.started = false AND b.start <= :now")
+    long countUnstartedBookingsStartedBefore(@Param("now") LocalDateTime now);
+
+    @Query("SELECT COUNT(b) FROM Booking b " +
+            "WHERE b.status = ru.practicum.shareit.booking.BookingStatus.APPROVED " +
+            "AND b.finished = false AND b.end <= :now")
+    long countUnfinishedBookingsEndedBefore(@Param("now") LocalDateTime now);
+
+    @Query("SELECT MIN(b.start) FROM Booking b WHERE b.status = ru.practicum.shareit.booking.BookingStatus.WAITING")
+    LocalDateTime findEarliestWaitingStart();
+
+    @Query("SELECT MIN(b.start) FROM Booking b " +
+            "WHERE b.status = ru.practicum.shareit.booking.BookingStatus.APPROVED AND b.started = false")
+    LocalDateTime findEarliestUnstartedStart();
+
+    @Query("SELECT MIN(b.end) FROM Booking b " +
+            "WHERE b.status = ru.practicum.shareit.booking.BookingStatus.APPROVED AND b.finished = false")
+    LocalDateTime findEarliestUnfinishedEnd();
 }
 
 
@@ -1,7 +1,10 @@
 package ru.practicum.shareit.booking;
 
+import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.summary.BookingSummaryDto;
+import ru.practicum.shareit.fields.FieldSet;
 
 import java.util.List;
 
@@ -11,29 +14,29 @@ public interface BookingService {
 
     BookingDto createBooking(long userId, BookingRequestDto bookingDto);
 
-    BookingDto getBookingByIdAndBookerOrOwner(long bookingId, long userId);
+    BookingSummaryDto getSummary(long userId);
+
+    BookingDto getBookingByIdAndBookerOrOwner(long bookingId, long userId, FieldSet fields);
 
     Booking getBookingById(long bookingId);
 
-    List<BookingDto> findBookingsByItemOwner(long userId);
+    List<BookingDto> findBookingsByItemOwner(long userId, FieldSet fields, Pageable page);
 
-    List<BookingDto> findBookingsByBookerId(long userId);
+    List<BookingDto> findBookingsByBookerId(long userId, FieldSet fields, Pageable page);
 
     boolean existsBookingByBookerIdOrItemOwner(long bookerId, long ownerId);
 
-    List<BookingDto> findBookingsByBookerIdOrItemOwner(long bookerId, long ownerId);
-
-    List<BookingDto> findBookingsByBookerIdAndStatusWaiting(long userId);
-
-    List<BookingDto> findBookingsByItemOwnerAndStatusWaiting(long userId);
+    List<BookingDto> findBookingsByBookerIdOrItemOwner(long bookerId, long ownerId, FieldSet fields, Pageable page);
 
-    List<BookingDto> findBookingsByItemOwnerAndStatusRejected(long userId);
+    List<BookingDto> findBookingsByBookerIdAndStatusWaiting(long userId, FieldSet fields, Pageable page);
 
-    List<BookingDto> findBookingsByBookerIdAndStatusRejected(long userId);
+    List<BookingDto> findBookingsByItemOwnerAndStatusWaiting(long userId, FieldSet fields, Pageable page);
 
-    List<BookingDto> findBookingsByStateAndOwnerId(long userId, String state);
+    List<BookingDto> findBookingsByItemOwnerAndStatusRejected(long userId, FieldSet fields, Pageable page);
 
-    List<BookingDto> findBookingsByStateAndBookerId(long userId, String state);
+    List<BookingDto> findBookingsByBookerIdAndStatusRejected(long userId, FieldSet fields, Pageable page);
 
+    List<BookingDto> findBookingsByStateAndOwnerId(long userId, String state, FieldSet fields, Pageable page);
 
+    List<BookingDto> findBookingsByStateAndBookerId(long userId, String state, FieldSet fields, Pageable page);
 }
@@ -2,20 +2,35 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.archive.ArchivedBooking;
+import ru.practicum.shareit.booking.archive.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.archive.BookingHistory;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingNotificationDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.events.BookingEventLog;
+import ru.practicum.shareit.booking.events.BookingEventType;
+import ru.practicum.shareit.booking.lifecycle.BookingLifecycleScheduler;
+import ru.practicum.shareit.booking.summary.BookingCounterService;
+import ru.practicum.shareit.booking.summary.BookingSummaryDto;
+import ru.practicum.shareit.booking.summary.BookingSummaryState;
 import ru.practicum.shareit.exceptions.ResourceNotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.fields.FieldSet;
+import ru.practicum.shareit.item.ItemAvailability;
 import ru.practicum.shareit.item.ItemRepository;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.outbox.OutboxEventType;
+import ru.practicum.shareit.outbox.OutboxService;
 import ru.practicum.shareit.user.UserRepository;
-import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @Transactional(readOnly = true)
@@ -27,32 +42,54 @@ public class BookingServiceImpl implements BookingService {
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingMapper bookingMapper;
+    private final BookingLifecycleScheduler lifecycleScheduler;
+    private final OutboxService outboxService;
+    private final BookingCounterService counterService;
+    private final BookingEventLog eventLog;
+    private final BookingHistory bookingHistory;
+    private final ArchivedBookingRepository archiveRepository;
 
     @Override
     @Transactional
     public BookingDto setBookingApproval(long userId, long bookingId, boolean approved) {
-        Booking booking = getBookingById(bookingId);
+        Booking booking = repository.findByIdForUpdate(bookingId).orElseThrow(()
+                -> new ResourceNotFoundException("Booking not found with ID: " + bookingId));
         if (booking.getItem().getOwner() != userId) {
             throw new ValidationException("User with ID " + userId + " is not the owner of the item.");
         }
 
+        if (userRepository.findActiveById(userId).isEmpty()) {
+            throw new ResourceNotFoundException("User not found with ID: " + userId);
+        }
+
         if (booking.getStatus() != BookingStatus.WAITING) {
             throw new ValidationException("Booking with ID " + bookingId +
                     " cannot be modified because it's not in WAITING status.");
         }
 
         booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
+        if (approved) {
+            lifecycleScheduler.onDueTime(booking.getStart());
+            lifecycleScheduler.onDueTime(booking.getEnd());
+        }
+        counterService.onTransition(booking.getItem().getOwner(), booking.getBooker().getId(),
+                BookingSummaryState.WAITING, approved ? BookingSummaryState.FUTURE : BookingSummaryState.REJECTED);
+        eventLog.append(approved ? BookingEventType.APPROVED : BookingEventType.REJECTED, bookingId);
+        outboxService.publish(approved ? OutboxEventType.BOOKING_APPROVED : OutboxEventType.BOOKING_REJECTED,
+                bookingId, booking.getBooker().getId(), toNotification(booking));
         return bookingMapper.mapToBookingDto(booking);
     }
 
     @Override
     @Transactional
     public BookingDto createBooking(long userId, BookingRequestDto bookingRequestDto) {
-        User booker = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
+        long itemId = bookingRequestDto.getItemId();
+        ItemAvailability item = itemRepository.findAvailabilityById(itemId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Item not found with ID: " + itemId));
 
-        Item item = itemRepository.findById(bookingRequestDto.getItemId())
-                .orElseThrow(() -> new ResourceNotFoundException("Item not found with ID: " + bookingRequestDto.getItemId()));
+        if (!item.getBookerActive()) {
+            throw new ResourceNotFoundException("User not found with ID: " + userId);
+        }
 
         if (!item.getAvailable()) {
             throw new ValidationException("The item is not available for booking.");
@@ -73,23 +110,46 @@ public class BookingServiceImpl implements BookingService {
         Booking booking = new Booking();
         booking.setStart(bookingRequestDto.getStart());
         booking.setEnd(bookingRequestDto.getEnd());
-        booking.setItem(item);
-        booking.setBooker(booker);
+        booking.setItem(itemRepository.getReferenceById(itemId));
+        booking.setBooker(userRepository.getReferenceById(userId));
         booking.setStatus(BookingStatus.WAITING);
 
         Booking savedBooking = repository.save(booking);
-        return bookingMapper.mapToBookingDto(savedBooking);
+        lifecycleScheduler.onDueTime(savedBooking.getStart());
+        counterService.onCreated(item.getOwner(), userId);
+        eventLog.append(BookingEventType.CREATED, savedBooking.getId());
+        outboxService.publish(OutboxEventType.BOOKING_CREATED, savedBooking.getId(), item.getOwner(),
+                toNotification(savedBooking, item.getName()));
+        return bookingMapper.mapToNewBookingDto(savedBooking, item);
     }
 
     @Override
-    public BookingDto getBookingByIdAndBookerOrOwner(long bookingId, long userId) {
-        Booking booking = getBookingById(bookingId);
+    public BookingSummaryDto getSummary(long userId) {
+        if (!userRepository.existsActiveById(userId)) {
+            throw new ResourceNotFoundException("User not found with ID: " + userId);
+        }
+        return counterService.getSummary(userId);
+    }
+
+    @Override
+    public BookingDto getBookingByIdAndBookerOrOwner(long bookingId, long userId, FieldSet fields) {
+        requireActiveUser(userId);
+        Optional<Booking> live = repository.findById(bookingId);
+        if (live.isEmpty()) {
+            Booking archived = archiveRepository.findById(bookingId)
+                    .map(ArchivedBooking::toBooking)
+                    .orElseThrow(() -> new ResourceNotFoundException("Booking not found with ID: " + bookingId));
+            if (archived.getBooker().getId() != userId && archived.getItem().getOwner() != userId) {
+                throw new ResourceNotFoundException("Booking not found for user with ID: " + userId);
+            }
+            return bookingMapper.mapToBookingDto(archived, fields);
+        }
 
         if (!repository.existsByIdAndBookerIdOrItemOwner(bookingId, userId, userId)) {
             throw new ResourceNotFoundException("Booking not found for user with ID: " + userId);
         }
 
-        return bookingMapper.mapToBookingDto(booking);
+        return bookingMapper.mapToBookingDto(live.get(), fields);
     }
 
     @Override
@@ -99,17 +159,18 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingDto> findBookingsByBookerId(long userId) {
-        List<Booking> bookings = repository.findBookingsByBookerIdOrderByStartDesc(userId);
+    public List<BookingDto> findBookingsByBookerId(long userId, FieldSet fields, Pageable page) {
+        List<Booking> bookings = bookingHistory.findByBooker(userId, page);
 
-        if (bookings.isEmpty()) {
+        if (bookings.isEmpty() && (page.isUnpaged() || page.getOffset() == 0)) {
             throw new ResourceNotFoundException("Booking not found with Booker ID: " + userId);
         }
-        return bookingMapper.mapToBookingDtoList(bookings);
+        return bookingMapper.mapToBookingDtoList(bookings, fields);
     }
 
     @Override
-    public List<BookingDto> findBookingsByStateAndOwnerId(long userId, String state) {
+    public List<BookingDto> findBookingsByStateAndOwnerId(long userId, String state, FieldSet fields, Pageable page) {
+        requireActiveUser(userId);
         if (!existsBookingByBookerIdOrItemOwner(userId, userId)) {
             throw new ResourceNotFoundException("No bookings found for user with ID: " + userId);
         }
@@ -118,126 +179,172 @@ public class BookingServiceImpl implements BookingService {
             switch (state) {
                 case "ALL":
                     log.info("Retrieving all bookings for owner with ID: {}", userId);
-                    return findBookingsByItemOwner(userId);
+                    return findBookingsByItemOwner(userId, fields, page);
                 case "FUTURE":
                     log.info("Retrieving future bookings for owner with ID: {}", userId);
-                    return findBookingsByItemOwner(userId);
+                    return findBookingsByItemOwner(userId, fields, page);
                 case "WAITING":
                     log.info("Retrieving waiting bookings for owner with ID: {}", userId);
-                    return findBookingsByItemOwnerAndStatusWaiting(userId);
+                    return findBookingsByItemOwnerAndStatusWaiting(userId, fields, page);
                 case "REJECTED":
                     log.info("Retrieving rejected bookings for owner with ID: {}", userId);
-                    return findBookingsByItemOwnerAndStatusRejected(userId);
+                    return findBookingsByItemOwnerAndStatusRejected(userId, fields, page);
                 case "CURRENT":
                     log.info("Retrieving current bookings for owner with ID: {}", userId);
-                    return findCurrentBookingsByOwnerId(userId);
+                    return findCurrentBookingsByOwnerId(userId, fields, page);
                 case "PAST":
                     log.info("Retrieving past bookings for owner with ID: {}", userId);
-                    return findPastBookingsByOwnerId(userId);
+                    return findPastBookingsByOwnerId(userId, fields, page);
                 default:
                     throw new ValidationException("Unknown state: " + state);
             }
         } else {
             log.info("No state specified. Retrieving all bookings for owner with ID: {}", userId);
-            return findBookingsByBookerIdOrItemOwner(userId, userId);
+            return findBookingsByBookerIdOrItemOwner(userId, userId, fields, page);
         }
     }
 
-    private List<BookingDto> findPastBookingsByOwnerId(long userId) {
-        return repository.findBookingsByItemOwnerAndEndBeforeOrderByEndDesc(userId, LocalDateTime.now());
+    private List<BookingDto> findPastBookingsByOwnerId(long userId, FieldSet fields, Pageable page) {
+        return bookingMapper.mapToBookingDtoList(
+                bookingHistory.findPastByOwner(userId, LocalDateTime.now(), page), fields);
     }
 
-    private List<BookingDto> findPastBookingsByBookerId(long userId) {
-        return repository.findBookingsByBookerIdAndEndBeforeOrderByEndDesc(userId, LocalDateTime.now());
+    private List<BookingDto> findPastBookingsByBookerId(long userId, FieldSet fields, Pageable page) {
+        return bookingMapper.mapToBookingDtoList(
+                bookingHistory.findPastByBooker(userId, LocalDateTime.now(), page), fields);
     }
 
-    private List<BookingDto> findCurrentBookingsByOwnerId(long userId) {
-        return repository.findBookingsByItemOwnerAndStartBeforeAndEndAfter(userId, LocalDateTime.now(), LocalDateTime.now());
+    private List<BookingDto> findCurrentBookingsByOwnerId(long userId, FieldSet fields, Pageable page) {
+        LocalDateTime now = LocalDateTime.now();
+        return bookingMapper.mapToBookingDtoList(
+                repository.findBookingsByItemOwnerAndStartBeforeAndEndAfter(userId, now, now, withStartDesc(page)),
+                fields);
     }
 
-    private List<BookingDto> findCurrentBookingsByBookerId(long userId) {
-        return repository.findBookingsByBookerIdAndStartBeforeAndEndAfter(userId, LocalDateTime.now(), LocalDateTime.now());
+    private List<BookingDto> findCurrentBookingsByBookerId(long userId, FieldSet fields, Pageable page) {
+        LocalDateTime now = LocalDateTime.now();
+        return bookingMapper.mapToBookingDtoList(
+                repository.findBookingsByBookerIdAndStartBeforeAndEndAfter(userId, now, now, withStartDesc(page)),
+                fields);
     }
 
     @Override
-    public List<BookingDto> findBookingsByStateAndBookerId(long userId, String state) {
+    public List<BookingDto> findBookingsByStateAndBookerId(long userId, String state, FieldSet fields, Pageable page) {
+        requireActiveUser(userId);
         if (state != null) {
             switch (state) {
                 case "ALL":
                     log.info("Retrieving all bookings for booker with ID: {}", userId);
-                    return findBookingsByBookerId(userId);
+                    return findBookingsByBookerId(userId, fields, page);
                 case "FUTURE":
                     log.info("Retrieving future bookings for booker with ID: {}", userId);
-                    return findBookingsByBookerId(userId);
+                    return findBookingsByBookerId(userId, fields, page);
                 case "WAITING":
                     log.info("Retrieving waiting bookings for booker with ID: {}", userId);
-                    return findBookingsByBookerIdAndStatusWaiting(userId);
+                    return findBookingsByBookerIdAndStatusWaiting(userId, fields, page);
                 case "REJECTED":
                     log.info("Retrieving rejected bookings for booker with ID: {}", userId);
-                    return findBookingsByBookerIdAndStatusRejected(userId);
+                    return findBookingsByBookerIdAndStatusRejected(userId, fields, page);
                 case "PAST":
                     log.info("Retrieving past bookings for booker with ID: {}", userId);
-                    return findPastBookingsByBookerId(userId);
+                    return findPastBookingsByBookerId(userId, fields, page);
                 case "CURRENT":
                     log.info("Retrieving current bookings for booker with ID: {}", userId);
-                    return findCurrentBookingsByBookerId(userId);
+                    return findCurrentBookingsByBookerId(userId, fields, page);
                 default:
                     throw new ValidationException("Unknown state: " + state);
             }
         } else {
             log.info("No state specified. Retrieving all bookings for booker with ID: {}", userId);
-            return findBookingsByBookerIdOrItemOwner(userId, userId);
+            return findBookingsByBookerIdOrItemOwner(userId, userId, fields, page);
         }
     }
 
     @Override
     public boolean existsBookingByBookerIdOrItemOwner(long bookerId, long ownerId) {
-        return repository.existsBookingsByBookerIdOrItemOwner(bookerId, ownerId);
+        return bookerId == ownerId
+                ? bookingHistory.existsByBookerOrOwner(bookerId)
+                : repository.existsBookingsByBookerIdOrItemOwner(bookerId, ownerId);
     }
 
     @Override
-    public List<BookingDto> findBookingsByItemOwner(long userId) {
-        List<Booking> bookings = repository.findBookingsByItemOwner(userId,
-                Sort.by(Sort.Direction.DESC, "start"));
-        if (bookings.isEmpty()) {
+    public List<BookingDto> findBookingsByItemOwner(long userId, FieldSet fields, Pageable page) {
+        List<Booking> bookings = bookingHistory.findByOwner(userId, page);
+        if (bookings.isEmpty() && (page.isUnpaged() || page.getOffset() == 0)) {
             throw new ResourceNotFoundException("Booking not found with Owner ID: " + userId);
         }
 
-        return bookingMapper.mapToBookingDtoList(bookings);
+        return bookingMapper.mapToBookingDtoList(bookings, fields);
     }
 
     @Override
-    public List<BookingDto> findBookingsByBookerIdOrItemOwner(long bookerId, long ownerId) {
-        List<Booking> bookings = repository.findBookingsByBookerIdOrItemOwner(bookerId, ownerId,
-                Sort.by(Sort.Direction.DESC, "start"));
-        return bookingMapper.mapToBookingDtoList(bookings);
+    public List<BookingDto> findBookingsByBookerIdOrItemOwner(long bookerId, long ownerId, FieldSet fields,
+                                                              Pageable page) {
+        List<Booking> bookings = bookerId == ownerId
+                ? bookingHistory.findByBookerOrOwner(bookerId, page)
+                : repository.findBookingsByBookerIdOrItemOwner(bookerId, ownerId, withStartDesc(page));
+        return bookingMapper.mapToBookingDtoList(bookings, fields);
     }
 
     @Override
-    public List<BookingDto> findBookingsByBookerIdAndStatusWaiting(long userId) {
+    public List<BookingDto> findBookingsByBookerIdAndStatusWaiting(long userId, FieldSet fields, Pageable page) {
         List<Booking> bookings = repository.findBookingsByBookerIdAndStatus(userId, BookingStatus.WAITING,
-                Sort.by(Sort.Direction.DESC, "start"));
-        return bookingMapper.mapToBookingDtoList(bookings);
+                withStartDesc(page));
+        return bookingMapper.mapToBookingDtoList(bookings, fields);
     }
 
     @Override
-    public List<BookingDto> findBookingsByItemOwnerAndStatusWaiting(long userId) {
+    public List<BookingDto> findBookingsByItemOwnerAndStatusWaiting(long userId, FieldSet fields, Pageable page) {
         List<Booking> bookings = repository.findBookingsByItemOwnerAndStatus(userId, BookingStatus.WAITING,
-                Sort.by(Sort.Direction.DESC, "start"));
-        return bookingMapper.mapToBookingDtoList(bookings);
+                withStartDesc(page));
+        return bookingMapper.mapToBookingDtoList(bookings, fields);
     }
 
     @Override
-    public List<BookingDto> findBookingsByItemOwnerAndStatusRejected(long userId) {
-        List<Booking> bookings = repository.findBookingsByItemOwnerAndStatus(userId, BookingStatus.REJECTED,
-                Sort.by(Sort.Direction.DESC, "start"));
-        return bookingMapper.mapToBookingDtoList(bookings);
+    public List<BookingDto> findBookingsByItemOwnerAndStatusRejected(long userId, FieldSet fields, Pageable page) {
+        List<Booking> bookings = bookingHistory.findByOwnerAndStatus(userId, BookingStatus.REJECTED, page);
+        return bookingMapper.mapToBookingDtoList(bookings, fields);
     }
 
     @Override
-    public List<BookingDto> findBookingsByBookerIdAndStatusRejected(long userId) {
-        List<Booking> bookings = repository.findBookingsByBookerIdAndStatus(userId, BookingStatus.REJECTED,
-                Sort.by(Sort.Direction.DESC, "start"));
-        return bookingMapper.mapToBookingDtoList(bookings);
+    public List<BookingDto> findBookingsByBookerIdAndStatusRejected(long userId, FieldSet fields, Pageable page) {
+        List<Booking> bookings = bookingHistory.findByBookerAndStatus(userId, BookingStatus.REJECTED, page);
+        return bookingMapper.mapToBookingDtoList(bookings, fields);
+    }
+
+    /**
+     * Удалённый пользователь не читает бронирования, как и несуществующий. Через кэш второго уровня,
+     * поэтому на каждом шарде это не отдельный запрос к базе.
+     */
+    private void requireActiveUser(long userId) {
+        if (userRepository.findActiveById(userId).isEmpty()) {
+            throw new ResourceNotFoundException("User not found with ID: " + userId);
+        }
+    }
+
+    private static Pageable withStartDesc(Pageable page) {
+        Sort sort = Sort.by(Sort.Direction.DESC, "start");
+        return page.isPaged()
+                ? PageRequest.of(page.getPageNumber(), page.getPageSize(), sort)
+                : Pageable.unpaged(sort);
+    }
+
+    private BookingNotificationDto toNotification(Booking booking) {
+        return toNotification(booking, booking.getItem().getName());
+    }
+
+    /**
+     * Имя вещи передаётся отдельно, чтобы уведомление о новом бронировании не инициализировало ссылку на вещь.
+     */
+    private BookingNotificationDto toNotification(Booking booking, String itemName) {
+        return BookingNotificationDto.builder()
+                .bookingId(booking.getId())
+                .itemId(booking.getItem().getId())
+                .itemName(itemName)
+                .bookerId(booking.getBooker().getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .status(booking.getStatus())
+                .build();
     }
 }
@@ -0,0 +1,199 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.summary.BookingCountsDto;
+import ru.practicum.shareit.booking.summary.BookingSummaryDto;
+import ru.practicum.shareit.exceptions.ResourceNotFoundException;
+import ru.practicum.shareit.fields.FieldSet;
+import ru.practicum.shareit.shard.Shards;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Бронирование хранится на шарде вещи, поэтому запросы по id бронирования, по вещи и по владельцу
+ * идут на один шард. Бронирования арендатора разбросаны по шардам владельцев: такие запросы
+ * выполняются на всех шардах параллельно, а ответы сливаются в общем порядке сортировки.
+ */
+@Service
+@Primary
+@RequiredArgsConstructor
+public class ShardedBookingService implements BookingService {
+
+    private static final Comparator<BookingDto> BY_START_DESC = Comparator.comparing(BookingDto::getStart)
+            .thenComparingLong(BookingDto::getId)
+            .reversed();
+    private static final Comparator<BookingDto> BY_END_DESC = Comparator.comparing(BookingDto::getEnd)
+            .thenComparingLong(BookingDto::getId)
+            .reversed();
+
+    private final BookingServiceImpl delegate;
+    private final Shards shards;
+
+    @Override
+    public BookingDto setBookingApproval(long userId, long bookingId, boolean approved) {
+        return shards.on(shards.forId(bookingId), () -> delegate.setBookingApproval(userId, bookingId, approved));
+    }
+
+    @Override
+    public BookingDto createBooking(long userId, BookingRequestDto bookingDto) {
+        return shards.on(shards.forId(bookingDto.getItemId()), () -> delegate.createBooking(userId, bookingDto));
+    }
+
+    @Override
+    public BookingSummaryDto getSummary(long userId) {
+        List<BookingSummaryDto> summaries = shards.gather(shard -> delegate.getSummary(userId));
+        return BookingSummaryDto.builder()
+                .asOwner(sum(summaries.stream().map(BookingSummaryDto::getAsOwner)))
+                .asBooker(sum(summaries.stream().map(BookingSummaryDto::getAsBooker)))
+                .build();
+    }
+
+    @Override
+    public BookingDto getBookingByIdAndBookerOrOwner(long bookingId, long userId, FieldSet fields) {
+        return shards.on(shards.forId(bookingId),
+                () -> delegate.getBookingByIdAndBookerOrOwner(bookingId, userId, fields));
+    }
+
+    @Override
+    public Booking getBookingById(long bookingId) {
+        return shards.on(shards.forId(bookingId), () -> delegate.getBookingById(bookingId));
+    }
+
+    @Override
+    public List<BookingDto> findBookingsByItemOwner(long userId, FieldSet fields, Pageable page) {
+        return shards.on(shards.forOwner(userId), () -> delegate.findBookingsByItemOwner(userId, fields, page));
+    }
+
+    @Override
+    public List<BookingDto> findBookingsByBookerId(long userId, FieldSet fields, Pageable page) {
+        return gather(page, BY_START_DESC, head -> delegate.findBookingsByBookerId(userId, fields, head));
+    }
+
+    @Override
+    public boolean existsBookingByBookerIdOrItemOwner(long bookerId, long ownerId) {
+        return shards.gather(shard -> delegate.existsBookingByBookerIdOrItemOwner(bookerId, ownerId))
+                .contains(true);
+    }
+
+    @Override
+    public List<BookingDto> findBookingsByBookerIdOrItemOwner(long bookerId, long ownerId, FieldSet fields,
+                                                              Pageable page) {
+        return gather(page, BY_START_DESC,
+                head -> delegate.findBookingsByBookerIdOrItemOwner(bookerId, ownerId, fields, head));
+    }
+
+    @Override
+    public List<BookingDto> findBookingsByBookerIdAndStatusWaiting(long userId, FieldSet fields, Pageable page) {
+        return gather(page, BY_START_DESC,
+                head -> delegate.findBookingsByBookerIdAndStatusWaiting(userId, fields, head));
+    }
+
+    @Override
+    public List<BookingDto> findBookingsByItemOwnerAndStatusWaiting(long userId, FieldSet fields, Pageable page) {
+        return shards.on(shards.forOwner(userId),
+                () -> delegate.findBookingsByItemOwnerAndStatusWaiting(userId, fields, page));
+    }
+
+    @Override
+    public List<BookingDto> findBookingsByItemOwnerAndStatusRejected(long userId, FieldSet fields, Pageable page) {
+        return shards.on(shards.forOwner(userId),
+                () -> delegate.findBookingsByItemOwnerAndStatusRejected(userId, fields, page));
+    }
+
+    @Override
+    public List<BookingDto> findBookingsByBookerIdAndStatusRejected(long userId, FieldSet fields, Pageable page) {
+        return gather(page, BY_START_DESC,
+                head -> delegate.findBookingsByBookerIdAndStatusRejected(userId, fields, head));
+    }
+
+    /**
+     * С состоянием ответ состоит из бронирований вещей владельца и берётся с его шарда. Но проверка,
+     * что у пользователя вообще есть бронирования, видит только этот шард; если она не прошла,
+     * запрос повторяется на всех шардах, где могут быть его бронирования как арендатора.
+     */
+    @Override
+    public List<BookingDto> findBookingsByStateAndOwnerId(long userId, String state, FieldSet fields,
+                                                          Pageable page) {
+        Function<Pageable, List<BookingDto>> query =
+                head -> delegate.findBookingsByStateAndOwnerId(userId, state, fields, head);
+        if (state == null || shards.count() == 1) {
+            return gather(page, BY_START_DESC, query);
+        }
+
+        try {
+            return shards.on(shards.forOwner(userId), () -> query.apply(page));
+        } catch (ResourceNotFoundException e) {
+            return gather(page, order(state), query);
+        }
+    }
+
+    @Override
+    public List<BookingDto> findBookingsByStateAndBookerId(long userId, String state, FieldSet fields,
+                                                           Pageable page) {
+        return gather(page, order(state),
+                head -> delegate.findBookingsByStateAndBookerId(userId, state, fields, head));
+    }
+
+    /**
+     * Каждый шард отдаёт начало своего списка длиной до конца запрошенной страницы, уже упорядоченное;
+     * списки сливаются и из результата вырезается страница. Шард, ответивший «не найдено», считается пустым,
+     * ошибка возвращается, только если так ответили все шарды.
+     */
+    private List<BookingDto> gather(Pageable page, Comparator<BookingDto> order,
+                                    Function<Pageable, List<BookingDto>> query) {
+        if (shards.count() == 1) {
+            return shards.on(0, () -> query.apply(page));
+        }
+
+        Pageable head = page.isPaged()
+                ? PageRequest.of(0, Math.toIntExact(page.getOffset() + page.getPageSize()))
+                : page;
+        List<ShardResult> results = shards.gather(shard -> {
+            try {
+                return new ShardResult(query.apply(head), null);
+            } catch (ResourceNotFoundException e) {
+                return new ShardResult(List.of(), e);
+            }
+        });
+        if (results.stream().allMatch(result -> result.notFound() != null)) {
+            throw results.get(0).notFound();
+        }
+
+        Stream<BookingDto> merged = results.stream()
+                .flatMap(result -> result.bookings().stream())
+                .sorted(order);
+        if (page.isPaged()) {
+            merged = merged.skip(page.getOffset()).limit(page.getPageSize());
+        }
+        return merged.collect(Collectors.toList());
+    }
+
+    private static Comparator<BookingDto> order(String state) {
+        return "PAST".equals(state) ? BY_END_DESC : BY_START_DESC;
+    }
+
+    private static BookingCountsDto sum(Stream<BookingCountsDto> counts) {
+        return counts.reduce(new BookingCountsDto(), (total, shard) -> BookingCountsDto.builder()
+                .all(total.getAll() + shard.getAll())
+                .waiting(total.getWaiting() + shard.getWaiting())
+                .future(total.getFuture() + shard.getFuture())
+                .current(total.getCurrent() + shard.getCurrent())
+                .past(total.getPast() + shard.getPast())
+                .rejected(total.getRejected() + shard.getRejected())
+                .expired(total.getExpired() + shard.getExpired())
+                .build());
+    }
+
+    private record ShardResult(List<BookingDto> bookings, ResourceNotFoundException notFound) {
+    }
+}
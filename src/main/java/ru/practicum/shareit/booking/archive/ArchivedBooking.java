@@ -0,0 +1,69 @@
+package ru.practicum.shareit.booking.archive;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Завершённое бронирование, перенесённое из {@code bookings} в {@code bookings_archive}.
+ * Id сохраняется, поэтому ссылки на бронирование остаются действительными.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "bookings_archive")
+public class ArchivedBooking {
+
+    @Id
+    private long id;
+
+    @Column(name = "start_date")
+    private LocalDateTime start;
+
+    @Column(name = "end_date")
+    private LocalDateTime end;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id")
+    private Item item;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "booker_id")
+    private User booker;
+
+    @Column(name = "status")
+    @Enumerated(EnumType.STRING)
+    private BookingStatus status;
+
+    @Column(name = "is_started")
+    private boolean started;
+
+    @Column(name = "is_finished")
+    private boolean finished;
+
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+
+    public Booking toBooking() {
+        return Booking.builder()
+                .id(id)
+                .start(start)
+                .end(end)
+                .item(item)
+                .booker(booker)
+                .status(status)
+                .started(started)
+                .finished(finished)
+                .build();
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.shareit.booking.archive;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+
+    List<ArchivedBooking> findByItemOwner(long ownerId, Pageable pageable);
+
+    List<ArchivedBooking> findByBookerId(long bookerId, Pageable pageable);
+
+    List<ArchivedBooking> findByBookerIdOrItemOwner(long bookerId, long ownerId, Pageable pageable);
+
+    List<ArchivedBooking> findByItemOwnerAndStatus(long ownerId, BookingStatus status, Pageable pageable);
+
+    List<ArchivedBooking> findByBookerIdAndStatus(long bookerId, BookingStatus status, Pageable pageable);
+
+    boolean existsByBookerIdOrItemOwner(long bookerId, long ownerId);
+
+    boolean existsByItemIdAndBookerIdAndStatus(long itemId, long bookerId, BookingStatus status);
+
+    /**
+     * Последнее начавшееся одобренное бронирование каждой из вещей; нужно для вещей,
+     * у которых в оперативной таблице таких бронирований уже не осталось. Порядок id в архиве
+     * не совпадает с порядком дат (импорт, перенос), поэтому последним считается бронирование
+     * с наибольшим {@code start}; строки каждой вещи идут по убыванию {@code start}, затем id.
+     */
+    @Query("SELECT a FROM ArchivedBooking a " +
+            "JOIN FETCH a.booker " +
+            "WHERE a.item.id IN :itemIds " +
+            "AND a.status = ru.practicum.shareit.booking.BookingStatus.APPROVED " +
+            "AND a.start = (SELECT MAX(a2.start) FROM ArchivedBooking a2 WHERE a2.item.id = a.item.id " +
+            "AND a2.status = ru.practicum.shareit.booking.BookingStatus.APPROVED) " +
+            "ORDER BY a.item.id, a.start DESC, a.id DESC")
+    List<ArchivedBooking> findLastApprovedBookingsForItems(@Param("itemIds") Collection<Long> itemIds);
+
+    @Modifying
+    @Query(value = "INSERT INTO bookings_archive " +
+            "(id, start_date, end_date, item_id, booker_id, status, is_started, is_finished, archived_at) " +
+            "SELECT id, start_date, end_date, item_id, booker_id, status, is_started, is_finished, :now " +
+            "FROM bookings WHERE id IN (:ids)", nativeQuery = true)
+    int copyFromBookings(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking.archive;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.booking.archive")
+public class BookingArchiveProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Сколько времени после окончания бронирование остаётся в оперативной таблице.
+     */
+    private Duration age = Duration.ofDays(180);
+
+    private Duration interval = Duration.ofHours(1);
+
+    private Duration leaseDuration = Duration.ofMinutes(5);
+
+    private int batchSize = 500;
+}
@@ -0,0 +1,94 @@
+package ru.practicum.shareit.booking.archive;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.lease.LeaseService;
+import ru.practicum.shareit.shard.Shards;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Переносит бронирования, закончившиеся раньше {@code age} назад и уже не меняющие состояние
+ * (завершённые, отклонённые, просроченные), из {@code bookings} в {@code bookings_archive}.
+ * Каждая пачка копируется и удаляется в одной транзакции, так что бронирование всегда находится
+ * ровно в одной из таблиц. Шарды обрабатываются по очереди, у каждого своя аренда.
+ */
+@Slf4j
+@Component
+public class BookingArchiver {
+
+    public static final String LEASE_NAME = "booking-archive";
+
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archiveRepository;
+    private final LeaseService leaseService;
+    private final Shards shards;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingArchiveProperties properties;
+    private final Counter archivedCounter;
+
+    public BookingArchiver(BookingRepository bookingRepository, ArchivedBookingRepository archiveRepository,
+                           LeaseService leaseService, Shards shards, TransactionTemplate transactionTemplate,
+                           BookingArchiveProperties properties, MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.archiveRepository = archiveRepository;
+        this.leaseService = leaseService;
+        this.shards = shards;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.archivedCounter = Counter.builder("bookings.archived")
+                .description("Bookings moved to bookings_archive")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.archive.interval:1h}")
+    public void archive() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        shards.forEach(this::archive);
+    }
+
+    private void archive(int shard) {
+        if (!leaseService.tryAcquire(LEASE_NAME, properties.getLeaseDuration())) {
+            return;
+        }
+
+        try {
+            archiveBatches(shard);
+        } finally {
+            leaseService.release(LEASE_NAME);
+        }
+    }
+
+    private void archiveBatches(int shard) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime endedBefore = now.minus(properties.getAge());
+        int total = 0;
+        int moved;
+        do {
+            Integer result = transactionTemplate.execute(status -> {
+                List<Long> ids = bookingRepository.lockArchivableBookings(endedBefore, properties.getBatchSize());
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                archiveRepository.copyFromBookings(ids, now);
+                return bookingRepository.deleteByIdIn(ids);
+            });
+            moved = result == null ? 0 : result;
+            total += moved;
+        } while (moved == properties.getBatchSize()
+                && leaseService.tryAcquire(LEASE_NAME, properties.getLeaseDuration()));
+
+        archivedCounter.increment(total);
+        if (total > 0) {
+            log.info("Перенесено в архив бронирований на шарде {}: {}", shard, total);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package ru.practicum.shareit.booking.archive;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Выборки, которые должны видеть и оперативные, и архивные бронирования.
+ * <p>
+ * Обе таблицы читаются в одном порядке, и каждая отдаёт не больше {@code offset + size} строк:
+ * больше из одной таблицы на страницу попасть не может. Затем два упорядоченных списка сливаются,
+ * и из результата вырезается запрошенная страница.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingHistory {
+
+    private static final Sort START_DESC = Sort.by(Sort.Direction.DESC, "start").and(Sort.by(Sort.Direction.DESC, "id"));
+    private static final Sort END_DESC = Sort.by(Sort.Direction.DESC, "end").and(Sort.by(Sort.Direction.DESC, "id"));
+    private static final Comparator<Booking> BY_START_DESC = Comparator.comparing(Booking::getStart)
+            .thenComparingLong(Booking::getId)
+            .reversed();
+    private static final Comparator<Booking> BY_END_DESC = Comparator.comparing(Booking::getEnd)
+            .thenComparingLong(Booking::getId)
+            .reversed();
+
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archiveRepository;
+
+    public List<Booking> findByOwner(long ownerId, Pageable page) {
+        return merge(page, START_DESC, BY_START_DESC,
+                p -> bookingRepository.findBookingsByItemOwner(ownerId, p),
+                p -> archiveRepository.findByItemOwner(ownerId, p));
+    }
+
+    public List<Booking> findByBooker(long bookerId, Pageable page) {
+        return merge(page, START_DESC, BY_START_DESC,
+                p -> bookingRepository.findBookingsByBookerId(bookerId, p),
+                p -> archiveRepository.findByBookerId(bookerId, p));
+    }
+
+    public List<Booking> findByBookerOrOwner(long userId, Pageable page) {
+        return merge(page, START_DESC, BY_START_DESC,
+                p -> bookingRepository.findBookingsByBookerIdOrItemOwner(userId, userId, p),
+                p -> archiveRepository.findByBookerIdOrItemOwner(userId, userId, p));
+    }
+
+    public List<Booking> findByOwnerAndStatus(long ownerId, BookingStatus status, Pageable page) {
+        return merge(page, START_DESC, BY_START_DESC,
+                p -> bookingRepository.findBookingsByItemOwnerAndStatus(ownerId, status, p),
+                p -> archiveRepository.findByItemOwnerAndStatus(ownerId, status, p));
+    }
+
+    public List<Booking> findByBookerAndStatus(long bookerId, BookingStatus status, Pageable page) {
+        return merge(page, START_DESC, BY_START_DESC,
+                p -> bookingRepository.findBookingsByBookerIdAndStatus(bookerId, status, p),
+                p -> archiveRepository.findByBookerIdAndStatus(bookerId, status, p));
+    }
+
+    /**
+     * Все архивные бронирования закончились, поэтому в PAST архив попадает целиком.
+     */
+    public List<Booking> findPastByOwner(long ownerId, LocalDateTime now, Pageable page) {
+        return merge(page, END_DESC, BY_END_DESC,
+                p -> bookingRepository.findBookingsByItemOwnerAndEndBefore(ownerId, now, p),
+                p -> archiveRepository.findByItemOwner(ownerId, p));
+    }
+
+    public List<Booking> findPastByBooker(long bookerId, LocalDateTime now, Pageable page) {
+        return merge(page, END_DESC, BY_END_DESC,
+                p -> bookingRepository.findBookingsByBookerIdAndEndBefore(bookerId, now, p),
+                p -> archiveRepository.findByBookerId(bookerId, p));
+    }
+
+    public boolean existsByBookerOrOwner(long userId) {
+        return bookingRepository.existsBookingsByBookerIdOrItemOwner(userId, userId)
+                || archiveRepository.existsByBookerIdOrItemOwner(userId, userId);
+    }
+
+    private List<Booking> merge(Pageable page, Sort sort, Comparator<Booking> order,
+                                Function<Pageable, List<Booking>> live,
+                                Function<Pageable, List<ArchivedBooking>> archived) {
+        Pageable head = page.isPaged()
+                ? PageRequest.of(0, Math.toIntExact(page.getOffset() + page.getPageSize()), sort)
+                : Pageable.unpaged(sort);
+        List<Booking> left = live.apply(head);
+        List<Booking> right = archived.apply(head).stream().map(ArchivedBooking::toBooking).toList();
+
+        List<Booking> merged = new ArrayList<>(left.size() + right.size());
+        int i = 0;
+        int j = 0;
+        while (i < left.size() && j < right.size()) {
+            merged.add(order.compare(left.get(i), right.get(j)) <= 0 ? left.get(i++) : right.get(j++));
+        }
+        merged.addAll(left.subList(i, left.size()));
+        merged.addAll(right.subList(j, right.size()));
+
+        if (page.isUnpaged()) {
+            return merged;
+        }
+        int from = (int) Math.min(page.getOffset(), merged.size());
+        int to = Math.min(from + page.getPageSize(), merged.size());
+        return merged.subList(from, to);
+    }
+}
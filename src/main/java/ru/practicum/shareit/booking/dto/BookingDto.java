@@ -1,5 +1,6 @@
 package ru.practicum.shareit.booking.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.FutureOrPresent;
 import jakarta.validation.constraints.NotNull;
@@ -15,11 +16,14 @@ import ru.practicum.shareit.user.dto.UserDto;
 import java.time.LocalDateTime;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
+@JsonFilter(BookingDto.FILTER)
 public class BookingDto {
 
+    public static final String FILTER = "bookingFields";
+
     private long id;
 
     @FutureOrPresent(groups = Create.class, message = "Время начала бронирования должно быть в будущем")
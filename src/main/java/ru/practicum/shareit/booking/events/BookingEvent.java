@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.events;
+
+import java.time.LocalDateTime;
+
+/**
+ * Запись журнала {@code booking_events}. Владелец и бронирующий копируются в событие, чтобы проекции
+ * строились по журналу без обращения к {@code bookings}, в том числе после архивации бронирования.
+ */
+public record BookingEvent(long seq, long bookingId, BookingEventType type, long itemId, long ownerId,
+                           long bookerId, LocalDateTime occurredAt) {
+}
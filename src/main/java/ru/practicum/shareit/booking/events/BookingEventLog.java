@@ -0,0 +1,112 @@
+package ru.practicum.shareit.booking.events;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Журнал изменений состояния бронирований в таблице {@code booking_events}: строки только добавляются,
+ * порядок задаёт {@code seq} шарда.
+ * <p>
+ * События копятся до конца транзакции изменения и пишутся перед её коммитом одной вставкой
+ * {@code INSERT ... SELECT} на тип события, поэтому пачка переходов планировщика — это одна операция,
+ * а откаченные изменения в журнал не попадают.
+ */
+@Service
+public class BookingEventLog {
+
+    private static final int MAX_IDS_PER_INSERT = 1000;
+
+    private static final RowMapper<BookingEvent> MAPPER = (rs, rowNum) -> new BookingEvent(
+            rs.getLong("seq"),
+            rs.getLong("booking_id"),
+            BookingEventType.valueOf(rs.getString("type")),
+            rs.getLong("item_id"),
+            rs.getLong("owner_id"),
+            rs.getLong("booker_id"),
+            rs.getTimestamp("occurred_at").toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BookingEventLog(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(BookingEventType type, long bookingId) {
+        append(type, List.of(bookingId));
+    }
+
+    /**
+     * Бронирования должны существовать в {@code bookings} до конца транзакции.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(BookingEventType type, Collection<Long> bookingIds) {
+        if (bookingIds.isEmpty()) {
+            return;
+        }
+        PendingEvents pending = (PendingEvents) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingEvents();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.ids.computeIfAbsent(type, t -> new LinkedHashSet<>()).addAll(bookingIds);
+    }
+
+    /**
+     * События текущего шарда с номером больше {@code afterSeq} по возрастанию номера, не больше {@code limit}.
+     */
+    public List<BookingEvent> read(long afterSeq, int limit) {
+        return jdbcTemplate.query("SELECT seq, booking_id, type, item_id, owner_id, booker_id, occurred_at "
+                + "FROM booking_events WHERE seq > ? ORDER BY seq LIMIT ?", MAPPER, afterSeq, limit);
+    }
+
+    private void insert(BookingEventType type, List<Long> bookingIds, Timestamp occurredAt) {
+        String placeholders = String.join(", ", Collections.nCopies(bookingIds.size(), "?"));
+        List<Object> args = new ArrayList<>(bookingIds.size() + 2);
+        args.add(type.name());
+        args.add(occurredAt);
+        args.addAll(bookingIds);
+        jdbcTemplate.update("INSERT INTO booking_events (booking_id, type, item_id, owner_id, booker_id, occurred_at) "
+                + "SELECT b.id, ?, b.item_id, i.owner_id, b.booker_id, ? FROM bookings b "
+                + "JOIN items i ON i.id = b.item_id WHERE b.id IN (" + placeholders + ") ORDER BY b.id",
+                args.toArray());
+    }
+
+    private class PendingEvents implements TransactionSynchronization {
+
+        private final Map<BookingEventType, Set<Long>> ids = new EnumMap<>(BookingEventType.class);
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            ids.forEach((type, bookingIds) -> {
+                List<Long> list = new ArrayList<>(bookingIds);
+                for (int from = 0; from < list.size(); from += MAX_IDS_PER_INSERT) {
+                    insert(type, list.subList(from, Math.min(list.size(), from + MAX_IDS_PER_INSERT)), now);
+                }
+            });
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(BookingEventLog.this);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking.events;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Модель чтения, которая строится по журналу {@link BookingEventLog}. События применяет
+ * {@link BookingEventProjector} из одного потока; чтение модели может идти параллельно.
+ */
+public interface BookingEventProjection {
+
+    /**
+     * Имя проекции в {@code booking_event_snapshots}; при несовместимом изменении формата снимка
+     * меняется и имя, чтобы старые снимки не читались.
+     */
+    String name();
+
+    void apply(BookingEvent event);
+
+    void clear();
+
+    void writeSnapshot(DataOutput out) throws IOException;
+
+    void readSnapshot(DataInput in) throws IOException;
+}
@@ -0,0 +1,219 @@
+package ru.practicum.shareit.booking.events;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exceptions.ResourceNotFoundException;
+import ru.practicum.shareit.lease.LeaseService;
+import ru.practicum.shareit.shard.Shards;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Поддерживает проекции {@link BookingEventProjection} на каждом узле.
+ * <p>
+ * При старте проекция восстанавливается из последнего снимка и дочитывает журнал каждого шарда
+ * с позиции снимка, а затем раз в {@code poll-interval} догоняет его от своей позиции. События моложе
+ * {@code grace} не применяются и не сдвигают позицию: так событие с меньшим номером, зафиксированное позже,
+ * не будет пропущено. Раз в {@code snapshot-interval} узел, владеющий арендой {@link #SNAPSHOT_LEASE_NAME},
+ * сохраняет снимки на нулевой шард и оставляет {@code snapshots-kept} последних.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.booking.events.enabled", havingValue = "true")
+public class BookingEventProjector {
+
+    public static final String SNAPSHOT_LEASE_NAME = "booking-event-snapshot";
+
+    private static final int SNAPSHOT_SHARD = 0;
+
+    private final Map<String, Projected> projections = new LinkedHashMap<>();
+    private final BookingEventLog eventLog;
+    private final JdbcTemplate jdbcTemplate;
+    private final LeaseService leaseService;
+    private final Shards shards;
+    private final BookingEventProperties properties;
+    private final Timer snapshotTimer;
+
+    public BookingEventProjector(List<BookingEventProjection> projections, BookingEventLog eventLog,
+                                 JdbcTemplate jdbcTemplate, LeaseService leaseService, Shards shards,
+                                 BookingEventProperties properties, MeterRegistry meterRegistry) {
+        this.eventLog = eventLog;
+        this.jdbcTemplate = jdbcTemplate;
+        this.leaseService = leaseService;
+        this.shards = shards;
+        this.properties = properties;
+        for (BookingEventProjection projection : projections) {
+            Counter applied = Counter.builder("shareit.booking.events.applied")
+                    .description("Booking events applied to a projection")
+                    .tag("projection", projection.name())
+                    .register(meterRegistry);
+            this.projections.put(projection.name(), new Projected(projection, new long[shards.count()], applied));
+        }
+        this.snapshotTimer = Timer.builder("shareit.booking.events.snapshot")
+                .description("Time to write a projection snapshot")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.events.poll-interval:1s}")
+    public void catchUp() {
+        projections.values().forEach(this::catchUp);
+    }
+
+    @Scheduled(initialDelayString = "${shareit.booking.events.snapshot-interval:10m}",
+            fixedDelayString = "${shareit.booking.events.snapshot-interval:10m}")
+    public void snapshot() {
+        boolean leased = shards.on(SNAPSHOT_SHARD,
+                () -> leaseService.tryAcquire(SNAPSHOT_LEASE_NAME, properties.getLeaseDuration()));
+        if (!leased) {
+            return;
+        }
+        projections.values().forEach(this::snapshot);
+    }
+
+    /**
+     * Сбрасывает проекцию и строит её заново по всему журналу, например после изменения её логики.
+     */
+    public void rebuild(String name) {
+        Projected projected = projections.get(name);
+        if (projected == null) {
+            throw new ResourceNotFoundException("Projection not found: " + name);
+        }
+        synchronized (projected) {
+            projected.projection.clear();
+            Arrays.fill(projected.positions, 0);
+            projected.restored = true;
+            log.info("Projection {} is rebuilt from the start of the booking event log", name);
+        }
+        catchUp(projected);
+    }
+
+    public List<ProjectionStatus> getStatus() {
+        return projections.values().stream()
+                .map(projected -> {
+                    synchronized (projected) {
+                        return new ProjectionStatus(projected.projection.name(), projected.positions.clone(),
+                                projected.snapshotAt);
+                    }
+                })
+                .toList();
+    }
+
+    private void catchUp(Projected projected) {
+        synchronized (projected) {
+            if (!projected.restored) {
+                restore(projected);
+            }
+            LocalDateTime horizon = LocalDateTime.now().minus(properties.getGrace());
+            shards.forEach(shard -> {
+                int applied;
+                do {
+                    applied = apply(projected, shard, horizon);
+                } while (applied == properties.getBatchSize());
+            });
+        }
+    }
+
+    private int apply(Projected projected, int shard, LocalDateTime horizon) {
+        int applied = 0;
+        for (BookingEvent event : eventLog.read(projected.positions[shard], properties.getBatchSize())) {
+            if (event.occurredAt().isAfter(horizon)) {
+                break;
+            }
+            projected.projection.apply(event);
+            projected.positions[shard] = event.seq();
+            applied++;
+        }
+        projected.applied.increment(applied);
+        return applied;
+    }
+
+    private void restore(Projected projected) {
+        String name = projected.projection.name();
+        List<Snapshot> snapshots = shards.on(SNAPSHOT_SHARD, () -> jdbcTemplate.query(
+                "SELECT state, created_at FROM booking_event_snapshots WHERE projection = ? ORDER BY id DESC LIMIT 1",
+                (rs, rowNum) -> new Snapshot(rs.getBytes("state"), rs.getTimestamp("created_at").toLocalDateTime()),
+                name));
+        projected.restored = true;
+        if (snapshots.isEmpty()) {
+            log.info("No snapshot of projection {}, replaying the booking event log from the start", name);
+            return;
+        }
+
+        Snapshot snapshot = snapshots.getFirst();
+        long[] positions;
+        try {
+            positions = BookingSnapshotCodec.decode(snapshot.state(), projected.projection);
+        } catch (RuntimeException e) {
+            log.warn("Cannot read snapshot of projection {}, replaying the log from the start", name, e);
+            return;
+        }
+        if (positions.length != projected.positions.length) {
+            log.warn("Snapshot of projection {} covers {} shards instead of {}, replaying the log from the start",
+                    name, positions.length, projected.positions.length);
+            projected.projection.clear();
+            return;
+        }
+        System.arraycopy(positions, 0, projected.positions, 0, positions.length);
+        projected.snapshotPositions = positions;
+        projected.snapshotAt = snapshot.createdAt();
+        log.info("Projection {} restored from snapshot of {} at positions {}", name, snapshot.createdAt(),
+                Arrays.toString(positions));
+    }
+
+    private void snapshot(Projected projected) {
+        synchronized (projected) {
+            if (!projected.restored || Arrays.equals(projected.positions, projected.snapshotPositions)) {
+                return;
+            }
+            String name = projected.projection.name();
+            LocalDateTime now = LocalDateTime.now();
+            long[] positions = projected.positions.clone();
+            byte[] state = snapshotTimer.record(() -> BookingSnapshotCodec.encode(positions, projected.projection));
+            shards.run(SNAPSHOT_SHARD, () -> {
+                jdbcTemplate.update("INSERT INTO booking_event_snapshots (projection, state, created_at) "
+                        + "VALUES (?, ?, ?)", name, state, Timestamp.valueOf(now));
+                jdbcTemplate.update("DELETE FROM booking_event_snapshots WHERE projection = ? AND id < "
+                                + "(SELECT MIN(id) FROM (SELECT id FROM booking_event_snapshots WHERE projection = ? "
+                                + "ORDER BY id DESC LIMIT ?) kept)",
+                        name, name, properties.getSnapshotsKept());
+            });
+            projected.snapshotPositions = positions;
+            projected.snapshotAt = now;
+            log.info("Сохранён снимок проекции {} на позициях {}: {} байт", name, Arrays.toString(positions),
+                    state.length);
+        }
+    }
+
+    public record ProjectionStatus(String name, long[] positions, LocalDateTime snapshotAt) {
+    }
+
+    private record Snapshot(byte[] state, LocalDateTime createdAt) {
+    }
+
+    private static final class Projected {
+
+        private final BookingEventProjection projection;
+        private final long[] positions;
+        private final Counter applied;
+        private long[] snapshotPositions = new long[0];
+        private LocalDateTime snapshotAt;
+        private boolean restored;
+
+        private Projected(BookingEventProjection projection, long[] positions, Counter applied) {
+            this.projection = projection;
+            this.positions = positions;
+            this.applied = applied;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.booking.events;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.booking.events")
+public class BookingEventProperties {
+
+    /**
+     * Включает проекции журнала; сам журнал пишется всегда.
+     */
+    private boolean enabled = true;
+
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    /**
+     * Сколько событий читается за один запрос при догонянии.
+     */
+    private int batchSize = 5000;
+
+    /**
+     * События моложе этого времени не применяются: номер выдаётся при вставке, и транзакция с меньшим
+     * номером может зафиксироваться позже. Должно покрывать фиксацию транзакции и расхождение часов узлов.
+     */
+    private Duration grace = Duration.ofSeconds(2);
+
+    private Duration snapshotInterval = Duration.ofMinutes(10);
+
+    private int snapshotsKept = 3;
+
+    private Duration leaseDuration = Duration.ofMinutes(5);
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.booking.events;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code GET /actuator/bookingevents} — позиции проекций журнала бронирований и время их последних снимков,
+ * {@code GET /actuator/bookingevents/{userId}} — статистика бронирований пользователя за всё время,
+ * {@code POST /actuator/bookingevents/{projection}} — перестроение проекции с начала журнала.
+ */
+@Component
+@Endpoint(id = "bookingevents")
+@ConditionalOnProperty(name = "shareit.booking.events.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class BookingEventsEndpoint {
+
+    private final BookingEventProjector projector;
+    private final UserBookingStatsProjection userStats;
+
+    @ReadOperation
+    public List<BookingEventProjector.ProjectionStatus> projections() {
+        return projector.getStatus();
+    }
+
+    @ReadOperation
+    public UserBookingStatsProjection.UserBookingStatsDto userStats(@Selector long userId) {
+        return userStats.getStats(userId);
+    }
+
+    @WriteOperation
+    public void rebuild(@Selector String projection) {
+        projector.rebuild(projection);
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.booking.events;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Формат снимка проекции: позиции журнала по шардам, за ними состояние проекции; всё сжато gzip.
+ */
+public final class BookingSnapshotCodec {
+
+    private BookingSnapshotCodec() {
+    }
+
+    public static byte[] encode(long[] positions, BookingEventProjection projection) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes, 1 << 16))) {
+            out.writeInt(positions.length);
+            for (long position : positions) {
+                out.writeLong(position);
+            }
+            projection.writeSnapshot(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write snapshot of projection " + projection.name(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Восстанавливает проекцию из снимка и возвращает его позиции. Если снимок не читается целиком
+     * (обрезан, повреждён), проекция очищается, чтобы догонять журнал с начала, а не поверх части снимка.
+     */
+    public static long[] decode(byte[] state, BookingEventProjection projection) {
+        boolean decoded = false;
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(state), 1 << 16))) {
+            long[] positions = new long[in.readInt()];
+            for (int shard = 0; shard < positions.length; shard++) {
+                positions[shard] = in.readLong();
+            }
+            projection.clear();
+            projection.readSnapshot(in);
+            decoded = true;
+            return positions;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read snapshot of projection " + projection.name(), e);
+        } finally {
+            if (!decoded) {
+                projection.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.booking.events;
+
+import org.springframework.stereotype.Component;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Число бронирований пользователя за всё время по типам событий, отдельно как владельца и как бронирующего.
+ * В отличие от {@code BookingCounterService}, учитывает и бронирования, перенесённые в архив.
+ */
+@Component
+public class UserBookingStatsProjection implements BookingEventProjection {
+
+    private static final BookingEventType[] TYPES = BookingEventType.values();
+
+    private final Map<Long, long[]> counts = new ConcurrentHashMap<>();
+
+    @Override
+    public String name() {
+        return "user-booking-stats-v1";
+    }
+
+    @Override
+    public void apply(BookingEvent event) {
+        counts.computeIfAbsent(event.ownerId(), id -> new long[TYPES.length * 2])[event.type().ordinal()]++;
+        counts.computeIfAbsent(event.bookerId(), id -> new long[TYPES.length * 2])
+                [TYPES.length + event.type().ordinal()]++;
+    }
+
+    @Override
+    public void clear() {
+        counts.clear();
+    }
+
+    public UserBookingStatsDto getStats(long userId) {
+        long[] userCounts = counts.getOrDefault(userId, new long[TYPES.length * 2]);
+        Map<BookingEventType, Long> asOwner = new EnumMap<>(BookingEventType.class);
+        Map<BookingEventType, Long> asBooker = new EnumMap<>(BookingEventType.class);
+        for (BookingEventType type : TYPES) {
+            asOwner.put(type, userCounts[type.ordinal()]);
+            asBooker.put(type, userCounts[TYPES.length + type.ordinal()]);
+        }
+        return new UserBookingStatsDto(userId, asOwner, asBooker);
+    }
+
+    public int size() {
+        return counts.size();
+    }
+
+    @Override
+    public void writeSnapshot(DataOutput out) throws IOException {
+        out.writeInt(TYPES.length * 2);
+        out.writeInt(counts.size());
+        for (Map.Entry<Long, long[]> entry : counts.entrySet()) {
+            out.writeLong(entry.getKey());
+            for (long count : entry.getValue()) {
+                out.writeLong(count);
+            }
+        }
+    }
+
+    @Override
+    public void readSnapshot(DataInput in) throws IOException {
+        int width = in.readInt();
+        if (width != TYPES.length * 2) {
+            throw new IOException("Snapshot has " + width + " counters per user, expected " + TYPES.length * 2);
+        }
+        int users = in.readInt();
+        for (int i = 0; i < users; i++) {
+            long userId = in.readLong();
+            long[] userCounts = new long[width];
+            for (int j = 0; j < width; j++) {
+                userCounts[j] = in.readLong();
+            }
+            counts.put(userId, userCounts);
+        }
+    }
+
+    public record UserBookingStatsDto(long userId, Map<BookingEventType, Long> asOwner,
+                                      Map<BookingEventType, Long> asBooker) {
+    }
+}
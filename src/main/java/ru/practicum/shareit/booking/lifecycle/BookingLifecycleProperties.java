@@ -0,0 +1,28 @@
+package ru.practicum.shareit.booking.lifecycle;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.booking.lifecycle")
+public class BookingLifecycleProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Интервал проверки времени следующего перехода; сама проверка не обращается к базе.
+     */
+    private Duration tick = Duration.ofSeconds(1);
+
+    /**
+     * Максимальный интервал, после которого время следующего перехода перечитывается из базы,
+     * даже если подсказок от текущего узла не было (бронирования могли создаваться на других узлах).
+     */
+    private Duration maxIdle = Duration.ofMinutes(1);
+
+    private Duration leaseDuration = Duration.ofSeconds(30);
+
+    private int batchSize = 500;
+}
@@ -0,0 +1,197 @@
+package ru.practicum.shareit.booking.lifecycle;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.events.BookingEventLog;
+import ru.practicum.shareit.booking.events.BookingEventType;
+import ru.practicum.shareit.booking.summary.BookingCounterService;
+import ru.practicum.shareit.booking.summary.BookingSummaryState;
+import ru.practicum.shareit.lease.LeaseService;
+import ru.practicum.shareit.shard.Shards;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Переводит бронирования по времени: WAITING с наступившим началом становятся EXPIRED,
+ * APPROVED с наступившим началом помечаются начавшимися, с прошедшим окончанием — завершёнными.
+ * Вместе с каждой пачкой переносятся счётчики {@link BookingCounterService}, а истёкшие бронирования
+ * попадают в журнал {@code BookingEventLog}.
+ * <p>
+ * Вместо периодического сканирования таблицы планировщик хранит время ближайшего перехода
+ * и обращается к базе только когда оно наступило (или истёк {@code max-idle}). Сервис бронирований
+ * сообщает о новых сроках через {@link #onDueTime}. Переходы выполняются пачками UPDATE
+ * только на узле, владеющем арендой {@link #LEASE_NAME}; у каждого шарда своя аренда.
+ */
+@Slf4j
+@Component
+public class BookingLifecycleScheduler {
+
+    public static final String LEASE_NAME = "booking-lifecycle";
+
+    private final BookingRepository repository;
+    private final BookingCounterService counterService;
+    private final BookingEventLog eventLog;
+    private final LeaseService leaseService;
+    private final Shards shards;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingLifecycleProperties properties;
+
+    private final AtomicReference<LocalDateTime> nextDueAt = new AtomicReference<>(LocalDateTime.MIN);
+    private final AtomicLong backlog = new AtomicLong();
+    private final Counter expiredCounter;
+    private final Counter startedCounter;
+    private final Counter finishedCounter;
+    private volatile LocalDateTime refreshedAt = LocalDateTime.MIN;
+
+    public BookingLifecycleScheduler(BookingRepository repository, BookingCounterService counterService,
+                                     BookingEventLog eventLog, LeaseService leaseService, Shards shards,
+                                     TransactionTemplate transactionTemplate,
+                                     BookingLifecycleProperties properties, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.counterService = counterService;
+        this.eventLog = eventLog;
+        this.leaseService = leaseService;
+        this.shards = shards;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        Gauge.builder("bookings.lifecycle.backlog", backlog, AtomicLong::get)
+                .description("Bookings whose time-based transition is due but not yet applied")
+                .register(meterRegistry);
+        this.expiredCounter = Counter.builder("bookings.lifecycle.transitions")
+                .tag("type", "expired")
+                .register(meterRegistry);
+        this.startedCounter = Counter.builder("bookings.lifecycle.transitions")
+                .tag("type", "started")
+                .register(meterRegistry);
+        this.finishedCounter = Counter.builder("bookings.lifecycle.transitions")
+                .tag("type", "finished")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Сообщает планировщику о времени, к которому может понадобиться переход. Внутри транзакции срок
+     * учитывается только после её фиксации, чтобы откаченное бронирование не будило планировщик.
+     */
+    public void onDueTime(LocalDateTime dueAt) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            advanceTo(dueAt);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                advanceTo(dueAt);
+            }
+        });
+    }
+
+    private void advanceTo(LocalDateTime dueAt) {
+        nextDueAt.accumulateAndGet(dueAt, (current, candidate) -> candidate.isBefore(current) ? candidate : current);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.lifecycle.tick:1s}")
+    public void tick() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (now.isBefore(nextDueAt.get()) && now.isBefore(refreshedAt.plus(properties.getMaxIdle()))) {
+            return;
+        }
+
+        nextDueAt.set(LocalDateTime.MAX);
+        backlog.set(0);
+        shards.forEach(shard -> tick(shard, now));
+        refreshedAt = now;
+    }
+
+    private void tick(int shard, LocalDateTime now) {
+        if (!leaseService.tryAcquire(LEASE_NAME, properties.getLeaseDuration())) {
+            onDueTime(now.plus(properties.getLeaseDuration()));
+            return;
+        }
+
+        try {
+            transition(shard, now);
+        } finally {
+            leaseService.release(LEASE_NAME);
+        }
+    }
+
+    private void transition(int shard, LocalDateTime now) {
+        backlog.addAndGet(repository.countWaitingBookingsStartedBefore(now)
+                + repository.countUnstartedBookingsStartedBefore(now)
+                + repository.countUnfinishedBookingsEndedBefore(now));
+        int expired = runInBatches(limit -> repository.lockWaitingBookingsStartedBefore(now, limit),
+                ids -> {
+                    eventLog.append(BookingEventType.EXPIRED, ids);
+                    return repository.expireBookings(ids);
+                }, BookingSummaryState.WAITING, BookingSummaryState.EXPIRED);
+        // Начало обрабатывается раньше окончания: завершить можно только начавшееся бронирование.
+        int started = runInBatches(limit -> repository.lockUnstartedBookingsStartedBefore(now, limit),
+                repository::markStarted, BookingSummaryState.FUTURE, BookingSummaryState.CURRENT);
+        int finished = runInBatches(limit -> repository.lockUnfinishedBookingsEndedBefore(now, limit),
+                repository::markFinished, BookingSummaryState.CURRENT, BookingSummaryState.PAST);
+        expiredCounter.increment(expired);
+        startedCounter.increment(started);
+        finishedCounter.increment(finished);
+        if (expired > 0 || started > 0 || finished > 0) {
+            log.info("Booking lifecycle on shard {}: {} expired, {} started, {} finished", shard, expired, started,
+                    finished);
+        }
+
+        refreshNextDueTime(now);
+    }
+
+    private int runInBatches(IntFunction<List<Long>> lock, ToIntFunction<List<Long>> update,
+                             BookingSummaryState from, BookingSummaryState to) {
+        int total = 0;
+        int updated;
+        do {
+            Integer result = transactionTemplate.execute(status -> {
+                List<Long> ids = lock.apply(properties.getBatchSize());
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                counterService.onTransition(ids, from, to);
+                return update.applyAsInt(ids);
+            });
+            updated = result == null ? 0 : result;
+            total += updated;
+            backlog.addAndGet(-updated);
+        } while (updated == properties.getBatchSize()
+                && leaseService.tryAcquire(LEASE_NAME, properties.getLeaseDuration()));
+        return total;
+    }
+
+    private void refreshNextDueTime(LocalDateTime now) {
+        LocalDateTime nextStart = repository.findEarliestWaitingStart();
+        LocalDateTime nextApprovedStart = repository.findEarliestUnstartedStart();
+        LocalDateTime nextEnd = repository.findEarliestUnfinishedEnd();
+        LocalDateTime next = now.plus(properties.getMaxIdle());
+        if (nextStart != null && nextStart.isBefore(next)) {
+            next = nextStart;
+        }
+        if (nextApprovedStart != null && nextApprovedStart.isBefore(next)) {
+            next = nextApprovedStart;
+        }
+        if (nextEnd != null && nextEnd.isBefore(next)) {
+            next = nextEnd;
+        }
+        onDueTime(next);
+    }
+}
@@ -0,0 +1,150 @@
+package ru.practicum.shareit.booking.summary;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Счётчики бронирований по состояниям для владельцев и бронирующих в таблице {@code booking_counters}.
+ * <p>
+ * Счётчик пользователя разбит на {@code stripes} строк: каждое изменение прибавляет дельту к случайной полосе,
+ * поэтому одновременные бронирования одного владельца почти не ждут блокировок друг друга,
+ * а чтение складывает полосы и не обращается к {@code bookings}. Изменения применяются в транзакции
+ * изменения бронирования и в порядке ключей строк, чтобы встречные транзакции не взаимоблокировались.
+ */
+@Service
+public class BookingCounterService {
+
+    private static final String OWNER = "OWNER";
+    private static final String BOOKER = "BOOKER";
+
+    private static final Comparator<Delta> LOCK_ORDER = Comparator.comparingLong(Delta::userId)
+            .thenComparing(Delta::role)
+            .thenComparing(Delta::state)
+            .thenComparingInt(Delta::stripe);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BookingRepository bookingRepository;
+    private final int stripes;
+
+    public BookingCounterService(JdbcTemplate jdbcTemplate, BookingRepository bookingRepository,
+                                 @Value("${shareit.booking.counters.stripes:8}") int stripes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bookingRepository = bookingRepository;
+        this.stripes = stripes;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onCreated(long ownerId, long bookerId) {
+        apply(deltas(ownerId, bookerId, null, BookingSummaryState.WAITING, 1));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onTransition(long ownerId, long bookerId, BookingSummaryState from, BookingSummaryState to) {
+        apply(deltas(ownerId, bookerId, from, to, 1));
+    }
+
+    /**
+     * Переносит пачку бронирований между состояниями. Строки бронирований должны быть уже заблокированы
+     * вызывающей транзакцией, иначе параллельное изменение одного из них собьёт счётчики.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onTransition(Collection<Long> bookingIds, BookingSummaryState from, BookingSummaryState to) {
+        List<Delta> deltas = new ArrayList<>();
+        for (BookingParticipants participants : bookingRepository.countParticipants(bookingIds)) {
+            deltas.addAll(deltas(participants.getOwnerId(), participants.getBookerId(), from, to,
+                    participants.getCount()));
+        }
+        apply(deltas);
+    }
+
+    /**
+     * Удаляет счётчики пользователя; счётчики других участников его бронирований не меняются.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleteCounters(long userId) {
+        jdbcTemplate.update("DELETE FROM booking_counters WHERE user_id = ?", userId);
+    }
+
+    @Transactional(readOnly = true)
+    public BookingSummaryDto getSummary(long userId) {
+        Map<BookingSummaryState, Long> asOwner = new EnumMap<>(BookingSummaryState.class);
+        Map<BookingSummaryState, Long> asBooker = new EnumMap<>(BookingSummaryState.class);
+        jdbcTemplate.query("SELECT role, state, SUM(cnt) AS total FROM booking_counters " +
+                        "WHERE user_id = ? GROUP BY role, state",
+                rs -> {
+                    Map<BookingSummaryState, Long> counts = OWNER.equals(rs.getString("role")) ? asOwner : asBooker;
+                    counts.put(BookingSummaryState.valueOf(rs.getString("state")), rs.getLong("total"));
+                },
+                userId);
+        return BookingSummaryDto.builder()
+                .asOwner(toDto(asOwner))
+                .asBooker(toDto(asBooker))
+                .build();
+    }
+
+    private List<Delta> deltas(long ownerId, long bookerId, BookingSummaryState from, BookingSummaryState to,
+                               long count) {
+        List<Delta> deltas = new ArrayList<>(4);
+        if (from != null) {
+            deltas.add(new Delta(ownerId, OWNER, from.name(), stripe(), -count));
+            deltas.add(new Delta(bookerId, BOOKER, from.name(), stripe(), -count));
+        }
+        deltas.add(new Delta(ownerId, OWNER, to.name(), stripe(), count));
+        deltas.add(new Delta(bookerId, BOOKER, to.name(), stripe(), count));
+        return deltas;
+    }
+
+    private void apply(List<Delta> deltas) {
+        deltas.sort(LOCK_ORDER);
+        for (Delta delta : deltas) {
+            if (update(delta) == 0 && insert(delta) == 0) {
+                // Строку только что вставила другая транзакция.
+                update(delta);
+            }
+        }
+    }
+
+    private int update(Delta delta) {
+        return jdbcTemplate.update("UPDATE booking_counters SET cnt = cnt + ? " +
+                        "WHERE user_id = ? AND role = ? AND state = ? AND stripe = ?",
+                delta.value(), delta.userId(), delta.role(), delta.state(), delta.stripe());
+    }
+
+    private int insert(Delta delta) {
+        return jdbcTemplate.update("INSERT INTO booking_counters (user_id, role, state, stripe, cnt) " +
+                        "VALUES (?, ?, ?, ?, ?) ON CONFLICT DO NOTHING",
+                delta.userId(), delta.role(), delta.state(), delta.stripe(), delta.value());
+    }
+
+    private int stripe() {
+        return ThreadLocalRandom.current().nextInt(stripes);
+    }
+
+    private static BookingCountsDto toDto(Map<BookingSummaryState, Long> counts) {
+        BookingCountsDto dto = BookingCountsDto.builder()
+                .waiting(counts.getOrDefault(BookingSummaryState.WAITING, 0L))
+                .future(counts.getOrDefault(BookingSummaryState.FUTURE, 0L))
+                .current(counts.getOrDefault(BookingSummaryState.CURRENT, 0L))
+                .past(counts.getOrDefault(BookingSummaryState.PAST, 0L))
+                .rejected(counts.getOrDefault(BookingSummaryState.REJECTED, 0L))
+                .expired(counts.getOrDefault(BookingSummaryState.EXPIRED, 0L))
+                .build();
+        dto.setAll(counts.values().stream().mapToLong(Long::longValue).sum());
+        return dto;
+    }
+
+    private record Delta(long userId, String role, String state, int stripe, long value) {
+    }
+}
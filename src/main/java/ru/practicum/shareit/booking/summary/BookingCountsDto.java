@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.summary;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingCountsDto {
+
+    private long all;
+    private long waiting;
+    private long future;
+    private long current;
+    private long past;
+    private long rejected;
+    private long expired;
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.summary;
+
+/**
+ * Число бронирований в пачке для пары владелец вещи — бронирующий.
+ */
+public interface BookingParticipants {
+
+    long getOwnerId();
+
+    long getBookerId();
+
+    long getCount();
+}
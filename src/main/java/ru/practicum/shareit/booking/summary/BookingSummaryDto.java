@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.summary;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingSummaryDto {
+
+    private BookingCountsDto asOwner;
+    private BookingCountsDto asBooker;
+}
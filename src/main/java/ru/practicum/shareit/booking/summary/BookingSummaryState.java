@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.summary;
+
+/**
+ * Состояния, по которым ведутся счётчики. Каждое бронирование в любой момент находится ровно в одном из них.
+ */
+public enum BookingSummaryState {
+    WAITING,
+    FUTURE,
+    CURRENT,
+    PAST,
+    REJECTED,
+    EXPIRED
+}
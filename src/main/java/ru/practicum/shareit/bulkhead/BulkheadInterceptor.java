@@ -0,0 +1,144 @@
+package ru.practicum.shareit.bulkhead;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.practicum.shareit.exceptions.TooManyRequestsException;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Переборки: запрос ждёт место в своём классе не дольше {@code queue-timeout}, иначе получает 429.
+ * На время запроса класс запоминается в потоке, и {@link BulkheadRoutingDataSource} выдаёт соединения
+ * из пула этого класса.
+ */
+@Slf4j
+@Component
+public class BulkheadInterceptor implements HandlerInterceptor {
+
+    private static final ThreadLocal<EndpointClass> CURRENT = new ThreadLocal<>();
+    private static final String CLASS_ATTRIBUTE = BulkheadInterceptor.class.getName() + ".class";
+    private static final Duration OVERLOAD_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final BulkheadProperties properties;
+    private final Map<EndpointClass, Compartment> compartments = new EnumMap<>(EndpointClass.class);
+
+    public BulkheadInterceptor(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            compartments.put(endpointClass,
+                    new Compartment(endpointClass, properties.partition(endpointClass), meterRegistry));
+        }
+    }
+
+    /**
+     * Класс запроса, который обрабатывается в текущем потоке; вне запроса — {@code null}.
+     */
+    public static EndpointClass current() {
+        return CURRENT.get();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+
+        EndpointClass endpointClass = classify(request);
+        compartments.get(endpointClass).acquire();
+        request.setAttribute(CLASS_ATTRIBUTE, endpointClass);
+        CURRENT.set(endpointClass);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(CLASS_ATTRIBUTE) instanceof EndpointClass endpointClass) {
+            request.removeAttribute(CLASS_ATTRIBUTE);
+            CURRENT.remove();
+            compartments.get(endpointClass).release();
+        }
+    }
+
+    private EndpointClass classify(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+        EndpointClass endpointClass = properties.getEndpoints().get(endpoint);
+        if (endpointClass != null) {
+            return endpointClass;
+        }
+        return "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod())
+                ? EndpointClass.INTERACTIVE_READ
+                : EndpointClass.CRITICAL_WRITE;
+    }
+
+    private static class Compartment {
+
+        private final EndpointClass endpointClass;
+        private final int maxConcurrent;
+        private final long queueTimeoutNanos;
+        private final Semaphore permits;
+        private final Counter rejectedCounter;
+        private final Timer waitTimer;
+
+        Compartment(EndpointClass endpointClass, BulkheadProperties.Partition partition, MeterRegistry meterRegistry) {
+            this.endpointClass = endpointClass;
+            this.maxConcurrent = partition.getMaxConcurrent();
+            this.queueTimeoutNanos = partition.getQueueTimeout().toNanos();
+            this.permits = new Semaphore(maxConcurrent, true);
+            String tag = endpointClass.tag();
+            this.rejectedCounter = Counter.builder("shareit.bulkhead.rejected")
+                    .tag("class", tag)
+                    .register(meterRegistry);
+            this.waitTimer = Timer.builder("shareit.bulkhead.wait")
+                    .tag("class", tag)
+                    .register(meterRegistry);
+            Gauge.builder("shareit.bulkhead.in.flight", this, Compartment::inFlight)
+                    .tag("class", tag)
+                    .register(meterRegistry);
+            Gauge.builder("shareit.bulkhead.queued", permits, Semaphore::getQueueLength)
+                    .tag("class", tag)
+                    .register(meterRegistry);
+            Gauge.builder("shareit.bulkhead.saturation", this, compartment -> compartment.inFlight() / maxConcurrent)
+                    .tag("class", tag)
+                    .register(meterRegistry);
+        }
+
+        void acquire() {
+            long start = System.nanoTime();
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (!acquired) {
+                rejectedCounter.increment();
+                log.warn("Bulkhead {} is full, request rejected", endpointClass.tag());
+                throw new TooManyRequestsException("Server is overloaded, retry later", OVERLOAD_RETRY_AFTER);
+            }
+        }
+
+        void release() {
+            permits.release();
+        }
+
+        double inFlight() {
+            return maxConcurrent - permits.availablePermits();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.bulkhead;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Переборки между классами эндпоинтов. Класс берётся из {@link #endpoints} по шаблону вида
+ * {@code GET /items/search}; не перечисленные там GET — {@code interactive-read}, остальные — {@code critical-write}.
+ */
+@Data
+@ConfigurationProperties(prefix = "shareit.bulkhead")
+public class BulkheadProperties {
+
+    private boolean enabled = false;
+
+    private Map<String, EndpointClass> endpoints = new HashMap<>();
+
+    private Map<EndpointClass, Partition> classes = defaultClasses();
+
+    /**
+     * Пул соединений для работы вне запросов: фоновых задач, инициализации схемы.
+     */
+    private int backgroundPoolSize = 4;
+
+    public Partition partition(EndpointClass endpointClass) {
+        return classes.getOrDefault(endpointClass, defaultClasses().get(endpointClass));
+    }
+
+    private static Map<EndpointClass, Partition> defaultClasses() {
+        Map<EndpointClass, Partition> classes = new EnumMap<>(EndpointClass.class);
+        classes.put(EndpointClass.CRITICAL_WRITE, new Partition(6, 6, Duration.ofSeconds(1)));
+        classes.put(EndpointClass.INTERACTIVE_READ, new Partition(6, 6, Duration.ofMillis(500)));
+        classes.put(EndpointClass.HEAVY_READ, new Partition(2, 2, Duration.ofMillis(200)));
+        return classes;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Partition {
+
+        /**
+         * Число одновременно обрабатываемых запросов класса.
+         */
+        private int maxConcurrent;
+
+        /**
+         * Размер пула соединений класса. Держится не ниже {@link #maxConcurrent}, чтобы допущенный запрос
+         * не ждал соединение.
+         */
+        private int poolSize;
+
+        /**
+         * Сколько запрос ждёт свободного места в классе, прежде чем получить 429.
+         */
+        private Duration queueTimeout;
+    }
+}
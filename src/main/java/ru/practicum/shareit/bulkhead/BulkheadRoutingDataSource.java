@@ -0,0 +1,41 @@
+package ru.practicum.shareit.bulkhead;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Отдаёт соединения из пула класса запроса, выбранного {@link BulkheadInterceptor};
+ * вне запроса — из фонового пула.
+ */
+public class BulkheadRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final List<DataSource> pools;
+
+    public BulkheadRoutingDataSource(Map<EndpointClass, DataSource> partitions, DataSource background) {
+        List<DataSource> pools = new ArrayList<>(partitions.values());
+        pools.add(background);
+        this.pools = List.copyOf(pools);
+        setTargetDataSources(new HashMap<>(partitions));
+        setDefaultTargetDataSource(background);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return BulkheadInterceptor.current();
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource pool : pools) {
+            if (pool instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.bulkhead;
+
+/**
+ * Класс эндпоинта: у каждого свой лимит одновременных запросов и свой пул соединений.
+ */
+public enum EndpointClass {
+
+    /**
+     * Дешёвые записи, которые не должны ждать тяжёлые чтения: создание и подтверждение бронирований и т.п.
+     */
+    CRITICAL_WRITE,
+
+    /**
+     * Точечные чтения по идентификатору.
+     */
+    INTERACTIVE_READ,
+
+    /**
+     * Сканы и выборки истории: поиск, списки бронирований, импорт.
+     */
+    HEAVY_READ;
+
+    public String tag() {
+        return name().toLowerCase().replace('_', '-');
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.coalescing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Объединяет одновременные вычисления с одинаковым ключом: первый вызов (лидер) выполняет загрузку,
+ * остальные ждут его результат. Результат не кэшируется — после завершения лидера следующий вызов
+ * снова идёт в загрузчик. Каждый вызов, включая лидера, получает свою копию результата через {@code copier},
+ * поэтому вызывающий может менять полученный объект, не затрагивая остальных ожидающих.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter followers;
+    private final UnaryOperator<V> copier;
+
+    public SingleFlight(String name, UnaryOperator<V> copier, MeterRegistry meterRegistry) {
+        this.copier = copier;
+        this.leaders = Counter.builder("shareit.coalescing.requests")
+                .tag("name", name)
+                .tag("role", "leader")
+                .register(meterRegistry);
+        this.followers = Counter.builder("shareit.coalescing.requests")
+                .tag("name", name)
+                .tag("role", "follower")
+                .register(meterRegistry);
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            followers.increment();
+            return copier.apply(await(existing));
+        }
+
+        leaders.increment();
+        V value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        // Снимаем запись до завершения, чтобы пришедшие позже не получили уже готовый, возможно устаревший результат.
+        inFlight.remove(key, flight);
+        flight.complete(value);
+        return copier.apply(value);
+    }
+
+    private V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.comment.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -11,11 +12,14 @@ import ru.practicum.shareit.intf.Create;
 import java.time.LocalDateTime;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
+@JsonFilter(CommentDto.FILTER)
 public class CommentDto {
 
+    public static final String FILTER = "commentFields";
+
     private Long id;
 
     @NotBlank(groups = Create.class, message = "Текст не может быть пустым")
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.bulkhead.BulkheadProperties;
+import ru.practicum.shareit.bulkhead.BulkheadRoutingDataSource;
+import ru.practicum.shareit.bulkhead.EndpointClass;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * При включённых переборках {@code spring.datasource} делится на отдельные пулы классов эндпоинтов
+ * и фоновый пул. С шардированием пулы не делятся: переборки ограничивают только число запросов.
+ */
+@Configuration
+@EnableConfigurationProperties(BulkheadProperties.class)
+public class BulkheadConfig {
+
+    @Bean
+    @ConditionalOnExpression("${shareit.bulkhead.enabled:false} and !${shareit.sharding.enabled:false}")
+    public BulkheadRoutingDataSource dataSource(BulkheadProperties properties, DataSourceProperties dataSourceProperties,
+                                                MeterRegistry meterRegistry) {
+        Map<EndpointClass, DataSource> partitions = new EnumMap<>(EndpointClass.class);
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            BulkheadProperties.Partition partition = properties.partition(endpointClass);
+            if (partition.getPoolSize() < partition.getMaxConcurrent()) {
+                throw new IllegalStateException("shareit.bulkhead.classes." + endpointClass.tag()
+                        + ".pool-size must not be less than max-concurrent");
+            }
+            partitions.put(endpointClass, pool(dataSourceProperties, meterRegistry,
+                    "bulkhead-" + endpointClass.tag(), partition.getPoolSize()));
+        }
+        return new BulkheadRoutingDataSource(partitions, pool(dataSourceProperties, meterRegistry,
+                "bulkhead-background", properties.getBackgroundPoolSize()));
+    }
+
+    private static HikariDataSource pool(DataSourceProperties dataSourceProperties, MeterRegistry meterRegistry,
+                                         String name, int size) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName(name);
+        dataSource.setMaximumPoolSize(size);
+        dataSource.setMinimumIdle(Math.min(size, 2));
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.invalidation.CacheInvalidationProperties;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Кэш второго уровня Hibernate для сущностей {@code User} и {@code Item}.
+ * Регионы создаются здесь, чтобы размер и TTL задавались через {@link EntityCacheProperties}.
+ */
+@Configuration
+@EnableConfigurationProperties({EntityCacheProperties.class, CacheInvalidationProperties.class})
+public class EntityCacheConfig {
+
+    public static final String USERS_REGION = "users";
+    public static final String ITEMS_REGION = "items";
+
+    /**
+     * Собственный менеджер контекста под уникальным URI, а не общий для JVM менеджер по умолчанию:
+     * его можно закрыть вместе с контекстом, не закрывая кэши других контекстов.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager(EntityCacheProperties properties) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("shareit:entity-cache:" + UUID.randomUUID()),
+                        EntityCacheConfig.class.getClassLoader());
+        createRegion(cacheManager, USERS_REGION, properties);
+        createRegion(cacheManager, ITEMS_REGION, properties);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(CacheManager entityCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+    }
+
+    private void createRegion(CacheManager cacheManager, String region, EntityCacheProperties properties) {
+        if (cacheManager.getCache(region) != null) {
+            return;
+        }
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(properties.getMaxSize()));
+        configuration.setExpireAfterWrite(OptionalLong.of(properties.getTtl().toNanos()));
+        configuration.setStatisticsEnabled(true);
+        cacheManager.createCache(region, configuration);
+    }
+}
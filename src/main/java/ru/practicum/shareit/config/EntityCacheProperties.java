@@ -0,0 +1,21 @@
+package ru.practicum.shareit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.cache.entity")
+public class EntityCacheProperties {
+
+    /**
+     * Максимальное число сущностей в каждом регионе кэша второго уровня.
+     */
+    private long maxSize = 10_000;
+
+    /**
+     * Время жизни записи в кэше с момента её записи.
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import ru.practicum.shareit.reactive.ReactiveReadProperties;
+import ru.practicum.shareit.shard.ShardingProperties;
+
+/**
+ * Пул R2DBC для неблокирующего стека чтения.
+ * <p>
+ * Пул намеренно не публикуется бином {@code ConnectionFactory}: при его наличии Spring Boot не создаёт
+ * {@code spring.datasource}, на котором работает всё остальное приложение.
+ */
+@Configuration
+@EnableConfigurationProperties(ReactiveReadProperties.class)
+public class ReactiveReadConfig {
+
+    @Bean(destroyMethod = "dispose")
+    @ConditionalOnProperty(name = "shareit.reactive.enabled", havingValue = "true")
+    public ConnectionPoolHolder reactiveConnectionPool(ReactiveReadProperties properties,
+                                                       ShardingProperties shardingProperties) {
+        if (shardingProperties.isEnabled()) {
+            throw new IllegalStateException("shareit.reactive reads a single database and cannot be used with sharding");
+        }
+        if (properties.getUrl() == null) {
+            throw new IllegalStateException("shareit.reactive is enabled but shareit.reactive.url is not set");
+        }
+
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(properties.getUrl()).mutate();
+        if (properties.getUsername() != null) {
+            options.option(ConnectionFactoryOptions.USER, properties.getUsername());
+        }
+        if (properties.getPassword() != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, properties.getPassword());
+        }
+        ConnectionPoolConfiguration configuration = ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options.build()))
+                .name("reactive-read")
+                .maxSize(properties.getMaxPoolSize())
+                .build();
+        return new ConnectionPoolHolder(new ConnectionPool(configuration));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "shareit.reactive.enabled", havingValue = "true")
+    public DatabaseClient reactiveDatabaseClient(ConnectionPoolHolder reactiveConnectionPool) {
+        return DatabaseClient.create(reactiveConnectionPool.pool());
+    }
+
+    public record ConnectionPoolHolder(ConnectionPool pool) {
+
+        public void dispose() {
+            pool.dispose();
+        }
+    }
+}
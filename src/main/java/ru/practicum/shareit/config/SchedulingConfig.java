@@ -0,0 +1,18 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import ru.practicum.shareit.booking.archive.BookingArchiveProperties;
+import ru.practicum.shareit.booking.events.BookingEventProperties;
+import ru.practicum.shareit.booking.lifecycle.BookingLifecycleProperties;
+import ru.practicum.shareit.outbox.OutboxProperties;
+import ru.practicum.shareit.user.purge.UserPurgeProperties;
+import ru.practicum.shareit.user.replica.UserReplicaProperties;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties({BookingLifecycleProperties.class, BookingArchiveProperties.class, OutboxProperties.class,
+        UserPurgeProperties.class, BookingEventProperties.class, UserReplicaProperties.class})
+public class SchedulingConfig {
+}
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.shard.ShardRoutingDataSource;
+import ru.practicum.shareit.shard.ShardSchemaInitializer;
+import ru.practicum.shareit.shard.ShardingProperties;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * При {@code shareit.sharding.enabled=true} вместо {@code spring.datasource} приложение работает
+ * с маршрутизирующим источником над базами из {@link ShardingProperties}.
+ */
+@Configuration
+@EnableConfigurationProperties({ShardingProperties.class, SqlInitializationProperties.class})
+public class ShardingConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "shareit.sharding.enabled", havingValue = "true")
+    public ShardRoutingDataSource dataSource(ShardingProperties properties) {
+        if (properties.getShards().isEmpty()) {
+            throw new IllegalStateException("Sharding is enabled but shareit.sharding.shards is empty");
+        }
+
+        List<DataSource> shards = new ArrayList<>();
+        for (ShardingProperties.Shard shard : properties.getShards()) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .build();
+            dataSource.setPoolName("shard-" + shards.size());
+            shards.add(dataSource);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "shareit.sharding.enabled", havingValue = "true")
+    public ShardSchemaInitializer shardSchemaInitializer(ShardRoutingDataSource dataSource,
+                                                         SqlInitializationProperties properties) {
+        return new ShardSchemaInitializer(dataSource, properties);
+    }
+}
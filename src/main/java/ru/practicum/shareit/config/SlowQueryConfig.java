@@ -0,0 +1,35 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.shard.Shards;
+import ru.practicum.shareit.slowquery.SlowQueryLog;
+import ru.practicum.shareit.slowquery.SlowQueryPostProcessor;
+import ru.practicum.shareit.slowquery.SlowQueryProperties;
+
+import javax.sql.DataSource;
+
+@Configuration
+@EnableConfigurationProperties(SlowQueryProperties.class)
+public class SlowQueryConfig {
+
+    /**
+     * Статический: постпроцессор создаётся до остальных бинов, а журнал берёт лениво, при первом запросе.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "shareit.slow-query.enabled", havingValue = "true", matchIfMissing = true)
+    public static SlowQueryPostProcessor slowQueryPostProcessor(ObjectProvider<SlowQueryLog> slowQueryLog) {
+        return new SlowQueryPostProcessor(slowQueryLog);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "shareit.slow-query.enabled", havingValue = "true", matchIfMissing = true)
+    public SlowQueryLog slowQueryLog(SlowQueryProperties properties, DataSource dataSource, Shards shards,
+                                     MeterRegistry meterRegistry) {
+        return new SlowQueryLog(properties, dataSource, shards, meterRegistry);
+    }
+}
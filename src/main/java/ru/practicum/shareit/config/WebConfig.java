@@ -0,0 +1,29 @@
+package ru.practicum.shareit.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.practicum.shareit.bulkhead.BulkheadInterceptor;
+import ru.practicum.shareit.idempotency.IdempotencyProperties;
+import ru.practicum.shareit.imports.ImportProperties;
+import ru.practicum.shareit.ratelimit.AdmissionControlInterceptor;
+import ru.practicum.shareit.ratelimit.RateLimitProperties;
+
+@Configuration
+@RequiredArgsConstructor
+@EnableConfigurationProperties({RateLimitProperties.class, IdempotencyProperties.class, ImportProperties.class})
+public class WebConfig implements WebMvcConfigurer {
+
+    private final AdmissionControlInterceptor admissionControlInterceptor;
+    private final BulkheadInterceptor bulkheadInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(bulkheadInterceptor)
+                .excludePathPatterns("/actuator/**");
+        registry.addInterceptor(admissionControlInterceptor)
+                .excludePathPatterns("/actuator/**");
+    }
+}
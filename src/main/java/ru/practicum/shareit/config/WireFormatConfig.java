@@ -0,0 +1,39 @@
+package ru.practicum.shareit.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Помимо JSON контроллеры отдают и принимают CBOR ({@code application/cbor})
+ * и Smile ({@code application/x-jackson-smile}) — формат выбирается по заголовкам Accept/Content-Type.
+ * Конвертеры строятся из того же настроенного Spring Boot билдера, что и JSON,
+ * поэтому модули, формат дат и фильтры полей у всех форматов общие.
+ */
+@Configuration
+public class WireFormatConfig {
+
+    /**
+     * Генерирует байткод доступа к свойствам DTO вместо рефлексии; Spring Boot добавляет модуль во все ObjectMapper.
+     */
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
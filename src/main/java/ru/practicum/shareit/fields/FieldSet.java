@@ -0,0 +1,218 @@
+package ru.practicum.shareit.fields;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import ru.practicum.shareit.exceptions.ValidationException;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Набор полей DTO, запрошенный клиентом через параметр {@code fields}.
+ * Определяет и то, какие поля попадут в ответ, и какие запросы сервисы вообще выполнят.
+ * <p>
+ * Поля вложенного DTO с {@code @JsonFilter} задаются через точку: {@code id,item.name,item.available}.
+ * Фильтр Jackson один на тип, поэтому поля, выбранные для вложенного типа, действуют на все его вхождения
+ * в ответе; вложенный DTO без выбранных полей сериализуется целиком.
+ */
+public final class FieldSet {
+
+    public static final String PARAM = "fields";
+
+    public static final FieldSet ALL = new FieldSet(null, Map.of(), Map.of());
+
+    private final Set<String> fields;
+
+    /**
+     * Выбранные поля вложенных DTO по имени поля-родителя.
+     */
+    private final Map<String, FieldSet> nested;
+
+    /**
+     * Фильтры всех DTO, достижимых из корневого: выбранные поля или {@code null}, если нужны все.
+     */
+    private final Map<String, Set<String>> filters;
+
+    private FieldSet(Set<String> fields, Map<String, FieldSet> nested, Map<String, Set<String>> filters) {
+        this.fields = fields;
+        this.nested = nested;
+        this.filters = filters;
+    }
+
+    /**
+     * Разбирает значение вида {@code id,name,item.name}; пустое значение означает все поля.
+     */
+    public static FieldSet parse(String value, Class<?> dtoType) {
+        if (value == null || value.isBlank()) {
+            return ALL;
+        }
+
+        Map<String, Field> known = fields(dtoType);
+        Set<String> requested = new LinkedHashSet<>();
+        Map<String, Set<String>> requestedNested = new LinkedHashMap<>();
+        Map<String, Set<String>> filters = new HashMap<>();
+        for (String filterId : reachableFilters(dtoType, new HashMap<>()).keySet()) {
+            filters.put(filterId, null);
+        }
+        for (String field : value.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            int dot = name.indexOf('.');
+            Field parent = known.get(dot < 0 ? name : name.substring(0, dot));
+            if (parent == null) {
+                throw new ValidationException("Unknown field: " + name);
+            }
+            requested.add(parent.getName());
+            if (dot < 0) {
+                continue;
+            }
+
+            Class<?> nestedType = filteredType(parent);
+            String child = name.substring(dot + 1);
+            if (nestedType == null || !fields(nestedType).containsKey(child)) {
+                throw new ValidationException("Unknown field: " + name);
+            }
+            requestedNested.computeIfAbsent(parent.getName(), key -> new LinkedHashSet<>()).add(child);
+            String filterId = nestedType.getAnnotation(JsonFilter.class).value();
+            Set<String> filterFields = filters.get(filterId);
+            if (filterFields == null) {
+                filterFields = new LinkedHashSet<>();
+                filters.put(filterId, filterFields);
+            }
+            filterFields.add(child);
+        }
+        if (requested.isEmpty()) {
+            return ALL;
+        }
+
+        Map<String, FieldSet> nested = new HashMap<>();
+        requestedNested.forEach((parent, children) -> nested.put(parent,
+                new FieldSet(Collections.unmodifiableSet(children), Map.of(), Map.of())));
+        return new FieldSet(Collections.unmodifiableSet(requested), nested, filters);
+    }
+
+    public static FieldSet of(String... fields) {
+        return new FieldSet(Set.of(fields), Map.of(), Map.of());
+    }
+
+    public boolean isAll() {
+        return fields == null;
+    }
+
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field);
+    }
+
+    public boolean includesAny(String... names) {
+        return Arrays.stream(names).anyMatch(this::includes);
+    }
+
+    /**
+     * Поля вложенного DTO в поле {@code field}; все, если через точку ничего не выбрано.
+     */
+    public FieldSet nested(String field) {
+        return nested.getOrDefault(field, ALL);
+    }
+
+    /**
+     * Оборачивает тело ответа так, чтобы у DTO с фильтром {@code filterId} сериализовались только выбранные поля.
+     */
+    public MappingJacksonValue apply(Object body, String filterId) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(filters(filterId));
+        return value;
+    }
+
+    /**
+     * Фильтры Jackson для DTO с фильтром {@code filterId} и всех вложенных в него DTO с фильтрами;
+     * {@code null}, если нужны все поля.
+     */
+    public FilterProvider filters(String filterId) {
+        if (isAll()) {
+            return null;
+        }
+        SimpleFilterProvider provider = new SimpleFilterProvider();
+        filters.forEach((id, selected) -> provider.addFilter(id, selected == null
+                ? SimpleBeanPropertyFilter.serializeAll()
+                : SimpleBeanPropertyFilter.filterOutAllExcept(selected)));
+        return provider.addFilter(filterId, SimpleBeanPropertyFilter.filterOutAllExcept(fields));
+    }
+
+    private static Map<String, Field> fields(Class<?> dtoType) {
+        Map<String, Field> fields = new LinkedHashMap<>();
+        for (Field field : dtoType.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                fields.put(field.getName(), field);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Тип DTO с {@code @JsonFilter} в поле или элементах поля-коллекции; {@code null}, если фильтра нет.
+     */
+    private static Class<?> filteredType(Field field) {
+        Class<?> type = field.getType();
+        if (Collection.class.isAssignableFrom(type)
+                && field.getGenericType() instanceof ParameterizedType parameterized
+                && parameterized.getActualTypeArguments()[0] instanceof Class<?> element) {
+            type = element;
+        }
+        return type.isAnnotationPresent(JsonFilter.class) ? type : null;
+    }
+
+    private static Map<String, Class<?>> reachableFilters(Class<?> dtoType, Map<String, Class<?>> found) {
+        for (Field field : fields(dtoType).values()) {
+            Class<?> nestedType = filteredType(field);
+            if (nestedType != null
+                    && found.putIfAbsent(nestedType.getAnnotation(JsonFilter.class).value(), nestedType) == null) {
+                reachableFilters(nestedType, found);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FieldSet other)) {
+            return false;
+        }
+        return (fields == null ? other.fields == null : fields.equals(other.fields)) && nested.equals(other.nested);
+    }
+
+    @Override
+    public int hashCode() {
+        return fields == null ? 0 : fields.hashCode() * 31 + nested.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        if (fields == null) {
+            return "*";
+        }
+        return fields.stream()
+                .flatMap(field -> nested.containsKey(field)
+                        ? nested.get(field).fields.stream().map(child -> field + "." + child)
+                        : Stream.of(field))
+                .collect(Collectors.joining(","));
+    }
+}
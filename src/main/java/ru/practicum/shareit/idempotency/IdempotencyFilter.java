@@ -0,0 +1,259 @@
+package ru.practicum.shareit.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import ru.practicum.shareit.exceptions.ErrorMessage;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static ru.practicum.shareit.item.ItemController.USER_ID;
+
+/**
+ * Заголовок {@code Idempotency-Key} для {@code POST /bookings}, {@code POST /items},
+ * {@code POST /items/{id}/comment} и {@code POST /requests}.
+ * <p>
+ * Первый запрос с ключом кладёт в хранилище незавершённый {@link CompletableFuture} и выполняется как обычно,
+ * его успешный ответ сохраняется и хранится {@code ttl} от завершения запроса. Повтор с тем же ключом, пользователем и путём получает сохранённый
+ * ответ с заголовком {@code Idempotent-Replayed}, не доходя до контроллера; одновременный повтор ждёт
+ * первый запрос. Если первый запрос завершился ошибкой, ответ не сохраняется и повтор выполняется сам.
+ * Повтор с другим телом получает 422. Хранилище ограничено по размеру и времени и своё у каждого узла.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String REPLAYED = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final List<String> PATTERNS = List.of("/bookings", "/items", "/items/{itemId}/comment", "/requests");
+
+    private final IdempotencyProperties properties;
+    private final ObjectMapper objectMapper;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Cache<Key, CompletableFuture<StoredResponse>> responses;
+    private final Counter executedCounter;
+    private final Counter replayedCounter;
+    private final Counter rejectedCounter;
+
+    public IdempotencyFilter(IdempotencyProperties properties, ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfterWrite(properties.getTtl())
+                .build();
+        this.executedCounter = Counter.builder("shareit.idempotency.requests").tag("result", "executed")
+                .register(meterRegistry);
+        this.replayedCounter = Counter.builder("shareit.idempotency.requests").tag("result", "replayed")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("shareit.idempotency.requests").tag("result", "rejected")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!properties.isEnabled() || !HttpMethod.POST.matches(request.getMethod())
+                || request.getHeader(IDEMPOTENCY_KEY) == null) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return PATTERNS.stream().noneMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            reject(response, HttpStatus.BAD_REQUEST,
+                    IDEMPOTENCY_KEY + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        byte[] body = request.getInputStream().readAllBytes();
+        byte[] fingerprint = fingerprint(body);
+        Key key = new Key(request.getHeader(USER_ID), request.getRequestURI(), idempotencyKey);
+        while (true) {
+            CompletableFuture<StoredResponse> flight = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> existing = responses.asMap().putIfAbsent(key, flight);
+            if (existing == null) {
+                execute(new CachedBodyRequest(request, body), response, chain, key, flight, fingerprint);
+                return;
+            }
+
+            StoredResponse stored;
+            try {
+                stored = existing.get(properties.getWaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                reject(response, HttpStatus.CONFLICT,
+                        "Request with this " + IDEMPOTENCY_KEY + " is still in progress");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException(e);
+            } catch (ExecutionException e) {
+                throw new ServletException(e.getCause());
+            }
+            if (stored == null) {
+                continue;
+            }
+
+            if (!MessageDigest.isEqual(stored.fingerprint(), fingerprint)) {
+                reject(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                        IDEMPOTENCY_KEY + " was already used with a different request body");
+                return;
+            }
+            replayedCounter.increment();
+            response.setStatus(stored.status());
+            if (stored.contentType() != null) {
+                response.setContentType(stored.contentType());
+            }
+            response.setHeader(REPLAYED, "true");
+            response.getOutputStream().write(stored.body());
+            return;
+        }
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain chain, Key key,
+                         CompletableFuture<StoredResponse> flight, byte[] fingerprint)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        StoredResponse stored = null;
+        try {
+            chain.doFilter(request, wrapper);
+            executedCounter.increment();
+            if (isReplayable(wrapper)) {
+                stored = new StoredResponse(wrapper.getStatus(), wrapper.getContentType(), wrapper.getContentAsByteArray(),
+                        fingerprint);
+            }
+        } finally {
+            if (stored == null) {
+                responses.asMap().remove(key, flight);
+            } else {
+                // Новая запись отсчитывает ttl от завершения запроса, а не от того, как ключ был занят.
+                responses.asMap().replace(key, flight, CompletableFuture.completedFuture(stored));
+            }
+            flight.complete(stored);
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    /**
+     * Сохраняются только ответы 2xx. Ошибка может быть временной (404 пользователя, который ещё не создан,
+     * 429, 5xx), и повтор с тем же ключом должен выполниться заново, а не получить её до конца {@code ttl}.
+     */
+    private static boolean isReplayable(ContentCachingResponseWrapper response) {
+        return HttpStatusCode.valueOf(response.getStatus()).is2xxSuccessful();
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        rejectedCounter.increment();
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorMessage(message));
+    }
+
+    private static byte[] fingerprint(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Key(String userId, String uri, String idempotencyKey) {
+    }
+
+    private record StoredResponse(int status, String contentType, byte[] body, byte[] fingerprint) {
+    }
+
+    /**
+     * Запрос с уже прочитанным телом, которое отдаётся контроллеру заново.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /**
+                 * Тело уже целиком в памяти: слушатель сразу получает и данные, и их конец.
+                 */
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
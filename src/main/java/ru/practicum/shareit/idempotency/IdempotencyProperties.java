@@ -0,0 +1,25 @@
+package ru.practicum.shareit.idempotency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.idempotency")
+public class IdempotencyProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Сколько хранится ответ на запрос с ключом, считая от завершения запроса.
+     */
+    private Duration ttl = Duration.ofHours(1);
+
+    private long maxEntries = 100_000;
+
+    /**
+     * Сколько повтор ждёт завершения исходного запроса, прежде чем получить 409.
+     */
+    private Duration waitTimeout = Duration.ofSeconds(10);
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.imports;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.imports.dto.ImportReport;
+import ru.practicum.shareit.imports.dto.ItemImportDto;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.io.InputStream;
+
+/**
+ * Массовый импорт из тела запроса в NDJSON или CSV. Тело читается потоком по мере вставки,
+ * поэтому память не зависит от размера файла.
+ */
+@RestController
+@RequiredArgsConstructor
+@Slf4j
+public class ImportController {
+
+    private final ImportService importService;
+    private final ObjectMapper objectMapper;
+
+    @PostMapping(path = "/users/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    @ResponseStatus(HttpStatus.OK)
+    public ImportReport importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                    InputStream body) {
+        log.info("Received request to import users as {}", contentType);
+        return importService.importUsers(new RowReader<>(body, contentType, UserDto.class, objectMapper));
+    }
+
+    @PostMapping(path = "/items/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    @ResponseStatus(HttpStatus.OK)
+    public ImportReport importItems(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                    InputStream body) {
+        log.info("Received request to import items as {}", contentType);
+        return importService.importItems(new RowReader<>(body, contentType, ItemImportDto.class, objectMapper));
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.imports;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.import")
+public class ImportProperties {
+
+    /**
+     * Сколько строк проверяется и вставляется за раз; в памяти держится не больше одной пачки.
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Сколько ошибок строк попадает в отчёт; остальные только считаются.
+     */
+    private int maxReportedErrors = 1000;
+}
@@ -0,0 +1,281 @@
+package ru.practicum.shareit.imports;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.imports.RowReader.Row;
+import ru.practicum.shareit.imports.dto.ImportReport;
+import ru.practicum.shareit.imports.dto.ItemImportDto;
+import ru.practicum.shareit.item.geo.GeoGrid;
+import ru.practicum.shareit.intf.Create;
+import ru.practicum.shareit.shard.Shards;
+import ru.practicum.shareit.user.ShardedUserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Массовый импорт пользователей и вещей пачками по {@code chunk-size} строк.
+ * <p>
+ * Каждая пачка проверяется целиком: дубликаты внутри пачки и уже занятые имена и почты, существование
+ * владельцев и запросов выясняются по одному {@code IN}-запросу на пачку, а прошедшие проверку строки
+ * вставляются одним пакетом JDBC в своей транзакции. Если пакет всё же нарушил ограничение базы
+ * (например, ту же почту одновременно занял другой запрос), строки пачки вставляются по одной,
+ * и ошибку получает только нарушившая строка. Уже вставленные пачки не откатываются.
+ * <p>
+ * При шардировании пользователи создаются на основном шарде и копируются на остальные с теми же id,
+ * как в {@link ShardedUserService}; вещи вставляются на шард владельца.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImportService {
+
+    private static final String INSERT_USER = "INSERT INTO users (name, email) VALUES (:name, :email)";
+    private static final String INSERT_ITEM = "INSERT INTO items (name, description, is_available, owner_id, "
+            + "request_id, latitude, longitude, geo_cell) "
+            + "VALUES (:name, :description, :available, :ownerId, :requestId, :latitude, :longitude, :geoCell)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final Shards shards;
+    private final ImportProperties properties;
+    private final ShardedUserService userService;
+
+    public ImportReport importUsers(Iterator<Row<UserDto>> rows) {
+        return importRows(rows, this::insertUsers);
+    }
+
+    public ImportReport importItems(Iterator<Row<ItemImportDto>> rows) {
+        return importRows(rows, this::insertItems);
+    }
+
+    private <T> ImportReport importRows(Iterator<Row<T>> rows, BiConsumer<List<Row<T>>, ImportReport> insert) {
+        ImportReport report = new ImportReport();
+        List<Row<T>> chunk = new ArrayList<>(properties.getChunkSize());
+        while (rows.hasNext()) {
+            Row<T> row = rows.next();
+            report.setProcessed(report.getProcessed() + 1);
+            String error = row.error() != null ? row.error() : validate(row.value());
+            if (error != null) {
+                reject(report, row, error);
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == properties.getChunkSize()) {
+                insert.accept(chunk, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            insert.accept(chunk, report);
+        }
+        log.info("Импорт завершён: строк {}, добавлено {}, ошибок {}", report.getProcessed(), report.getImported(),
+                report.getFailed());
+        return report;
+    }
+
+    private void insertUsers(List<Row<UserDto>> chunk, ImportReport report) {
+        Set<String> emails = new HashSet<>();
+        Set<String> names = new HashSet<>();
+        List<Row<UserDto>> unique = new ArrayList<>(chunk.size());
+        for (Row<UserDto> row : chunk) {
+            if (!emails.add(row.value().getEmail())) {
+                reject(report, row, "Duplicate email in import: " + row.value().getEmail());
+            } else if (!names.add(row.value().getName())) {
+                reject(report, row, "Duplicate name in import: " + row.value().getName());
+            } else {
+                unique.add(row);
+            }
+        }
+        if (unique.isEmpty()) {
+            return;
+        }
+
+        Set<String> takenEmails = new HashSet<>();
+        Set<String> takenNames = new HashSet<>();
+        shards.run(ShardedUserService.HOME_SHARD, () -> jdbcTemplate.query(
+                "SELECT name, email FROM users WHERE email IN (:emails) OR name IN (:names)",
+                new MapSqlParameterSource("emails", emails).addValue("names", names),
+                rs -> {
+                    takenEmails.add(rs.getString("email"));
+                    takenNames.add(rs.getString("name"));
+                }));
+
+        List<Row<UserDto>> accepted = new ArrayList<>(unique.size());
+        for (Row<UserDto> row : unique) {
+            if (takenEmails.contains(row.value().getEmail())) {
+                reject(report, row, "User with email '" + row.value().getEmail() + "' already exists.");
+            } else if (takenNames.contains(row.value().getName())) {
+                reject(report, row, "User with name '" + row.value().getName() + "' already exists.");
+            } else {
+                accepted.add(row);
+            }
+        }
+
+        List<Row<UserDto>> inserted = shards.on(ShardedUserService.HOME_SHARD,
+                () -> insert(INSERT_USER, accepted, ImportService::userParameters, report));
+        if (shards.count() > 1 && !inserted.isEmpty()) {
+            replicateUsers(inserted);
+        }
+    }
+
+    private void replicateUsers(List<Row<UserDto>> inserted) {
+        Set<String> emails = inserted.stream().map(row -> row.value().getEmail()).collect(Collectors.toSet());
+        SqlParameterSource[] batch = shards.on(ShardedUserService.HOME_SHARD, () -> jdbcTemplate.query(
+                        "SELECT id, name, email FROM users WHERE email IN (:emails)", Map.of("emails", emails),
+                        (rs, rowNum) -> new MapSqlParameterSource("id", rs.getLong("id"))
+                                .addValue("name", rs.getString("name"))
+                                .addValue("email", rs.getString("email"))))
+                .toArray(SqlParameterSource[]::new);
+        shards.forEach(shard -> {
+            if (shard != ShardedUserService.HOME_SHARD) {
+                transactionTemplate.executeWithoutResult(status ->
+                        jdbcTemplate.batchUpdate(ShardedUserService.INSERT_REPLICA, batch));
+            }
+        });
+        for (SqlParameterSource row : batch) {
+            userService.evict((Long) row.getValue("id"));
+        }
+    }
+
+    private void insertItems(List<Row<ItemImportDto>> chunk, ImportReport report) {
+        Set<String> names = new HashSet<>();
+        List<Row<ItemImportDto>> unique = new ArrayList<>(chunk.size());
+        for (Row<ItemImportDto> row : chunk) {
+            if (names.add(row.value().getName())) {
+                unique.add(row);
+            } else {
+                reject(report, row, "Duplicate name in import: " + row.value().getName());
+            }
+        }
+        if (unique.isEmpty()) {
+            return;
+        }
+
+        Set<Long> ownerIds = unique.stream().map(row -> row.value().getOwnerId()).collect(Collectors.toSet());
+        Set<Long> requestIds = unique.stream()
+                .map(row -> row.value().getRequestId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> knownOwners = shards.on(ShardedUserService.HOME_SHARD, () -> findIds("users", ownerIds,
+                " AND deleted_at IS NULL"));
+        Set<Long> knownRequests = shards.on(ShardedUserService.HOME_SHARD, () -> findIds("requests", requestIds, ""));
+        Set<String> takenNames = shards.gather(shard -> jdbcTemplate.queryForList(
+                        "SELECT name FROM items WHERE name IN (:names)", Map.of("names", names), String.class))
+                .stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toSet());
+
+        Map<Integer, List<Row<ItemImportDto>>> byShard = new LinkedHashMap<>();
+        for (Row<ItemImportDto> row : unique) {
+            ItemImportDto item = row.value();
+            if ((item.getLatitude() == null) != (item.getLongitude() == null)) {
+                reject(report, row, "Both latitude and longitude must be specified");
+            } else if (!knownOwners.contains(item.getOwnerId())) {
+                reject(report, row, "User not found with ID: " + item.getOwnerId());
+            } else if (item.getRequestId() != null && !knownRequests.contains(item.getRequestId())) {
+                reject(report, row, "Request not found with ID: " + item.getRequestId());
+            } else if (takenNames.contains(item.getName())) {
+                reject(report, row, "Item with name '" + item.getName() + "' already exists.");
+            } else {
+                byShard.computeIfAbsent(shards.forOwner(item.getOwnerId()), shard -> new ArrayList<>()).add(row);
+            }
+        }
+        byShard.forEach((shard, rows) -> shards.run(shard,
+                () -> insert(INSERT_ITEM, rows, ImportService::itemParameters, report)));
+    }
+
+    private Set<Long> findIds(String table, Set<Long> ids, String condition) {
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList("SELECT id FROM " + table + " WHERE id IN (:ids)" + condition,
+                Map.of("ids", ids), Long.class));
+    }
+
+    /**
+     * Вставляет строки одним пакетом, а при нарушении ограничения — по одной; возвращает вставленные.
+     */
+    private <T> List<Row<T>> insert(String sql, List<Row<T>> rows, Function<T, SqlParameterSource> parameters,
+                                    ImportReport report) {
+        if (rows.isEmpty()) {
+            return rows;
+        }
+        try {
+            SqlParameterSource[] batch = rows.stream()
+                    .map(row -> parameters.apply(row.value()))
+                    .toArray(SqlParameterSource[]::new);
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, batch));
+            report.setImported(report.getImported() + rows.size());
+            return rows;
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Пакет из {} строк отклонён базой, вставка по одной: {}", rows.size(),
+                    e.getMostSpecificCause().getMessage());
+        }
+
+        List<Row<T>> inserted = new ArrayList<>(rows.size());
+        for (Row<T> row : rows) {
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        jdbcTemplate.update(sql, parameters.apply(row.value())));
+                inserted.add(row);
+                report.setImported(report.getImported() + 1);
+            } catch (DataIntegrityViolationException e) {
+                reject(report, row, "Row violates a database constraint");
+            }
+        }
+        return inserted;
+    }
+
+    private String validate(Object value) {
+        return validator.validate(value, Create.class).stream()
+                .min(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                .map(ConstraintViolation::getMessage)
+                .orElse(null);
+    }
+
+    private void reject(ImportReport report, Row<?> row, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < properties.getMaxReportedErrors()) {
+            report.getErrors().add(new ImportReport.RowError(row.line(), message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    private static SqlParameterSource userParameters(UserDto user) {
+        return new MapSqlParameterSource("name", user.getName())
+                .addValue("email", user.getEmail());
+    }
+
+    private static SqlParameterSource itemParameters(ItemImportDto item) {
+        return new MapSqlParameterSource("name", item.getName())
+                .addValue("description", item.getDescription())
+                .addValue("available", item.getAvailable())
+                .addValue("ownerId", item.getOwnerId())
+                .addValue("requestId", item.getRequestId())
+                .addValue("latitude", item.getLatitude())
+                .addValue("longitude", item.getLongitude())
+                .addValue("geoCell", GeoGrid.cellOf(item.getLatitude(), item.getLongitude()));
+    }
+}
@@ -0,0 +1,117 @@
+package ru.practicum.shareit.imports;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import org.springframework.http.MediaType;
+import ru.practicum.shareit.exceptions.ValidationException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Построчное чтение тела импорта: NDJSON — объект в строке, CSV — строка заголовка с именами полей,
+ * затем запись в строке. Пустые строки пропускаются, пустое поле CSV читается как {@code null}.
+ * Строка, которую не удалось разобрать, становится ошибкой этой строки, а чтение продолжается.
+ */
+class RowReader<T> implements Iterator<RowReader.Row<T>> {
+
+    static final MediaType TEXT_CSV = MediaType.valueOf("text/csv");
+
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private final BufferedReader reader;
+    private final ObjectReader ndjsonReader;
+    private final Class<T> type;
+    private final boolean csv;
+    private ObjectReader csvReader;
+    private long line;
+    private Row<T> next;
+
+    RowReader(InputStream body, MediaType contentType, Class<T> type, ObjectMapper objectMapper) {
+        if (MediaType.APPLICATION_NDJSON.equalsTypeAndSubtype(contentType)) {
+            this.csv = false;
+        } else if (TEXT_CSV.equalsTypeAndSubtype(contentType)) {
+            this.csv = true;
+        } else {
+            throw new ValidationException("Unsupported import format: " + contentType);
+        }
+        this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        this.ndjsonReader = objectMapper.readerFor(type);
+        this.type = type;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = readRow();
+        }
+        return next != null;
+    }
+
+    @Override
+    public Row<T> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Row<T> row = next;
+        next = null;
+        return row;
+    }
+
+    private Row<T> readRow() {
+        String text = readLine();
+        while (text != null && text.isBlank()) {
+            text = readLine();
+        }
+        if (text == null) {
+            return null;
+        }
+        if (csv && csvReader == null) {
+            csvReader = CSV_MAPPER.readerFor(type).with(header(text));
+            return readRow();
+        }
+        try {
+            return new Row<>(line, (csv ? csvReader : ndjsonReader).readValue(text), null);
+        } catch (JsonProcessingException e) {
+            return new Row<>(line, null, "Cannot parse row: " + e.getOriginalMessage());
+        }
+    }
+
+    private String readLine() {
+        try {
+            String text = reader.readLine();
+            if (text != null) {
+                line++;
+            }
+            return text;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static CsvSchema header(String text) {
+        CsvSchema.Builder schema = CsvSchema.builder();
+        for (String column : text.split(",")) {
+            schema.addColumn(column.trim());
+        }
+        return schema.build().withNullValue("");
+    }
+
+    /**
+     * Разобранная строка тела: либо {@code value}, либо {@code error}.
+     */
+    record Row<T>(long line, T value, String error) {
+    }
+}
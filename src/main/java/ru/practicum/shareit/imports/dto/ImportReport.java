@@ -0,0 +1,26 @@
+package ru.practicum.shareit.imports.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Итог импорта. Строки считаются с единицы вместе с заголовком CSV и пустыми строками.
+ */
+@Data
+public class ImportReport {
+
+    private long processed;
+
+    private long imported;
+
+    private long failed;
+
+    private List<RowError> errors = new ArrayList<>();
+
+    private boolean errorsTruncated;
+
+    public record RowError(long line, String message) {
+    }
+}
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.imports.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.intf.Create;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemImportDto {
+
+    @NotNull(groups = Create.class, message = "Владелец не может быть пустым")
+    private Long ownerId;
+
+    @NotBlank(groups = Create.class, message = "Имя не может быть пустым")
+    private String name;
+
+    @NotBlank(groups = Create.class, message = "Описание не может быть пустым")
+    private String description;
+
+    @NotNull(groups = Create.class, message = "Не может быть пустым")
+    private Boolean available;
+
+    private Long requestId;
+
+    @DecimalMin(value = "-90", groups = Create.class, message = "Широта должна быть от -90 до 90")
+    @DecimalMax(value = "90", groups = Create.class, message = "Широта должна быть от -90 до 90")
+    private Double latitude;
+
+    @DecimalMin(value = "-180", groups = Create.class, message = "Долгота должна быть от -180 до 180")
+    @DecimalMax(value = "180", groups = Create.class, message = "Долгота должна быть от -180 до 180")
+    private Double longitude;
+}
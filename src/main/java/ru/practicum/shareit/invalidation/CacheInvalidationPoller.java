@@ -0,0 +1,205 @@
+package ru.practicum.shareit.invalidation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.config.EntityCacheConfig;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.lease.LeaseService;
+import ru.practicum.shareit.shard.Shards;
+import ru.practicum.shareit.user.model.User;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Вытесняет из локального кэша второго уровня сущности, изменённые другими узлами.
+ * <p>
+ * Каждый шард опрашивается раз в {@code poll-interval}: читаются записи не старше последней прочитанной
+ * минус {@code grace}, а уже обработанные пропускаются по id. Так запись, ставшая видимой позже соседних,
+ * не теряется, и изменение с другого узла доходит до кэша за время опроса. Если опрос не удаётся дольше
+ * {@code max-staleness}, регионы очищаются целиком, пока опрос не восстановится; TTL регионов остаётся
+ * последней границей.
+ * <p>
+ * Метрики: {@code shareit.cache.invalidation.lag} — от публикации до вытеснения,
+ * {@code shareit.cache.invalidation.staleness} — время с последнего удачного опроса самого отстающего шарда.
+ */
+@Slf4j
+@Component
+public class CacheInvalidationPoller {
+
+    public static final String CLEANUP_LEASE_NAME = "cache-invalidation-cleanup";
+
+    private static final String SELECT = "SELECT id, region, entity_id, node_id, created_at FROM cache_invalidations "
+            + "WHERE created_at >= ? ORDER BY created_at, id LIMIT ?";
+
+    private static final String SELECT_AFTER = "SELECT id, region, entity_id, node_id, created_at "
+            + "FROM cache_invalidations WHERE created_at > ? OR (created_at = ? AND id > ?) "
+            + "ORDER BY created_at, id LIMIT ?";
+
+    private static final Map<String, Class<?>> ENTITIES = Map.of(
+            EntityCacheConfig.USERS_REGION, User.class,
+            EntityCacheConfig.ITEMS_REGION, Item.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache cache;
+    private final Shards shards;
+    private final LeaseService leaseService;
+    private final CacheInvalidationProperties properties;
+    private final String nodeId;
+    private final Map<Integer, ShardState> states = new ConcurrentHashMap<>();
+    private final Timer lagTimer;
+    private final Counter evictedCounter;
+
+    public CacheInvalidationPoller(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory,
+                                   Shards shards, LeaseService leaseService, CacheInvalidationService service,
+                                   CacheInvalidationProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setQueryTimeout((int) Math.max(1, properties.getMaxStaleness().toSeconds() / 2));
+        this.cache = entityManagerFactory.getCache();
+        this.shards = shards;
+        this.leaseService = leaseService;
+        this.properties = properties;
+        this.nodeId = service.getNodeId();
+        this.lagTimer = Timer.builder("shareit.cache.invalidation.lag")
+                .description("Time from an entity change on another node to its eviction from the local cache")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.evictedCounter = Counter.builder("shareit.cache.invalidations")
+                .description("Cache entries evicted because another node changed them")
+                .register(meterRegistry);
+        Gauge.builder("shareit.cache.invalidation.staleness", this, CacheInvalidationPoller::stalenessSeconds)
+                .description("Seconds since the least recent successful poll of a shard")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.cache.invalidation.poll-interval:100ms}")
+    public void poll() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        shards.forEach(this::poll);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.cache.invalidation.cleanup-interval:1m}")
+    public void cleanup() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        shards.forEach(shard -> {
+            if (!leaseService.tryAcquire(CLEANUP_LEASE_NAME, properties.getLeaseDuration())) {
+                return;
+            }
+            int deleted = jdbcTemplate.update("DELETE FROM cache_invalidations WHERE created_at < ?",
+                    Timestamp.valueOf(LocalDateTime.now().minus(properties.getRetention())));
+            if (deleted > 0) {
+                log.debug("Удалено записей инвалидации на шарде {}: {}", shard, deleted);
+            }
+        });
+    }
+
+    private void poll(int shard) {
+        ShardState state = states.computeIfAbsent(shard, s -> new ShardState(LocalDateTime.now()));
+        try {
+            read(state);
+            state.lastSuccess = System.nanoTime();
+            if (state.failing) {
+                state.failing = false;
+                log.info("Опрос инвалидаций кэша на шарде {} восстановлен", shard);
+            }
+        } catch (DataAccessException e) {
+            Duration stale = Duration.ofNanos(System.nanoTime() - state.lastSuccess);
+            if (!state.failing) {
+                state.failing = true;
+                log.warn("Cannot poll cache invalidations on shard {}: {}", shard, e.getMessage());
+            }
+            if (stale.compareTo(properties.getMaxStaleness()) > 0) {
+                ENTITIES.values().forEach(cache::evict);
+            }
+        }
+    }
+
+    private void read(ShardState state) {
+        LocalDateTime from = state.watermark.minus(properties.getGrace());
+        List<Row> rows = jdbcTemplate.query(SELECT, Row.MAPPER, Timestamp.valueOf(from), properties.getBatchSize());
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            for (Row row : rows) {
+                if (state.seen.putIfAbsent(row.id(), row.createdAt()) == null && !nodeId.equals(row.nodeId())) {
+                    evict(row, now);
+                }
+            }
+            if (!rows.isEmpty()) {
+                Row last = rows.getLast();
+                if (last.createdAt().isAfter(state.watermark)) {
+                    state.watermark = last.createdAt();
+                }
+            }
+            if (rows.size() < properties.getBatchSize()) {
+                break;
+            }
+            Row last = rows.getLast();
+            rows = jdbcTemplate.query(SELECT_AFTER, Row.MAPPER, Timestamp.valueOf(last.createdAt()),
+                    Timestamp.valueOf(last.createdAt()), last.id(), properties.getBatchSize());
+        }
+        LocalDateTime horizon = state.watermark.minus(properties.getGrace());
+        state.seen.values().removeIf(createdAt -> createdAt.isBefore(horizon));
+    }
+
+    private void evict(Row row, LocalDateTime now) {
+        Class<?> entity = ENTITIES.get(row.region());
+        if (entity == null) {
+            log.warn("Unknown cache region in invalidation {}: {}", row.id(), row.region());
+            return;
+        }
+        cache.evict(entity, row.entityId());
+        evictedCounter.increment();
+        Duration lag = Duration.between(row.createdAt(), now);
+        lagTimer.record(lag.isNegative() ? Duration.ZERO : lag);
+    }
+
+    private double stalenessSeconds() {
+        long now = System.nanoTime();
+        return states.values().stream()
+                .mapToLong(state -> now - state.lastSuccess)
+                .max()
+                .orElse(0) / 1e9;
+    }
+
+    private static final class ShardState {
+
+        private volatile LocalDateTime watermark;
+        private volatile long lastSuccess = System.nanoTime();
+        private volatile boolean failing;
+        private final Map<Long, LocalDateTime> seen = new HashMap<>();
+
+        private ShardState(LocalDateTime watermark) {
+            this.watermark = watermark;
+        }
+    }
+
+    private record Row(long id, String region, long entityId, String nodeId, LocalDateTime createdAt) {
+
+        private static final RowMapper<Row> MAPPER = (rs, rowNum) -> new Row(
+                rs.getLong("id"),
+                rs.getString("region"),
+                rs.getLong("entity_id"),
+                rs.getString("node_id"),
+                rs.getTimestamp("created_at").toLocalDateTime());
+    }
+}
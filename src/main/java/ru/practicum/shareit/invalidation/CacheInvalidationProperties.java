@@ -0,0 +1,38 @@
+package ru.practicum.shareit.invalidation;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.cache.invalidation")
+public class CacheInvalidationProperties {
+
+    private boolean enabled = true;
+
+    private Duration pollInterval = Duration.ofMillis(100);
+
+    /**
+     * Насколько назад от последней прочитанной записи перечитывается таблица: запись получает время
+     * перед коммитом и может стать видна позже записей с большим временем. Должно покрывать
+     * самую долгую фиксацию транзакции и расхождение часов узлов.
+     */
+    private Duration grace = Duration.ofSeconds(2);
+
+    /**
+     * Если опрос не удаётся дольше этого времени, узел очищает регионы кэша целиком.
+     */
+    private Duration maxStaleness = Duration.ofSeconds(5);
+
+    private int batchSize = 1000;
+
+    /**
+     * Сколько хранятся записи; должно быть заметно больше {@code grace}.
+     */
+    private Duration retention = Duration.ofMinutes(10);
+
+    private Duration cleanupInterval = Duration.ofMinutes(1);
+
+    private Duration leaseDuration = Duration.ofMinutes(1);
+}
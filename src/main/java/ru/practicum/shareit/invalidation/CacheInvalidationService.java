@@ -0,0 +1,88 @@
+package ru.practicum.shareit.invalidation;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.lease.LeaseService;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Публикация изменённых сущностей кэша второго уровня для других узлов. Ключи копятся до конца
+ * транзакции изменения и пишутся в {@code cache_invalidations} перед её коммитом, поэтому
+ * откаченные изменения не публикуются. Читает таблицу {@link CacheInvalidationPoller}.
+ */
+@Service
+public class CacheInvalidationService {
+
+    private static final String INSERT = "INSERT INTO cache_invalidations (region, entity_id, node_id, created_at) "
+            + "VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheInvalidationProperties properties;
+    private final String nodeId;
+
+    public CacheInvalidationService(JdbcTemplate jdbcTemplate, CacheInvalidationProperties properties,
+                                    LeaseService leaseService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.nodeId = leaseService.getNodeId();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(String region, long id) {
+        publish(region, List.of(id));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(String region, Collection<Long> ids) {
+        if (!properties.isEnabled() || ids.isEmpty()) {
+            return;
+        }
+        PendingKeys pending = (PendingKeys) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingKeys();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        for (long id : ids) {
+            pending.keys.add(new Key(region, id));
+        }
+    }
+
+    private record Key(String region, long id) {
+    }
+
+    private class PendingKeys implements TransactionSynchronization {
+
+        private final Set<Key> keys = new LinkedHashSet<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.batchUpdate(INSERT, keys, properties.getBatchSize(), (statement, key) -> {
+                statement.setString(1, key.region());
+                statement.setLong(2, key.id());
+                statement.setString(3, nodeId);
+                statement.setTimestamp(4, now);
+            });
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidationService.this);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package ru.practicum.shareit.item;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.coalescing.SingleFlight;
+import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.fields.FieldSet;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Объединяет одновременные {@link #getItemById} одной вещи в одно обращение к {@link ItemServiceImpl}.
+ * <p>
+ * Владелец видит бронирования, остальные — нет, поэтому ключ включает вид (владелец или нет):
+ * все не-владельцы делят одно вычисление. Владелец вещи не меняется, поэтому он запоминается
+ * в ограниченном кэше, и классификация запроса не требует обращения к базе.
+ */
+@Service
+public class CoalescingItemService implements ItemService {
+
+    private static final int MAX_KNOWN_OWNERS = 100_000;
+
+    private final ItemServiceImpl delegate;
+    private final ItemRepository itemRepository;
+    private final SingleFlight<ItemViewKey, ItemDto> itemReads;
+    private final Cache<Long, Long> owners = Caffeine.newBuilder()
+            .maximumSize(MAX_KNOWN_OWNERS)
+            .build();
+
+    public CoalescingItemService(ItemServiceImpl delegate, ItemRepository itemRepository,
+                                 MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.itemRepository = itemRepository;
+        this.itemReads = new SingleFlight<>("item", CoalescingItemService::copyOf, meterRegistry);
+    }
+
+    @Override
+    public ItemDto getItemById(long userId, long itemId, FieldSet fields) {
+        Long ownerId = owners.get(itemId, id -> itemRepository.findById(id).map(Item::getOwner).orElse(null));
+        if (ownerId == null) {
+            return delegate.getItemById(userId, itemId, fields);
+        }
+        ItemViewKey key = new ItemViewKey(itemId, ownerId == userId, fields);
+        return itemReads.execute(key, () -> delegate.getItemById(userId, itemId, fields));
+    }
+
+    @Override
+    public ItemDto update(long userId, long itemId, ItemDto itemDto) {
+        return delegate.update(userId, itemId, itemDto);
+    }
+
+    @Override
+    public List<ItemDto> getItemsByIds(long userId, List<Long> itemIds, FieldSet fields) {
+        return delegate.getItemsByIds(userId, itemIds, fields);
+    }
+
+    @Override
+    public ItemDto saveItem(long userId, ItemDto itemDto) {
+        return delegate.saveItem(userId, itemDto);
+    }
+
+    @Override
+    public List<ItemDto> findItemsByOwner(long userId, FieldSet fields) {
+        return delegate.findItemsByOwner(userId, fields);
+    }
+
+    @Override
+    public CommentDto addComment(long userId, long itemId, String text) {
+        return delegate.addComment(userId, itemId, text);
+    }
+
+    @Override
+    public List<ItemDto> searchItems(String searchText, FieldSet fields) {
+        return delegate.searchItems(searchText, fields);
+    }
+
+    @Override
+    public List<ItemDto> searchAvailableItems(String searchText, LocalDateTime from, LocalDateTime to, int page,
+                                              int size, FieldSet fields) {
+        return delegate.searchAvailableItems(searchText, from, to, page, size, fields);
+    }
+
+    @Override
+    public List<ItemDto> searchItemsNear(String searchText, double latitude, double longitude, double radiusKm,
+                                         LocalDateTime from, LocalDateTime to, int page, int size, FieldSet fields) {
+        return delegate.searchItemsNear(searchText, latitude, longitude, radiusKm, from, to, page, size, fields);
+    }
+
+    @Override
+    public List<ItemAnswerDto> findItemsByRequestIds(Collection<Long> requestIds) {
+        return delegate.findItemsByRequestIds(requestIds);
+    }
+
+    /**
+     * Глубокая копия результата для очередного ожидающего: вложенные бронирования и комментарии тоже копируются.
+     */
+    private static ItemDto copyOf(ItemDto item) {
+        if (item == null) {
+            return null;
+        }
+        return item.toBuilder()
+                .lastBooking(copyOf(item.getLastBooking()))
+                .nextBooking(copyOf(item.getNextBooking()))
+                .comments(item.getComments() == null ? null : item.getComments().stream()
+                        .map(comment -> comment.toBuilder().build())
+                        .collect(Collectors.toCollection(ArrayList::new)))
+                .build();
+    }
+
+    private static BookingDto copyOf(BookingDto booking) {
+        if (booking == null) {
+            return null;
+        }
+        return booking.toBuilder()
+                .item(copyOf(booking.getItem()))
+                .booker(booking.getBooker() == null ? null : booking.getBooker().toBuilder().build())
+                .build();
+    }
+
+    private record ItemViewKey(long itemId, boolean ownerView, FieldSet fields) {
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item;
+
+/**
+ * Всё, что нужно для проверок при создании бронирования и для ответа на него: вещь без комментариев
+ * и признак активного бронирующего.
+ */
+public interface ItemAvailability {
+
+    boolean getAvailable();
+
+    long getOwner();
+
+    String getName();
+
+    String getDescription();
+
+    Long getRequest();
+
+    Double getLatitude();
+
+    Double getLongitude();
+
+    boolean getBookerActive();
+}
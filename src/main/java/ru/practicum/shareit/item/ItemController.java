@@ -2,14 +2,19 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.fields.FieldSet;
 import ru.practicum.shareit.intf.Create;
 import ru.practicum.shareit.intf.Update;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -19,14 +24,33 @@ import java.util.List;
 public class ItemController {
 
     public static final String USER_ID = "X-Sharer-User-Id";
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Дальше этой строки от начала списка страница заканчиваться не может: шардированные сервисы и слияние
+     * бронирований с архивом читают весь список до конца запрошенной страницы.
+     */
+    public static final int MAX_PAGE_END = 10_000;
     private final ItemService itemService;
 
     @GetMapping("/{itemId}")
     @ResponseStatus(HttpStatus.OK)
-    public ItemDto getItemById(@RequestHeader(USER_ID) long userId,
-                               @PathVariable("itemId") long itemId) {
+    public MappingJacksonValue getItemById(@RequestHeader(USER_ID) long userId,
+                                           @PathVariable("itemId") long itemId,
+                                           @RequestParam(value = FieldSet.PARAM, required = false) String fields) {
         log.info("Вывод предмета под id: {}", itemId);
-        return itemService.getItemById(userId, itemId);
+        FieldSet fieldSet = FieldSet.parse(fields, ItemDto.class);
+        return fieldSet.apply(itemService.getItemById(userId, itemId, fieldSet), ItemDto.FILTER);
+    }
+
+    @PostMapping("/batch-get")
+    @ResponseStatus(HttpStatus.OK)
+    public MappingJacksonValue getItemsByIds(@RequestHeader(USER_ID) long userId,
+                                             @RequestBody List<Long> itemIds,
+                                             @RequestParam(value = FieldSet.PARAM, required = false) String fields) {
+        log.info("Вывод {} предметов для пользователя под id: {}", itemIds.size(), userId);
+        FieldSet fieldSet = FieldSet.parse(fields, ItemDto.class);
+        return fieldSet.apply(itemService.getItemsByIds(userId, itemIds, fieldSet), ItemDto.FILTER);
     }
 
     @PostMapping
@@ -47,16 +71,65 @@ public class ItemController {
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public List<ItemDto> findItemsByOwner(@RequestHeader(USER_ID) long userId) {
+    public MappingJacksonValue findItemsByOwner(@RequestHeader(USER_ID) long userId,
+                                                @RequestParam(value = FieldSet.PARAM, required = false) String fields) {
         log.info("Вывод всех предметов у пользователя под id: {}", userId);
-        return itemService.findItemsByOwner(userId);
+        FieldSet fieldSet = FieldSet.parse(fields, ItemDto.class);
+        return fieldSet.apply(itemService.findItemsByOwner(userId, fieldSet), ItemDto.FILTER);
     }
 
     @GetMapping("/search")
     @ResponseStatus(HttpStatus.OK)
-    public List<ItemDto> searchItems(@RequestParam("text") String searchText) {
-        log.info("Поиск всех предметов под text: {}", searchText);
-        return itemService.searchItems(searchText);
+    public MappingJacksonValue searchItems(@RequestParam("text") String searchText,
+                                           @RequestParam(value = "from", required = false)
+                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                           @RequestParam(value = "to", required = false)
+                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                           @RequestParam(value = "lat", required = false) Double latitude,
+                                           @RequestParam(value = "lon", required = false) Double longitude,
+                                           @RequestParam(value = "radius", required = false) Double radiusKm,
+                                           @RequestParam(value = "page", defaultValue = "0") int page,
+                                           @RequestParam(value = "size", defaultValue = "20") int size,
+                                           @RequestParam(value = FieldSet.PARAM, required = false) String fields) {
+        FieldSet fieldSet = FieldSet.parse(fields, ItemDto.class);
+        if (latitude != null || longitude != null || radiusKm != null) {
+            if (latitude == null || longitude == null || radiusKm == null) {
+                throw new ValidationException("lat, lon and radius must be specified together");
+            }
+            log.info("Поиск предметов под text: {} в радиусе {} км от ({}, {})", searchText, radiusKm, latitude,
+                    longitude);
+            checkPage(page, size);
+            return fieldSet.apply(itemService.searchItemsNear(searchText, latitude, longitude, radiusKm, from, to,
+                    page, size, fieldSet), ItemDto.FILTER);
+        }
+        if (from == null && to == null) {
+            log.info("Поиск всех предметов под text: {}", searchText);
+            return fieldSet.apply(itemService.searchItems(searchText, fieldSet), ItemDto.FILTER);
+        }
+        log.info("Поиск свободных предметов под text: {} в период с {} по {}", searchText, from, to);
+        checkPage(page, size);
+        return fieldSet.apply(itemService.searchAvailableItems(searchText, from, to, page, size, fieldSet),
+                ItemDto.FILTER);
+    }
+
+    /**
+     * Верхняя граница страницы проверяется здесь, а не в сервисе: шардированный сервис сам запрашивает
+     * у шардов страницы крупнее, чтобы собрать из них запрошенную.
+     */
+    public static void checkPageSize(int size) {
+        if (size > MAX_PAGE_SIZE) {
+            throw new ValidationException("Page size must be between 1 and " + MAX_PAGE_SIZE + ", got " + size);
+        }
+    }
+
+    /**
+     * Как {@link #checkPageSize}, и вдобавок страница должна заканчиваться не дальше {@link #MAX_PAGE_END}.
+     */
+    public static void checkPage(int page, int size) {
+        checkPageSize(size);
+        if ((long) page * size + size > MAX_PAGE_END) {
+            throw new ValidationException("Page " + page + " of size " + size + " ends past row " + MAX_PAGE_END);
+        }
     }
 
     @PostMapping("/{itemId}/comment")
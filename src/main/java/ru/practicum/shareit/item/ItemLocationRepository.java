@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.item.geo.GeoQuery;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Поиск вещей в круге; запрос собирается из диапазонов ячеек {@link GeoQuery}, поэтому его нельзя задать
+ * через {@code @Query}.
+ */
+public interface ItemLocationRepository {
+
+    /**
+     * @param from начало периода, в который вещь должна быть свободна; {@code null} — без проверки бронирований
+     */
+    List<Item> searchItemsNear(String text, GeoQuery geo, LocalDateTime from, LocalDateTime to, int page, int size);
+}
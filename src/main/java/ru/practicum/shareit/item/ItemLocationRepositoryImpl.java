@@ -0,0 +1,32 @@
+package ru.practicum.shareit.item;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import ru.practicum.shareit.item.geo.GeoQuery;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+class ItemLocationRepositoryImpl implements ItemLocationRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Item> searchItemsNear(String text, GeoQuery geo, LocalDateTime from, LocalDateTime to, int page,
+                                      int size) {
+        boolean period = from != null;
+        Query query = entityManager.createNativeQuery(geo.search("i.*", period), Item.class)
+                .setParameter("pattern", ItemSearchSql.pattern(text))
+                .setParameter("limit", size)
+                .setParameter("offset", (long) page * size);
+        geo.parameters().forEach(query::setParameter);
+        if (period) {
+            query.setParameter("from", from).setParameter("to", to);
+        }
+        return query.getResultList();
+    }
+}
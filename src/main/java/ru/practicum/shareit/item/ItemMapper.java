@@ -3,6 +3,7 @@ package ru.practicum.shareit.item;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.comment.CommentMapper;
 import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.fields.FieldSet;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 
@@ -13,6 +14,10 @@ import java.util.List;
 public class ItemMapper {
 
     public static ItemDto mapToItemDto(Item item) {
+        return mapToItemDto(item, FieldSet.ALL);
+    }
+
+    public static ItemDto mapToItemDto(Item item, FieldSet fields) {
         if (item == null) {
             return null;
         }
@@ -22,9 +27,12 @@ public class ItemMapper {
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.getAvailable())
+                .requestId(item.getRequest())
+                .latitude(item.getLatitude())
+                .longitude(item.getLongitude())
                 .build();
 
-        if (item.getComments() != null) {
+        if (fields.includes("comments") && item.getComments() != null) {
             List<CommentDto> commentDtos = CommentMapper.mapToCommentDto(item.getComments());
             itemDto.setComments(commentDtos);
         }
@@ -32,10 +40,14 @@ public class ItemMapper {
     }
 
     public static List<ItemDto> mapToItemDto(Iterable<Item> items) {
+        return mapToItemDto(items, FieldSet.ALL);
+    }
+
+    public static List<ItemDto> mapToItemDto(Iterable<Item> items, FieldSet fields) {
         List<ItemDto> result = new ArrayList<>();
 
         for (Item item : items) {
-            result.add(mapToItemDto(item));
+            result.add(mapToItemDto(item, fields));
         }
 
         return result;
@@ -47,7 +59,8 @@ public class ItemMapper {
         item.setDescription(itemDto.getDescription());
         item.setAvailable(itemDto.getAvailable());
         item.setOwner(0);
-        item.setRequest(0);
+        item.setRequest(itemDto.getRequestId());
+        item.setLocation(itemDto.getLatitude(), itemDto.getLongitude());
         return item;
     }
 }
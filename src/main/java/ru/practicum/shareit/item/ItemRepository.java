@@ -1,16 +1,80 @@
 package ru.practicum.shareit.item;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemLocationRepository {
 
     List<Item> findItemsByOwner(long ownerId);
 
-    List<Item> findByDescriptionContainingIgnoreCaseAndAvailableIsTrueOrNameContainingIgnoreCaseAndAvailableIsTrue(
-            String description, String name
-    );
+    /**
+     * Вещи владельца вместе с комментариями и их авторами — одним запросом.
+     */
+    @Query("SELECT DISTINCT i FROM Item i " +
+            "LEFT JOIN FETCH i.comments c " +
+            "LEFT JOIN FETCH c.author " +
+            "WHERE i.owner = :ownerId")
+    List<Item> findItemsWithCommentsByOwner(@Param("ownerId") long ownerId);
+
+    /**
+     * Проекция для создания бронирования: колонки вещи для проверок и ответа и признак того, что бронирующий
+     * существует и не удалён, — одним запросом. Вещи удалённых владельцев не видны.
+     */
+    @Query("SELECT i.available AS available, i.owner AS owner, i.name AS name, i.description AS description, " +
+            "i.request AS request, i.latitude AS latitude, i.longitude AS longitude, " +
+            "CASE WHEN EXISTS (SELECT b.id FROM User b WHERE b.id = :bookerId AND b.deletedAt IS NULL) " +
+            "THEN true ELSE false END AS bookerActive " +
+            "FROM Item i WHERE i.id = :itemId " +
+            "AND EXISTS (SELECT u.id FROM User u WHERE u.id = i.owner AND u.deletedAt IS NULL)")
+    Optional<ItemAvailability> findAvailabilityById(@Param("itemId") long itemId, @Param("bookerId") long bookerId);
+
+    @Query("SELECT i.id FROM Item i WHERE i.owner = :ownerId AND i.available = true ORDER BY i.id")
+    List<Long> findAvailableIdsByOwner(@Param("ownerId") long ownerId, Limit limit);
+
+    @Modifying
+    @Query("UPDATE Item i SET i.available = false WHERE i.id IN :ids")
+    int markUnavailable(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Вещи-ответы сразу для всей страницы запросов; читаются только нужные колонки, мимо кэша сущностей.
+     */
+    @Query("SELECT new ru.practicum.shareit.request.dto.ItemAnswerDto(i.id, i.name, i.owner, i.request) " +
+            "FROM Item i WHERE i.request IN :requestIds ORDER BY i.id")
+    List<ItemAnswerDto> findAnswersByRequestIdIn(@Param("requestIds") Collection<Long> requestIds);
+
+    /**
+     * Вещи по id без вещей удалённых владельцев.
+     */
+    @Query("SELECT i FROM Item i WHERE i.id IN :itemIds " +
+            "AND EXISTS (SELECT u.id FROM User u WHERE u.id = i.owner AND u.deletedAt IS NULL)")
+    List<Item> findAllActiveByIdIn(@Param("itemIds") Collection<Long> itemIds);
+
+    @Query("SELECT DISTINCT i FROM Item i " +
+            "LEFT JOIN FETCH i.comments c " +
+            "LEFT JOIN FETCH c.author " +
+            "WHERE i.id IN :itemIds " +
+            "AND EXISTS (SELECT u.id FROM User u WHERE u.id = i.owner AND u.deletedAt IS NULL)")
+    List<Item> findAllWithCommentsByIdIn(@Param("itemIds") Collection<Long> itemIds);
+
+    /**
+     * Поиск и поиск свободных на период — нативные запросы из {@link ItemSearchSql}, общие с реактивным стеком.
+     */
+    @Query(value = ItemSearchSql.SEARCH, nativeQuery = true)
+    List<Item> searchItems(@Param("pattern") String pattern);
+
+    @Query(value = ItemSearchSql.SEARCH_FREE, nativeQuery = true)
+    List<Item> searchAvailableItems(@Param("pattern") String pattern, @Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to, Pageable pageable);
 
 }
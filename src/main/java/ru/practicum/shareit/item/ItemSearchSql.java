@@ -0,0 +1,45 @@
+package ru.practicum.shareit.item;
+
+/**
+ * SQL поиска вещей {@code i} — один на {@link ItemRepository}, {@code GeoQuery} и {@code ReactiveItemReader},
+ * чтобы стеки не расходились в условиях. Текст передаётся параметром {@code :pattern} из {@link #pattern},
+ * период — параметрами {@code :from} и {@code :to}.
+ */
+public final class ItemSearchSql {
+
+    /**
+     * Владелец вещи не удалён. {@code UserPurger} снимает его вещи с доступности не сразу.
+     */
+    public static final String ACTIVE_OWNER = "EXISTS (SELECT u.id FROM users u WHERE u.id = i.owner_id "
+            + "AND u.deleted_at IS NULL)";
+
+    /**
+     * Доступная вещь неудалённого владельца, у которой название или описание содержит текст.
+     */
+    public static final String MATCHES = "i.is_available = true "
+            + "AND (UPPER(i.name) LIKE UPPER(:pattern) ESCAPE '\\' "
+            + "OR UPPER(i.description) LIKE UPPER(:pattern) ESCAPE '\\') "
+            + "AND " + ACTIVE_OWNER;
+
+    /**
+     * Вещь не занята одобренным бронированием в {@code [:from, :to)}.
+     */
+    public static final String FREE = "NOT EXISTS (SELECT b.id FROM bookings b WHERE b.item_id = i.id "
+            + "AND b.status = 'APPROVED' AND b.start_date < :to AND b.end_date > :from)";
+
+    public static final String SEARCH = "SELECT i.* FROM items i WHERE " + MATCHES + " ORDER BY i.id";
+
+    public static final String SEARCH_FREE = "SELECT i.* FROM items i WHERE " + MATCHES + " AND " + FREE
+            + " ORDER BY i.id";
+
+    private ItemSearchSql() {
+    }
+
+    /**
+     * Значение {@code :pattern}: текст, в котором экранированы {@code %}, {@code _} и обратная косая черта,
+     * как в производных запросах Spring Data с {@code Containing}.
+     */
+    public static String pattern(String text) {
+        return "%" + text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+}
@@ -1,22 +1,40 @@
 package ru.practicum.shareit.item;
 
 import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.fields.FieldSet;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemService {
 
     ItemDto update(long userId, long itemId, ItemDto itemDto);
 
-    ItemDto getItemById(long userId, long itemId);
+    ItemDto getItemById(long userId, long itemId, FieldSet fields);
+
+    List<ItemDto> getItemsByIds(long userId, List<Long> itemIds, FieldSet fields);
 
     ItemDto saveItem(long userId, ItemDto itemDto);
 
-    List<ItemDto> findItemsByOwner(long userId);
+    List<ItemDto> findItemsByOwner(long userId, FieldSet fields);
 
     CommentDto addComment(long userId, long itemId, String text);
 
-    List<ItemDto> searchItems(String searchText);
+    List<ItemDto> searchItems(String searchText, FieldSet fields);
+
+    List<ItemDto> searchAvailableItems(String searchText, LocalDateTime from, LocalDateTime to, int page, int size,
+                                       FieldSet fields);
+
+    /**
+     * Доступные вещи не дальше {@code radiusKm} от точки по возрастанию расстояния; с {@code from}/{@code to}
+     * — только свободные в этот период.
+     */
+    List<ItemDto> searchItemsNear(String searchText, double latitude, double longitude, double radiusKm,
+                                  LocalDateTime from, LocalDateTime to, int page, int size, FieldSet fields);
+
+    List<ItemAnswerDto> findItemsByRequestIds(Collection<Long> requestIds);
 
 }
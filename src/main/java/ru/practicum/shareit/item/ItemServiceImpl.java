@@ -1,6 +1,7 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -8,16 +9,25 @@ import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.archive.ArchivedBooking;
+import ru.practicum.shareit.booking.archive.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.comment.CommentMapper;
 import ru.practicum.shareit.comment.CommentRepository;
 import ru.practicum.shareit.comment.CommentService;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.config.EntityCacheConfig;
 import ru.practicum.shareit.exceptions.ResourceNotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.fields.FieldSet;
+import ru.practicum.shareit.invalidation.CacheInvalidationService;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.geo.GeoGrid;
+import ru.practicum.shareit.item.geo.GeoQuery;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.UserService;
 import ru.practicum.shareit.user.model.User;
@@ -31,29 +41,50 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
 
+    static final int MAX_BATCH_SIZE = 500;
+
     private final ItemRepository itemRepository;
     private final UserService userService;
     private final BookingMapper bookingMapper;
     private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archiveRepository;
     private final CommentRepository commentRepository;
     private final CommentService commentService;
+    private final ItemRequestRepository itemRequestRepository;
 
     private final UserRepository userRepository;
+    private final CacheInvalidationService invalidationService;
 
     @Override
-    public List<ItemDto> findItemsByOwner(long userId) {
-        List<Item> items = itemRepository.findItemsByOwner(userId);
-        List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
-        List<Booking> bookings = bookingRepository.findApprovedBookingsForItems(itemIds);
-        Map<Long, List<Booking>> bookingsByItem = bookings.stream()
-                .collect(Collectors.groupingBy(b -> b.getItem().getId()));
+    public List<ItemDto> findItemsByOwner(long userId, FieldSet fields) {
+        List<Item> items = fields.includes("comments")
+                ? itemRepository.findItemsWithCommentsByOwner(userId)
+                : itemRepository.findItemsByOwner(userId);
+        Map<Long, List<Booking>> bookingsByItem = Collections.emptyMap();
+        Map<Long, Booking> archivedLast = Collections.emptyMap();
+        if (fields.includesAny("lastBooking", "nextBooking") && !items.isEmpty()) {
+            List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
+            List<Booking> bookings = bookingRepository.findApprovedBookingsForItems(itemIds);
+            bookingsByItem = bookings.stream()
+                    .collect(Collectors.groupingBy(b -> b.getItem().getId()));
+            if (fields.includes("lastBooking")) {
+                archivedLast = findArchivedLastBookings(itemIds, bookingsByItem);
+            }
+        }
 
+        Map<Long, List<Booking>> itemBookings = bookingsByItem;
+        Map<Long, Booking> itemArchivedLast = archivedLast;
         return items.stream()
                 .map(item -> {
-                    ItemDto itemDto = ItemMapper.mapToItemDto(item);
-                    List<Booking> itemBookings = bookingsByItem.getOrDefault(item.getId(), Collections.emptyList());
-                    setLastAndNextBooking(itemDto, itemBookings);
-                    enrichItemWithComments(itemDto, item.getComments());
+                    ItemDto itemDto = ItemMapper.mapToItemDto(item, fields);
+                    if (fields.includesAny("lastBooking", "nextBooking")) {
+                        setLastAndNextBooking(itemDto,
+                                itemBookings.getOrDefault(item.getId(), Collections.emptyList()),
+                                itemArchivedLast.get(item.getId()), fields);
+                    }
+                    if (fields.includes("comments")) {
+                        enrichItemWithComments(itemDto, item.getComments());
+                    }
                     return itemDto;
                 })
                 .collect(Collectors.toList());
@@ -69,6 +100,10 @@ public class ItemServiceImpl implements ItemService {
             throw new ResourceNotFoundException("Только владелец вещи может вносить изменения");
         }
 
+        if (userRepository.findActiveById(userId).isEmpty()) {
+            throw new ResourceNotFoundException("User not found with ID: " + userId);
+        }
+
         if (itemDto.getName() != null) {
             item.setName(itemDto.getName());
         }
@@ -81,6 +116,12 @@ public class ItemServiceImpl implements ItemService {
             item.setAvailable(itemDto.getAvailable());
         }
 
+        GeoGrid.validateLocation(itemDto.getLatitude(), itemDto.getLongitude());
+        if (itemDto.getLatitude() != null) {
+            item.setLocation(itemDto.getLatitude(), itemDto.getLongitude());
+        }
+
+        invalidationService.publish(EntityCacheConfig.ITEMS_REGION, itemId);
         return ItemMapper.mapToItemDto(item);
     }
 
@@ -89,20 +130,29 @@ public class ItemServiceImpl implements ItemService {
                 .orElseThrow(() -> new ResourceNotFoundException("Вещь с ID " + itemId + " не найдена"));
     }
 
+    /**
+     * Вещь удалённого владельца не видна; владелец проверяется через кэш второго уровня, как и сама вещь.
+     */
     @Override
-    public ItemDto getItemById(long userId, long itemId) {
-        Item item = itemRepository.findById(itemId).orElseThrow(()
-                -> new ResourceNotFoundException("Item not found with ID: " + itemId));
-        ItemDto itemDto = ItemMapper.mapToItemDto(item);
+    public ItemDto getItemById(long userId, long itemId, FieldSet fields) {
+        Item item = itemRepository.findById(itemId)
+                .filter(found -> userRepository.findActiveById(found.getOwner()).isPresent())
+                .orElseThrow(() -> new ResourceNotFoundException("Item not found with ID: " + itemId));
+        ItemDto itemDto = ItemMapper.mapToItemDto(item, fields);
 
         if (item.getOwner() != userId) {
             itemDto.setNextBooking(null);
             itemDto.setLastBooking(null);
-            List<CommentDto> commentDtos = getNameAuthor(item);
-            itemDto.setComments(commentDtos);
         } else {
-            itemDto.setNextBooking(findNextBookingByItemId(itemId));
-            itemDto.setLastBooking(findLastBookingByItemId(itemId));
+            if (fields.includes("nextBooking")) {
+                itemDto.setNextBooking(findNextBookingByItemId(itemId));
+            }
+            if (fields.includes("lastBooking")) {
+                itemDto.setLastBooking(findLastBookingByItemId(itemId));
+            }
+        }
+
+        if (fields.includes("comments")) {
             List<CommentDto> commentDtos = getNameAuthor(item);
             itemDto.setComments(commentDtos);
         }
@@ -110,6 +160,59 @@ public class ItemServiceImpl implements ItemService {
     }
 
 
+    /**
+     * Пакетная версия {@link #getItemById}: вещи вместе с комментариями и авторами читаются одним запросом,
+     * бронирования для вещей пользователя-владельца — вторым. Отсутствующие id пропускаются,
+     * как и вещи удалённых владельцев; порядок ответа совпадает с порядком id в запросе.
+     */
+    @Override
+    public List<ItemDto> getItemsByIds(long userId, List<Long> itemIds, FieldSet fields) {
+        if (itemIds == null || itemIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        if (itemIds.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException("Cannot request more than " + MAX_BATCH_SIZE + " items at once");
+        }
+
+        Set<Long> uniqueIds = new LinkedHashSet<>(itemIds);
+        List<Item> items = fields.includes("comments")
+                ? itemRepository.findAllWithCommentsByIdIn(uniqueIds)
+                : itemRepository.findAllActiveByIdIn(uniqueIds);
+        Map<Long, Item> itemsById = items.stream()
+                .collect(Collectors.toMap(Item::getId, item -> item));
+
+        List<Long> ownItemIds = itemsById.values().stream()
+                .filter(item -> item.getOwner() == userId)
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<Booking>> bookingsByItem = ownItemIds.isEmpty() || !fields.includesAny("lastBooking", "nextBooking")
+                ? Collections.emptyMap()
+                : bookingRepository.findApprovedBookingsWithBookerForItems(ownItemIds).stream()
+                .collect(Collectors.groupingBy(b -> b.getItem().getId()));
+        Map<Long, Booking> archivedLast = ownItemIds.isEmpty() || !fields.includes("lastBooking")
+                ? Collections.emptyMap()
+                : findArchivedLastBookings(ownItemIds, bookingsByItem);
+
+        List<ItemDto> result = new ArrayList<>();
+        for (Long itemId : uniqueIds) {
+            Item item = itemsById.get(itemId);
+            if (item == null) {
+                continue;
+            }
+            ItemDto itemDto = ItemMapper.mapToItemDto(item, fields);
+            if (item.getOwner() == userId && fields.includesAny("lastBooking", "nextBooking")) {
+                setLastAndNextBooking(itemDto, bookingsByItem.getOrDefault(itemId, Collections.emptyList()),
+                        archivedLast.get(itemId), fields);
+            }
+            if (fields.includes("comments")) {
+                enrichItemWithComments(itemDto, item.getComments());
+            }
+            result.add(itemDto);
+        }
+        return result;
+    }
+
     private List<CommentDto> getNameAuthor(Item item) {
         List<CommentDto> commentDtos = new ArrayList<>();
         for (Comment comment : item.getComments()) {
@@ -137,8 +240,14 @@ public class ItemServiceImpl implements ItemService {
             throw new ValidationException("Описание не может быть пустым");
         }
 
+        GeoGrid.validateLocation(itemDto.getLatitude(), itemDto.getLongitude());
+
         userService.getUserById(userId);
 
+        if (itemDto.getRequestId() != null && !itemRequestRepository.existsById(itemDto.getRequestId())) {
+            throw new ResourceNotFoundException("Request not found with ID: " + itemDto.getRequestId());
+        }
+
         Item item = ItemMapper.mapToNewItem(itemDto);
         item.setOwner(userId);
         item = itemRepository.save(item);
@@ -151,19 +260,76 @@ public class ItemServiceImpl implements ItemService {
     }
 
     @Override
-    public List<ItemDto> searchItems(String searchText) {
+    public List<ItemDto> searchItems(String searchText, FieldSet fields) {
+        if (searchText.isBlank()) {
+            return new ArrayList<>();
+        }
+        List<Item> items = itemRepository.searchItems(ItemSearchSql.pattern(searchText));
+        return ItemMapper.mapToItemDto(items, fields);
+    }
+
+    @Override
+    public List<ItemDto> searchAvailableItems(String searchText, LocalDateTime from, LocalDateTime to,
+                                              int page, int size, FieldSet fields) {
+        if (from == null || to == null) {
+            throw new ValidationException("Both from and to must be specified");
+        }
+
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Search period start must be before its end");
+        }
+
+        if (page < 0 || size < 1) {
+            throw new ValidationException("Invalid pagination parameters: page=" + page + ", size=" + size);
+        }
+
+        if (searchText.isBlank()) {
+            return new ArrayList<>();
+        }
+        List<Item> items = itemRepository.searchAvailableItems(ItemSearchSql.pattern(searchText), from, to,
+                PageRequest.of(page, size));
+        return ItemMapper.mapToItemDto(items, fields);
+    }
+
+    @Override
+    public List<ItemDto> searchItemsNear(String searchText, double latitude, double longitude, double radiusKm,
+                                         LocalDateTime from, LocalDateTime to, int page, int size, FieldSet fields) {
+        GeoGrid.validateCircle(latitude, longitude, radiusKm);
+
+        if ((from == null) != (to == null)) {
+            throw new ValidationException("Both from and to must be specified");
+        }
+
+        if (from != null && !from.isBefore(to)) {
+            throw new ValidationException("Search period start must be before its end");
+        }
+
+        if (page < 0 || size < 1) {
+            throw new ValidationException("Invalid pagination parameters: page=" + page + ", size=" + size);
+        }
+
         if (searchText.isBlank()) {
             return new ArrayList<>();
         }
-        List<Item> items = itemRepository.findByDescriptionContainingIgnoreCaseAndAvailableIsTrueOrNameContainingIgnoreCaseAndAvailableIsTrue(searchText, searchText);
-        return ItemMapper.mapToItemDto(items);
+        List<Item> items = itemRepository.searchItemsNear(searchText, GeoQuery.of(latitude, longitude, radiusKm),
+                from, to, page, size);
+        return ItemMapper.mapToItemDto(items, fields);
+    }
+
+    @Override
+    public List<ItemAnswerDto> findItemsByRequestIds(Collection<Long> requestIds) {
+        if (requestIds.isEmpty()) {
+            return List.of();
+        }
+        return itemRepository.findAnswersByRequestIdIn(requestIds);
     }
 
     @Override
     @Transactional
     public CommentDto addComment(long userId, long itemId, String text) {
         boolean hasCompletedBooking = bookingRepository.existsByItemIdAndBookerIdAndStatusAndEndBefore(
-                itemId, userId, BookingStatus.APPROVED, LocalDateTime.now());
+                itemId, userId, BookingStatus.APPROVED, LocalDateTime.now())
+                || archiveRepository.existsByItemIdAndBookerIdAndStatus(itemId, userId, BookingStatus.APPROVED);
 
         if (!hasCompletedBooking) {
             throw new ValidationException("User with ID " + userId + " has no completed bookings for item with ID " + itemId
@@ -177,7 +343,7 @@ public class ItemServiceImpl implements ItemService {
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new ResourceNotFoundException("Item not found with ID: " + itemId));
 
-        User author = userRepository.findById(userId)
+        User author = userRepository.findActiveById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
 
         Comment comment = new Comment();
@@ -213,6 +379,9 @@ public class ItemServiceImpl implements ItemService {
     private BookingDto findLastBookingByItemId(long itemId) {
         Booking lastBookings = bookingRepository.findFirstBookingByItemIdAndStatusAndStartIsBefore(itemId,
                 BookingStatus.APPROVED, LocalDateTime.now(), Sort.by(Sort.Direction.DESC, "start"));
+        if (lastBookings == null) {
+            lastBookings = findArchivedLastBookings(List.of(itemId)).get(itemId);
+        }
         BookingDto lastBookingsDTO = bookingMapper.mapToBookingDto(lastBookings);
         return lastBookingsDTO;
     }
@@ -224,20 +393,51 @@ public class ItemServiceImpl implements ItemService {
         return nextBookingsDTO;
     }
 
-    private void setLastAndNextBooking(ItemDto itemDto, List<Booking> bookings) {
+    /**
+     * Последние бронирования вещей, у которых все начавшиеся бронирования уже перенесены в архив.
+     */
+    private Map<Long, Booking> findArchivedLastBookings(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return archiveRepository.findLastApprovedBookingsForItems(itemIds).stream()
+                .map(ArchivedBooking::toBooking)
+                .collect(Collectors.toMap(b -> b.getItem().getId(), b -> b, (first, next) -> first));
+    }
+
+    /**
+     * Для вещей без начавшихся одобренных бронирований в {@code bookingsByItem} последнее
+     * бронирование ищется в архиве одним запросом.
+     */
+    private Map<Long, Booking> findArchivedLastBookings(Collection<Long> itemIds,
+                                                        Map<Long, List<Booking>> bookingsByItem) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> withoutLast = itemIds.stream()
+                .filter(id -> bookingsByItem.getOrDefault(id, Collections.emptyList()).stream()
+                        .noneMatch(b -> b.getStart().isBefore(now)))
+                .collect(Collectors.toList());
+        return findArchivedLastBookings(withoutLast);
+    }
+
+    private void setLastAndNextBooking(ItemDto itemDto, List<Booking> bookings, Booking archivedLast,
+                                       FieldSet fields) {
         LocalDateTime now = LocalDateTime.now();
 
         Booking lastBooking = bookings.stream()
                 .filter(b -> b.getStart().isBefore(now))
                 .max(Comparator.comparing(Booking::getStart))
-                .orElse(null);
+                .orElse(archivedLast);
 
         Booking nextBooking = bookings.stream()
                 .filter(b -> b.getStart().isAfter(now))
                 .min(Comparator.comparing(Booking::getStart))
                 .orElse(null);
 
-        itemDto.setLastBooking(lastBooking != null ? bookingMapper.mapToBookingDto(lastBooking) : null);
-        itemDto.setNextBooking(nextBooking != null ? bookingMapper.mapToBookingDto(nextBooking) : null);
+        if (fields.includes("lastBooking")) {
+            itemDto.setLastBooking(lastBooking != null ? bookingMapper.mapToBookingDto(lastBooking) : null);
+        }
+        if (fields.includes("nextBooking")) {
+            itemDto.setNextBooking(nextBooking != null ? bookingMapper.mapToBookingDto(nextBooking) : null);
+        }
     }
 }
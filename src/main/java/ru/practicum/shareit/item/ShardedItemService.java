@@ -0,0 +1,160 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.fields.FieldSet;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.geo.GeoGrid;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+import ru.practicum.shareit.shard.Shards;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Направляет обращения к вещам на шард владельца: новая вещь — по id владельца, существующая — по её id.
+ * Поиск и пакетное чтение опрашивают шарды параллельно и собирают ответ в том же порядке,
+ * что и без шардирования.
+ */
+@Service
+@Primary
+@RequiredArgsConstructor
+public class ShardedItemService implements ItemService {
+
+    private static final Comparator<ItemDto> BY_ID = Comparator.comparing(ItemDto::getId);
+
+    private final CoalescingItemService delegate;
+    private final Shards shards;
+
+    @Override
+    public ItemDto update(long userId, long itemId, ItemDto itemDto) {
+        return shards.on(shards.forId(itemId), () -> delegate.update(userId, itemId, itemDto));
+    }
+
+    @Override
+    public ItemDto getItemById(long userId, long itemId, FieldSet fields) {
+        return shards.on(shards.forId(itemId), () -> delegate.getItemById(userId, itemId, fields));
+    }
+
+    @Override
+    public List<ItemDto> getItemsByIds(long userId, List<Long> itemIds, FieldSet fields) {
+        if (shards.count() == 1 || itemIds == null || itemIds.isEmpty()) {
+            return shards.on(0, () -> delegate.getItemsByIds(userId, itemIds, fields));
+        }
+
+        if (itemIds.size() > ItemServiceImpl.MAX_BATCH_SIZE) {
+            throw new ValidationException("Cannot request more than " + ItemServiceImpl.MAX_BATCH_SIZE
+                    + " items at once");
+        }
+
+        Set<Long> uniqueIds = new LinkedHashSet<>(itemIds);
+        Map<Integer, List<Long>> idsByShard = uniqueIds.stream()
+                .collect(Collectors.groupingBy(shards::forId));
+        Map<Long, ItemDto> itemsById = shards.gather(shard -> idsByShard.containsKey(shard)
+                        ? delegate.getItemsByIds(userId, idsByShard.get(shard), fields)
+                        : List.<ItemDto>of()).stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toMap(ItemDto::getId, Function.identity()));
+        return uniqueIds.stream()
+                .map(itemsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public ItemDto saveItem(long userId, ItemDto itemDto) {
+        return shards.on(shards.forOwner(userId), () -> delegate.saveItem(userId, itemDto));
+    }
+
+    @Override
+    public List<ItemDto> findItemsByOwner(long userId, FieldSet fields) {
+        return shards.on(shards.forOwner(userId), () -> delegate.findItemsByOwner(userId, fields));
+    }
+
+    @Override
+    public CommentDto addComment(long userId, long itemId, String text) {
+        return shards.on(shards.forId(itemId), () -> delegate.addComment(userId, itemId, text));
+    }
+
+    @Override
+    public List<ItemDto> searchItems(String searchText, FieldSet fields) {
+        if (shards.count() == 1) {
+            return shards.on(0, () -> delegate.searchItems(searchText, fields));
+        }
+
+        return shards.gather(shard -> delegate.searchItems(searchText, fields)).stream()
+                .flatMap(List::stream)
+                .sorted(BY_ID)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Каждый шард отдаёт первые {@code (page + 1) * size} подходящих вещей по возрастанию id,
+     * из их объединения вырезается запрошенная страница. Это число ограничивает {@code ItemController.checkPage}.
+     */
+    @Override
+    public List<ItemDto> searchAvailableItems(String searchText, LocalDateTime from, LocalDateTime to, int page,
+                                              int size, FieldSet fields) {
+        if (shards.count() == 1 || page < 0 || size < 1) {
+            return shards.on(0, () -> delegate.searchAvailableItems(searchText, from, to, page, size, fields));
+        }
+
+        int head = Math.toIntExact(((long) page + 1) * size);
+        return shards.gather(shard -> delegate.searchAvailableItems(searchText, from, to, 0, head, fields)).stream()
+                .flatMap(List::stream)
+                .sorted(BY_ID)
+                .skip((long) page * size)
+                .limit(size)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Как {@link #searchAvailableItems}, но страница вырезается из объединения по расстоянию до точки.
+     */
+    @Override
+    public List<ItemDto> searchItemsNear(String searchText, double latitude, double longitude, double radiusKm,
+                                         LocalDateTime from, LocalDateTime to, int page, int size, FieldSet fields) {
+        if (shards.count() == 1 || page < 0 || size < 1) {
+            return shards.on(0, () -> delegate.searchItemsNear(searchText, latitude, longitude, radiusKm, from, to,
+                    page, size, fields));
+        }
+
+        int head = Math.toIntExact(((long) page + 1) * size);
+        Comparator<ItemDto> byDistance = Comparator.<ItemDto>comparingDouble(item -> GeoGrid.distanceKm(latitude,
+                        longitude, item.getLatitude(), item.getLongitude()))
+                .thenComparing(BY_ID);
+        return shards.gather(shard -> delegate.searchItemsNear(searchText, latitude, longitude, radiusKm, from, to,
+                        0, head, fields)).stream()
+                .flatMap(List::stream)
+                .sorted(byDistance)
+                .skip((long) page * size)
+                .limit(size)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Запросы есть на всех шардах, а ответы на них лежат на шардах своих владельцев.
+     */
+    @Override
+    public List<ItemAnswerDto> findItemsByRequestIds(Collection<Long> requestIds) {
+        if (shards.count() == 1 || requestIds.isEmpty()) {
+            return shards.on(0, () -> delegate.findItemsByRequestIds(requestIds));
+        }
+
+        return shards.gather(shard -> delegate.findItemsByRequestIds(requestIds)).stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(ItemAnswerDto::getId))
+                .collect(Collectors.toList());
+    }
+}
@@ -1,5 +1,8 @@
 package ru.practicum.shareit.item.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -9,15 +12,19 @@ import lombok.NoArgsConstructor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.intf.Create;
+import ru.practicum.shareit.intf.Update;
 
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
+@JsonFilter(ItemDto.FILTER)
 public class ItemDto {
 
+    public static final String FILTER = "itemFields";
+
     private Long id;
 
     @NotBlank(groups = Create.class, message = "Имя не может быть пустым")
@@ -29,9 +36,19 @@ public class ItemDto {
     @NotNull(groups = Create.class, message = "Описание не может быть пустым")
     private Boolean available;
 
+    @DecimalMin(value = "-90", groups = {Create.class, Update.class}, message = "Широта должна быть от -90 до 90")
+    @DecimalMax(value = "90", groups = {Create.class, Update.class}, message = "Широта должна быть от -90 до 90")
+    private Double latitude;
+
+    @DecimalMin(value = "-180", groups = {Create.class, Update.class}, message = "Долгота должна быть от -180 до 180")
+    @DecimalMax(value = "180", groups = {Create.class, Update.class}, message = "Долгота должна быть от -180 до 180")
+    private Double longitude;
+
     private BookingDto lastBooking;
 
     private BookingDto nextBooking;
 
     private List<CommentDto> comments;
+
+    private Long requestId;
 }
@@ -0,0 +1,129 @@
+package ru.practicum.shareit.item.geo;
+
+import ru.practicum.shareit.exceptions.ValidationException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Сетка широта/долгота с ячейками по {@link #CELL_DEGREES} градуса. Ячейки нумеруются по строкам с юга на север,
+ * внутри строки — с запада на восток, поэтому соседние ячейки одной строки образуют непрерывный диапазон
+ * номеров, и круг поиска покрывается одним-двумя диапазонами {@code geo_cell} на строку, которые
+ * обычный B-tree индекс отдаёт без пространственного расширения.
+ */
+public final class GeoGrid {
+
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    /**
+     * Размер ячейки: около 5,5 км по широте. При изменении {@code geo_cell} всех вещей нужно пересчитать.
+     */
+    public static final double CELL_DEGREES = 0.05;
+
+    public static final double MAX_RADIUS_KM = 500;
+
+    private static final int ROWS = (int) Math.round(180 / CELL_DEGREES);
+    private static final int COLUMNS = (int) Math.round(360 / CELL_DEGREES);
+
+    private GeoGrid() {
+    }
+
+    /**
+     * Ячейка точки; {@code null}, если координаты не заданы.
+     */
+    public static Long cellOf(Double latitude, Double longitude) {
+        if (latitude == null || longitude == null) {
+            return null;
+        }
+        return (long) row(latitude) * COLUMNS + column(longitude);
+    }
+
+    /**
+     * Координаты задаются только парой.
+     */
+    public static void validateLocation(Double latitude, Double longitude) {
+        if ((latitude == null) != (longitude == null)) {
+            throw new ValidationException("Both latitude and longitude must be specified");
+        }
+        if (latitude != null) {
+            validateCoordinates(latitude, longitude);
+        }
+    }
+
+    public static void validateCircle(double latitude, double longitude, double radiusKm) {
+        validateCoordinates(latitude, longitude);
+        if (!Double.isFinite(radiusKm) || radiusKm <= 0 || radiusKm > MAX_RADIUS_KM) {
+            throw new ValidationException("Radius must be greater than 0 and at most " + MAX_RADIUS_KM + " km");
+        }
+    }
+
+    /**
+     * Диапазоны номеров ячеек {@code [from, to]}, покрывающие круг. Ширина по долготе берётся
+     * по самой широкой части круга для всех строк, а у полюса и через антимеридиан круг
+     * покрывается целыми строками или двумя диапазонами.
+     */
+    public static List<long[]> cover(double latitude, double longitude, double radiusKm) {
+        double angle = radiusKm / EARTH_RADIUS_KM;
+        double minLatitude = latitude - Math.toDegrees(angle);
+        double maxLatitude = latitude + Math.toDegrees(angle);
+        double sinRatio = Math.sin(angle) / Math.cos(Math.toRadians(latitude));
+        boolean allLongitudes = minLatitude <= -90 || maxLatitude >= 90 || sinRatio >= 1;
+        double halfWidth = allLongitudes ? 180 : Math.toDegrees(Math.asin(sinRatio));
+
+        int fromColumn = column(longitude - halfWidth);
+        int toColumn = column(longitude + halfWidth);
+        if (allLongitudes || 2 * halfWidth + CELL_DEGREES >= 360) {
+            fromColumn = 0;
+            toColumn = COLUMNS - 1;
+        }
+
+        List<long[]> ranges = new ArrayList<>();
+        for (int row = row(Math.max(-90, minLatitude)); row <= row(Math.min(90, maxLatitude)); row++) {
+            long rowStart = (long) row * COLUMNS;
+            if (fromColumn <= toColumn) {
+                add(ranges, rowStart + fromColumn, rowStart + toColumn);
+            } else {
+                add(ranges, rowStart, rowStart + toColumn);
+                add(ranges, rowStart + fromColumn, rowStart + COLUMNS - 1);
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Расстояние по большому кругу (формула гаверсинусов), как в {@link GeoQuery#DISTANCE}.
+     */
+    public static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double sinLatitude = Math.sin(Math.toRadians(latitude2 - latitude1) / 2);
+        double sinLongitude = Math.sin(Math.toRadians(longitude2 - longitude1) / 2);
+        double h = sinLatitude * sinLatitude + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2))
+                * sinLongitude * sinLongitude;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(h)));
+    }
+
+    private static void add(List<long[]> ranges, long from, long to) {
+        if (!ranges.isEmpty() && ranges.getLast()[1] + 1 >= from) {
+            ranges.getLast()[1] = Math.max(ranges.getLast()[1], to);
+        } else {
+            ranges.add(new long[]{from, to});
+        }
+    }
+
+    /**
+     * {@code NaN} проходит любые сравнения с границами, поэтому конечность проверяется отдельно.
+     */
+    private static void validateCoordinates(double latitude, double longitude) {
+        if (!Double.isFinite(latitude) || !Double.isFinite(longitude)
+                || latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new ValidationException("Invalid coordinates: lat=" + latitude + ", lon=" + longitude);
+        }
+    }
+
+    private static int row(double latitude) {
+        return Math.min(ROWS - 1, Math.max(0, (int) Math.floor((latitude + 90) / CELL_DEGREES)));
+    }
+
+    private static int column(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / CELL_DEGREES), COLUMNS);
+    }
+}
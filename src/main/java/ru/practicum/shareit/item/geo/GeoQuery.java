@@ -0,0 +1,52 @@
+package ru.practicum.shareit.item.geo;
+
+import ru.practicum.shareit.item.ItemSearchSql;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Части SQL для поиска вещей {@code i} в круге: источник строк по диапазонам {@code geo_cell} из {@link GeoGrid#cover}
+ * и выражение расстояния в километрах. Параметры именованные, поэтому запрос собирается одинаково
+ * для JPA и R2DBC. Функции в выражении есть и в PostgreSQL, и в H2.
+ * <p>
+ * Диапазоны соединяются с {@code items} списком {@code VALUES}, а не через {@code OR} из {@code BETWEEN}:
+ * на {@code OR} H2 не использует индекс и читает всю таблицу, а соединение даёт по поиску в индексе на диапазон.
+ */
+public record GeoQuery(String source, Map<String, Object> parameters) {
+
+    public static final String DISTANCE = "2 * " + GeoGrid.EARTH_RADIUS_KM + " * ASIN(LEAST(1, SQRT("
+            + "POWER(SIN(RADIANS(i.latitude - :lat) / 2), 2) "
+            + "+ COS(RADIANS(:lat)) * COS(RADIANS(i.latitude)) * POWER(SIN(RADIANS(i.longitude - :lon) / 2), 2))))";
+
+    /**
+     * Вещи в круге с условиями {@link ItemSearchSql}, по возрастанию расстояния, со страницей
+     * {@code :limit}/{@code :offset}. С {@code period} вещь ещё и должна быть свободна в {@code [:from, :to)}.
+     */
+    public String search(String columns, boolean period) {
+        return "SELECT * FROM (SELECT " + columns + ", " + DISTANCE + " AS distance FROM " + source + " "
+                + "WHERE " + ItemSearchSql.MATCHES + (period ? " AND " + ItemSearchSql.FREE : "")
+                + ") g WHERE g.distance <= :radius ORDER BY g.distance, g.id LIMIT :limit OFFSET :offset";
+    }
+
+    public static GeoQuery of(double latitude, double longitude, double radiusKm) {
+        List<long[]> ranges = GeoGrid.cover(latitude, longitude, radiusKm);
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("lat", latitude);
+        parameters.put("lon", longitude);
+        parameters.put("radius", radiusKm);
+        StringBuilder source = new StringBuilder("(VALUES ");
+        for (int i = 0; i < ranges.size(); i++) {
+            if (i > 0) {
+                source.append(", ");
+            }
+            source.append("(CAST(:cellFrom").append(i).append(" AS BIGINT), ")
+                    .append("CAST(:cellTo").append(i).append(" AS BIGINT))");
+            parameters.put("cellFrom" + i, ranges.get(i)[0]);
+            parameters.put("cellTo" + i, ranges.get(i)[1]);
+        }
+        source.append(") c (cell_from, cell_to) JOIN items i ON i.geo_cell BETWEEN c.cell_from AND c.cell_to");
+        return new GeoQuery(source.toString(), parameters);
+    }
+}
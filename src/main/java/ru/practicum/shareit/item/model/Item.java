@@ -4,12 +4,18 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.config.EntityCacheConfig;
 import ru.practicum.shareit.intf.Create;
+import ru.practicum.shareit.item.geo.GeoGrid;
 
 import java.util.List;
 
@@ -19,6 +25,8 @@ import java.util.List;
 @NoArgsConstructor
 @Entity
 @Table(name = "items")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfig.ITEMS_REGION)
 public class Item {
 
     @Id
@@ -43,8 +51,30 @@ public class Item {
 
     @JsonIgnore
     @Column(name = "request_id")
-    private long request;
+    private Long request;
+
+    @Setter(AccessLevel.NONE)
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Setter(AccessLevel.NONE)
+    @Column(name = "longitude")
+    private Double longitude;
+
+    /**
+     * Ячейка {@code GeoGrid} для координат; меняется только вместе с ними через {@link #setLocation}.
+     */
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "geo_cell")
+    private Long geoCell;
 
     @OneToMany(mappedBy = "item", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Comment> comments;
+
+    public void setLocation(Double latitude, Double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.geoCell = GeoGrid.cellOf(latitude, longitude);
+    }
 }
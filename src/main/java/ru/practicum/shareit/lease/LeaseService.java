@@ -0,0 +1,59 @@
+package ru.practicum.shareit.lease;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Аренда (lease) фоновых задач в таблице {@code leases}: в каждый момент задачей с данным именем
+ * владеет не более одного узла. Владелец продлевает аренду повторным вызовом {@link #tryAcquire}.
+ */
+@Slf4j
+@Service
+public class LeaseService {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Getter
+    private final String nodeId;
+
+    public LeaseService(JdbcTemplate jdbcTemplate, @Value("${shareit.node-id:}") String nodeId) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+    }
+
+    public boolean tryAcquire(String name, Duration duration) {
+        LocalDateTime now = LocalDateTime.now();
+        int updated = jdbcTemplate.update("UPDATE leases SET owner = ?, expires_at = ? " +
+                        "WHERE name = ? AND (owner = ? OR expires_at < ?)",
+                nodeId, now.plus(duration), name, nodeId, now);
+        if (updated == 1) {
+            return true;
+        }
+
+        try {
+            jdbcTemplate.update("INSERT INTO leases (name, owner, expires_at) VALUES (?, ?, ?)",
+                    name, nodeId, now.plus(duration));
+            log.info("Node {} acquired lease {}", nodeId, name);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Освобождает аренду, если ею владеет этот узел. Задачи, которым аренда нужна только против
+     * одновременных запусков, отпускают её по окончании, не дожидаясь истечения. Там, где аренда
+     * ещё и ограничивает частоту запуска между узлами (снимки, чистка), её оставляют истекать.
+     */
+    public void release(String name) {
+        jdbcTemplate.update("DELETE FROM leases WHERE name = ? AND owner = ?", name, nodeId);
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.outbox;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Приёмник внутри процесса: складывает события в очередь, из которой их забирают тесты.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.outbox.sink", havingValue = "local")
+public class LocalOutboxSink implements OutboxSink {
+
+    private final ConcurrentLinkedQueue<OutboxEvent> received = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void deliver(OutboxEvent event) {
+        received.add(event);
+    }
+
+    public List<OutboxEvent> drain() {
+        List<OutboxEvent> events = new ArrayList<>();
+        OutboxEvent event;
+        while ((event = received.poll()) != null) {
+            events.add(event);
+        }
+        return events;
+    }
+}
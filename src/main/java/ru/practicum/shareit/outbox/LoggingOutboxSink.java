@@ -0,0 +1,16 @@
+package ru.practicum.shareit.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.outbox.sink", havingValue = "log", matchIfMissing = true)
+public class LoggingOutboxSink implements OutboxSink {
+
+    @Override
+    public void deliver(OutboxEvent event) {
+        log.info("Уведомление {} для пользователя {}: {}", event.getType(), event.getRecipientId(), event.getPayload());
+    }
+}
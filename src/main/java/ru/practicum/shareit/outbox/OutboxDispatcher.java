@@ -0,0 +1,150 @@
+package ru.practicum.shareit.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.shard.Shards;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Фоновая доставка событий outbox пачками.
+ * <p>
+ * Пачка захватывается короткой транзакцией ({@code FOR UPDATE SKIP LOCKED} и перенос следующей попытки
+ * на {@code claim-timeout}), после чего события доставляются вне транзакции. Доставленные события
+ * удаляются одним запросом, недоставленные получают экспоненциальную задержку со случайным разбросом,
+ * а после {@code max-attempts} попыток помечаются как мёртвые. У каждого шарда своя таблица событий,
+ * шарды опрашиваются по очереди.
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 512;
+
+    private final OutboxRepository repository;
+    private final List<OutboxSink> sinks;
+    private final Shards shards;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxProperties properties;
+
+    private final Counter deliveredCounter;
+    private final Counter retriedCounter;
+    private final Counter deadCounter;
+    private final Timer lagTimer;
+
+    public OutboxDispatcher(OutboxRepository repository, List<OutboxSink> sinks, Shards shards,
+                            TransactionTemplate transactionTemplate, OutboxProperties properties,
+                            MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.sinks = sinks;
+        this.shards = shards;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.deliveredCounter = Counter.builder("shareit.outbox.events").tag("result", "delivered")
+                .register(meterRegistry);
+        this.retriedCounter = Counter.builder("shareit.outbox.events").tag("result", "retried")
+                .register(meterRegistry);
+        this.deadCounter = Counter.builder("shareit.outbox.events").tag("result", "dead")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("shareit.outbox.lag")
+                .description("Time from event creation to successful delivery")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.poll-interval:200ms}")
+    public void dispatch() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        shards.forEach(shard -> {
+            List<OutboxEvent> batch;
+            do {
+                batch = claimBatch();
+                deliver(batch);
+            } while (batch.size() == properties.getBatchSize());
+        });
+    }
+
+    private List<OutboxEvent> claimBatch() {
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> ids = repository.lockDueEventIds(now, properties.getBatchSize());
+            if (ids.isEmpty()) {
+                return List.<OutboxEvent>of();
+            }
+            repository.claim(ids, now.plus(properties.getClaimTimeout()));
+            List<OutboxEvent> events = new ArrayList<>(repository.findAllById(ids));
+            events.sort(Comparator.comparingLong(OutboxEvent::getId));
+            return events;
+        });
+        return batch == null ? List.of() : batch;
+    }
+
+    private void deliver(List<OutboxEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<Long> delivered = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            try {
+                for (OutboxSink sink : sinks) {
+                    sink.deliver(event);
+                }
+                delivered.add(event.getId());
+                lagTimer.record(Duration.between(event.getCreatedAt(), LocalDateTime.now()));
+            } catch (RuntimeException e) {
+                fail(event, e);
+            }
+        }
+
+        if (!delivered.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> repository.deleteByIdIn(delivered));
+            deliveredCounter.increment(delivered.size());
+        }
+    }
+
+    private void fail(OutboxEvent event, RuntimeException e) {
+        int attempts = event.getAttempts() + 1;
+        boolean dead = attempts >= properties.getMaxAttempts();
+        String error = String.valueOf(e.getMessage());
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plus(backoff(attempts));
+        String lastError = error;
+        transactionTemplate.executeWithoutResult(status ->
+                repository.markFailed(event.getId(), nextAttemptAt, lastError, dead));
+
+        if (dead) {
+            deadCounter.increment();
+            log.error("Outbox event {} ({}) dropped after {} attempts: {}", event.getId(), event.getType(),
+                    attempts, error);
+        } else {
+            retriedCounter.increment();
+            log.warn("Outbox event {} ({}) delivery failed, attempt {}: {}", event.getId(), event.getType(),
+                    attempts, error);
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        long initial = properties.getInitialBackoff().toMillis();
+        long max = properties.getMaxBackoff().toMillis();
+        long delay = initial << Math.min(attempts - 1, 30);
+        if (delay <= 0 || delay > max) {
+            delay = max;
+        }
+        return Duration.ofMillis(delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+    }
+}
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.outbox;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Событие, записанное в той же транзакции, что и изменение бронирования.
+ * Доставленные события удаляются; событие, исчерпавшее попытки, остаётся в таблице с {@code dead = true}.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "outbox_events")
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(name = "event_type")
+    @Enumerated(EnumType.STRING)
+    private OutboxEventType type;
+
+    @Column(name = "aggregate_id")
+    private long aggregateId;
+
+    @Column(name = "recipient_id")
+    private long recipientId;
+
+    @Column(name = "payload")
+    private String payload;
+
+    @Column(name = "attempts")
+    private int attempts;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error")
+    private String lastError;
+
+    @Column(name = "is_dead")
+    private boolean dead;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.outbox;
+
+public enum OutboxEventType {
+    BOOKING_CREATED,
+    BOOKING_APPROVED,
+    BOOKING_REJECTED
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.outbox;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.outbox")
+public class OutboxProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Пауза между опросами пустой очереди; пока пачки приходят полными, диспетчер выбирает следующую сразу.
+     */
+    private Duration pollInterval = Duration.ofMillis(200);
+
+    private int batchSize = 500;
+
+    /**
+     * Время, на которое захваченные события скрыты от других диспетчеров.
+     */
+    private Duration claimTimeout = Duration.ofSeconds(30);
+
+    private int maxAttempts = 10;
+
+    private Duration initialBackoff = Duration.ofSeconds(1);
+
+    private Duration maxBackoff = Duration.ofMinutes(10);
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.outbox;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Id готовых к отправке событий. Строки, заблокированные другим диспетчером, пропускаются,
+     * поэтому узлы разбирают очередь параллельно и не ждут друг друга.
+     */
+    @Query(value = "SELECT id FROM outbox_events WHERE is_dead = false AND next_attempt_at <= :now " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockDueEventIds(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Захват событий: переносит следующую попытку на окончание захвата. Если узел упадёт,
+     * не доставив события, после этого времени их подберёт другой диспетчер.
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.nextAttemptAt = :claimedUntil WHERE e.id IN :ids")
+    int claim(@Param("ids") Collection<Long> ids, @Param("claimedUntil") LocalDateTime claimedUntil);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.nextAttemptAt = :nextAttemptAt, " +
+            "e.lastError = :error, e.dead = :dead WHERE e.id = :id")
+    int markFailed(@Param("id") long id, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("error") String error, @Param("dead") boolean dead);
+}
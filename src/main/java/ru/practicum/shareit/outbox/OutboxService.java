@@ -0,0 +1,43 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Запись событий в outbox. Вызывается только внутри транзакции изменения, чтобы событие
+ * и изменение фиксировались или откатывались вместе.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxRepository repository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(OutboxEventType type, long aggregateId, long recipientId, Object payload) {
+        LocalDateTime now = LocalDateTime.now();
+        repository.save(OutboxEvent.builder()
+                .type(type)
+                .aggregateId(aggregateId)
+                .recipientId(recipientId)
+                .payload(toJson(payload))
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize outbox payload", e);
+        }
+    }
+}
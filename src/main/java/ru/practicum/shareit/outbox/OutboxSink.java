@@ -0,0 +1,13 @@
+package ru.practicum.shareit.outbox;
+
+/**
+ * Получатель событий outbox. Доставка «как минимум один раз»: после ошибки событие будет
+ * отправлено повторно во все приёмники, поэтому получатели должны различать повторы по {@link OutboxEvent#getId()}.
+ */
+public interface OutboxSink {
+
+    /**
+     * @throws RuntimeException если событие не доставлено и должно быть повторено
+     */
+    void deliver(OutboxEvent event);
+}
@@ -0,0 +1,122 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.practicum.shareit.bulkhead.BulkheadProperties;
+import ru.practicum.shareit.bulkhead.EndpointClass;
+import ru.practicum.shareit.exceptions.TooManyRequestsException;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+
+import static ru.practicum.shareit.item.ItemController.USER_ID;
+
+/**
+ * Допуск запросов: сначала общий лимит одновременных запросов узла, затем корзина токенов пользователя
+ * из {@code X-Sharer-User-Id} со стоимостью по эндпоинту. Отказ в любом из них — 429 с заголовком Retry-After.
+ * Токены списываются только с запроса, который узел готов выполнить: отказ по перегрузке корзину не тратит.
+ * <p>
+ * Регистрируется после {@code BulkheadInterceptor}: запрос, который ждёт места в своём классе, не держит
+ * место узла. При включённых переборках общий лимит не меньше суммы лимитов классов, поэтому очередь одного
+ * класса не отнимает места у других.
+ */
+@Component
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".permit";
+    private static final Duration OVERLOAD_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final RateLimitProperties properties;
+    private final TokenBuckets tokenBuckets;
+    private final Semaphore concurrency;
+    private final Counter rateLimitedCounter;
+    private final Counter overloadedCounter;
+
+    private final int maxConcurrentRequests;
+
+    public AdmissionControlInterceptor(RateLimitProperties properties, BulkheadProperties bulkheadProperties,
+                                       TokenBuckets tokenBuckets, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.tokenBuckets = tokenBuckets;
+        this.maxConcurrentRequests = maxConcurrentRequests(properties, bulkheadProperties);
+        this.concurrency = new Semaphore(maxConcurrentRequests);
+        this.rateLimitedCounter = Counter.builder("shareit.admission.rejected")
+                .tag("reason", "rate_limit")
+                .register(meterRegistry);
+        this.overloadedCounter = Counter.builder("shareit.admission.rejected")
+                .tag("reason", "overload")
+                .register(meterRegistry);
+        Gauge.builder("shareit.admission.in.flight", concurrency,
+                        semaphore -> maxConcurrentRequests - semaphore.availablePermits())
+                .register(meterRegistry);
+    }
+
+    private static int maxConcurrentRequests(RateLimitProperties properties, BulkheadProperties bulkheadProperties) {
+        if (!bulkheadProperties.isEnabled()) {
+            return properties.getMaxConcurrentRequests();
+        }
+        int classes = 0;
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            classes += bulkheadProperties.partition(endpointClass).getMaxConcurrent();
+        }
+        return Math.max(properties.getMaxConcurrentRequests(), classes);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+
+        if (!concurrency.tryAcquire()) {
+            overloadedCounter.increment();
+            throw new TooManyRequestsException("Server is overloaded, retry later", OVERLOAD_RETRY_AFTER);
+        }
+
+        Long userId = userId(request);
+        if (userId != null) {
+            long waitNanos = tokenBuckets.tryConsume(userId, cost(request));
+            if (waitNanos > 0) {
+                concurrency.release();
+                rateLimitedCounter.increment();
+                throw new TooManyRequestsException("Too many requests from user with ID: " + userId,
+                        Duration.ofNanos(waitNanos));
+            }
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            concurrency.release();
+        }
+    }
+
+    private int cost(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+        return properties.getCosts().getOrDefault(endpoint, 1);
+    }
+
+    private Long userId(HttpServletRequest request) {
+        String header = request.getHeader(USER_ID);
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Размер корзины: сколько единиц стоимости пользователь может потратить залпом.
+     */
+    private int capacity = 50;
+
+    /**
+     * Скорость пополнения корзины, единиц стоимости в секунду.
+     */
+    private double refillPerSecond = 20;
+
+    /**
+     * Стоимость запроса по шаблону эндпоинта вида {@code GET /bookings/owner}; по умолчанию 1.
+     */
+    private Map<String, Integer> costs = new HashMap<>();
+
+    /**
+     * Число одновременно обрабатываемых запросов на узле. Держится не выше размера пула соединений,
+     * чтобы лишние запросы получали 429, а не ждали соединение. При включённых переборках поднимается
+     * до суммы лимитов классов, если она больше: у каждого класса свой пул.
+     */
+    private int maxConcurrentRequests = 10;
+
+    private int stripes = 16;
+
+    /**
+     * Верхняя граница числа отслеживаемых пользователей; сверх неё новые пользователи не ограничиваются
+     * по токенам и учитываются в метрике {@code shareit.rate.limit.untracked}.
+     */
+    private int maxTrackedUsers = 100_000;
+
+    /**
+     * Через сколько после полного пополнения корзина пользователя удаляется.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(5);
+}
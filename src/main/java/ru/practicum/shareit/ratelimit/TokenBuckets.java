@@ -0,0 +1,124 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Корзины токенов пользователей, разбитые на полосы по id пользователя.
+ * <p>
+ * Каждая корзина — один {@link AtomicLong} с теоретическим временем прибытия (алгоритм GCRA):
+ * списание стоимости — одна CAS-операция без блокировок, а корзина, время которой уже в прошлом,
+ * полна и ничем не отличается от новой, поэтому её можно удалить без потери состояния.
+ * <p>
+ * Когда полоса заполнена до {@link RateLimitProperties#getMaxTrackedUsers()} и простаивающих корзин в ней нет,
+ * новый пользователь допускается без ограничения и учитывается в {@code shareit.rate.limit.untracked}.
+ * Общая корзина на всех сверх лимита отдавала бы одному активному клиенту квоту остальных, а отказ им всем
+ * превращал бы наплыв новых пользователей в отказ в обслуживании; от перегрузки узел всё равно защищает
+ * лимит одновременных запросов.
+ */
+@Component
+public class TokenBuckets {
+
+    private static final long SWEEP_THROTTLE_NANOS = 1_000_000_000L;
+
+    private final RateLimitProperties properties;
+    private final ConcurrentHashMap<Long, AtomicLong>[] stripes;
+    private final AtomicLong[] lastSweeps;
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final Counter untrackedCounter;
+
+    @SuppressWarnings("unchecked")
+    public TokenBuckets(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.stripes = new ConcurrentHashMap[properties.getStripes()];
+        this.lastSweeps = new AtomicLong[properties.getStripes()];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+            lastSweeps[i] = new AtomicLong(System.nanoTime());
+        }
+        this.emissionIntervalNanos = (long) (1_000_000_000L / properties.getRefillPerSecond());
+        this.burstNanos = emissionIntervalNanos * properties.getCapacity();
+        Gauge.builder("shareit.rate.limit.buckets", this, TokenBuckets::size)
+                .description("Tracked per-user token buckets")
+                .register(meterRegistry);
+        this.untrackedCounter = Counter.builder("shareit.rate.limit.untracked")
+                .description("Requests admitted without a token bucket because max-tracked-users was reached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Списывает {@code cost} единиц из корзины пользователя.
+     *
+     * @return 0, если запрос допущен, иначе время в наносекундах до момента, когда хватит токенов
+     */
+    public long tryConsume(long userId, int cost) {
+        long now = System.nanoTime();
+        AtomicLong bucket = bucket(userId, now);
+        if (bucket == null) {
+            untrackedCounter.increment();
+            return 0;
+        }
+        long increment = emissionIntervalNanos * cost;
+        while (true) {
+            long tat = bucket.get();
+            long start = Math.max(tat, now);
+            long newTat = start + increment;
+            long excess = newTat - now - burstNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (bucket.compareAndSet(tat, newTat)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        return Arrays.stream(stripes).mapToInt(ConcurrentHashMap::size).sum();
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.rate-limit.idle-timeout:5m}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (ConcurrentHashMap<Long, AtomicLong> stripe : stripes) {
+            evictIdle(stripe, now);
+        }
+    }
+
+    /**
+     * Корзина пользователя; {@code null}, если полоса заполнена и завести корзину негде.
+     */
+    private AtomicLong bucket(long userId, long now) {
+        int index = Math.floorMod(Long.hashCode(userId), stripes.length);
+        ConcurrentHashMap<Long, AtomicLong> stripe = stripes[index];
+        AtomicLong bucket = stripe.get(userId);
+        if (bucket != null) {
+            return bucket;
+        }
+
+        int stripeLimit = Math.max(1, properties.getMaxTrackedUsers() / stripes.length);
+        if (stripe.size() >= stripeLimit) {
+            long lastSweep = lastSweeps[index].get();
+            if (now - lastSweep > SWEEP_THROTTLE_NANOS && lastSweeps[index].compareAndSet(lastSweep, now)) {
+                evictIdle(stripe, now);
+            }
+            if (stripe.size() >= stripeLimit) {
+                return null;
+            }
+        }
+        return stripe.computeIfAbsent(userId, id -> new AtomicLong(Long.MIN_VALUE));
+    }
+
+    private void evictIdle(ConcurrentHashMap<Long, AtomicLong> stripe, long now) {
+        long idleBefore = now - properties.getIdleTimeout().toNanos();
+        stripe.values().removeIf(bucket -> bucket.get() < idleBefore);
+    }
+}
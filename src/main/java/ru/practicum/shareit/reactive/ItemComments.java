@@ -0,0 +1,72 @@
+package ru.practicum.shareit.reactive;
+
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Комментарии вещей читаются тем же запросом, что и сами строки, через {@code LEFT JOIN}: отдельный запрос
+ * на пачку строк занимал бы второе соединение, пока первое ещё отдаёт результат, и под нагрузкой запросы
+ * разбирали бы весь пул, ожидая друг друга. Строки одной вещи идут подряд и собираются в один элемент.
+ */
+final class ItemComments {
+
+    private ItemComments() {
+    }
+
+    /**
+     * Оборачивает запрос {@code rows} (с его сортировкой и страницей) соединением с комментариями.
+     *
+     * @param itemId колонка {@code rows} с id вещи
+     * @param order  сортировка {@code rows} в терминах её колонок; строки одного элемента должны идти подряд
+     */
+    static String join(String rows, String itemId, String order) {
+        return "SELECT r.*, c.id AS comment_id, c.text AS comment_text, c.created_at AS comment_created "
+                + "FROM (" + rows + ") r LEFT JOIN comments c ON c.item_id = r." + itemId + " "
+                + "ORDER BY " + order + ", c.id";
+    }
+
+    static CommentDto mapToCommentDto(Readable row) {
+        Long id = row.get("comment_id", Long.class);
+        if (id == null) {
+            return null;
+        }
+        return CommentDto.builder()
+                .id(id)
+                .text(row.get("comment_text", String.class))
+                .created(row.get("comment_created", LocalDateTime.class))
+                .build();
+    }
+
+    /**
+     * Собирает подряд идущие строки одного элемента; как и {@code ItemMapper}, вещь без комментариев
+     * получает пустой список.
+     */
+    static <T> Flux<T> group(Flux<Row<T>> rows, Function<T, Object> key, Function<T, ItemDto> item) {
+        return rows
+                .bufferUntilChanged(row -> key.apply(row.element()))
+                .map(group -> {
+                    T element = group.get(0).element();
+                    List<CommentDto> comments = new ArrayList<>();
+                    for (Row<T> row : group) {
+                        if (row.comment() != null) {
+                            comments.add(row.comment());
+                        }
+                    }
+                    item.apply(element).setComments(comments);
+                    return element;
+                });
+    }
+
+    /**
+     * Строка результата: элемент и один его комментарий ({@code null}, если комментариев нет).
+     */
+    record Row<T>(T element, CommentDto comment) {
+    }
+}
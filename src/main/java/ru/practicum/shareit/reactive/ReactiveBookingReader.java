@@ -0,0 +1,182 @@
+package ru.practicum.shareit.reactive;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.exceptions.ResourceNotFoundException;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.fields.FieldSet;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Списки бронирований через R2DBC с теми же состояниями, порядком и ошибками, что и {@code BookingServiceImpl}.
+ * Выборки, которые сервис берёт из {@code BookingHistory}, здесь объединяют оперативную и архивную таблицы
+ * одним запросом {@code UNION ALL}, так что сортировка и страница вычисляются в базе. Удалённый пользователь,
+ * как и в сервисе, получает 404 до чтения бронирований.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.reactive.enabled", havingValue = "true")
+public class ReactiveBookingReader {
+
+    private static final String COLUMNS = "b.id, b.start_date, b.end_date, b.status, "
+            + "i.id AS item_id, i.name AS item_name, i.description AS item_description, "
+            + "i.is_available AS item_available, i.request_id AS item_request_id, "
+            + "u.id AS booker_id, u.name AS booker_name, u.email AS booker_email";
+    private static final String LIVE = "bookings";
+    private static final String ARCHIVE = "bookings_archive";
+
+    private static final String BOOKER = "b.booker_id = :userId";
+    private static final String OWNER = "i.owner_id = :userId";
+    private static final String BOOKER_OR_OWNER = "(b.booker_id = :userId OR i.owner_id = :userId)";
+    private static final String WAITING = " AND b.status = '" + BookingStatus.WAITING + "'";
+    private static final String REJECTED = " AND b.status = '" + BookingStatus.REJECTED + "'";
+    private static final String CURRENT = " AND b.start_date < :now AND b.end_date > :now";
+    private static final String ENDED = " AND b.end_date < :now";
+    private static final String BY_START = "start_date";
+    private static final String BY_END = "end_date";
+
+    private final DatabaseClient databaseClient;
+    private final int fetchSize;
+
+    public ReactiveBookingReader(DatabaseClient databaseClient, ReactiveReadProperties properties) {
+        this.databaseClient = databaseClient;
+        this.fetchSize = properties.getFetchSize();
+    }
+
+    public Flux<BookingDto> findByStateAndBookerId(long userId, String state, FieldSet fields, Pageable page) {
+        return requireActiveUser(userId).thenMany(findByStateAndBooker(userId, state, fields, page));
+    }
+
+    private Flux<BookingDto> findByStateAndBooker(long userId, String state, FieldSet fields, Pageable page) {
+        if (state == null) {
+            return find(new Query(BOOKER_OR_OWNER, BOOKER_OR_OWNER, BY_START), userId, fields, page);
+        }
+        return switch (state) {
+            case "ALL", "FUTURE" -> notFoundIfEmpty(find(new Query(BOOKER, BOOKER, BY_START), userId, fields, page),
+                    page, "Booking not found with Booker ID: " + userId);
+            case "WAITING" -> find(new Query(BOOKER + WAITING, null, BY_START), userId, fields, page);
+            case "REJECTED" -> find(new Query(BOOKER + REJECTED, BOOKER + REJECTED, BY_START), userId, fields, page);
+            case "PAST" -> find(new Query(BOOKER + ENDED, BOOKER, BY_END), userId, fields, page);
+            case "CURRENT" -> find(new Query(BOOKER + CURRENT, null, BY_START), userId, fields, page);
+            default -> Flux.error(new ValidationException("Unknown state: " + state));
+        };
+    }
+
+    public Flux<BookingDto> findByStateAndOwnerId(long userId, String state, FieldSet fields, Pageable page) {
+        Flux<BookingDto> bookings;
+        if (state == null) {
+            bookings = find(new Query(BOOKER_OR_OWNER, BOOKER_OR_OWNER, BY_START), userId, fields, page);
+        } else {
+            bookings = switch (state) {
+                case "ALL", "FUTURE" -> notFoundIfEmpty(find(new Query(OWNER, OWNER, BY_START), userId, fields, page),
+                        page, "Booking not found with Owner ID: " + userId);
+                case "WAITING" -> find(new Query(OWNER + WAITING, null, BY_START), userId, fields, page);
+                case "REJECTED" -> find(new Query(OWNER + REJECTED, OWNER + REJECTED, BY_START), userId, fields, page);
+                case "CURRENT" -> find(new Query(OWNER + CURRENT, null, BY_START), userId, fields, page);
+                case "PAST" -> find(new Query(OWNER + ENDED, OWNER, BY_END), userId, fields, page);
+                default -> Flux.error(new ValidationException("Unknown state: " + state));
+            };
+        }
+        // Как и в сервисе, отсутствие бронирований у пользователя проверяется раньше разбора состояния.
+        return requireActiveUser(userId).then(existsByBookerOrOwner(userId)).flatMapMany(exists -> exists
+                ? bookings
+                : Flux.error(new ResourceNotFoundException("No bookings found for user with ID: " + userId)));
+    }
+
+    private Mono<Void> requireActiveUser(long userId) {
+        return databaseClient.sql("SELECT u.id FROM users u WHERE u.id = :userId AND u.deleted_at IS NULL")
+                .bind("userId", userId)
+                .map(row -> true)
+                .first()
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("User not found with ID: " + userId)))
+                .then();
+    }
+
+    private Mono<Boolean> existsByBookerOrOwner(long userId) {
+        return exists(LIVE, userId).flatMap(exists -> exists ? Mono.just(true) : exists(ARCHIVE, userId));
+    }
+
+    private Mono<Boolean> exists(String table, long userId) {
+        return databaseClient.sql("SELECT b.id FROM " + table + " b JOIN items i ON i.id = b.item_id "
+                        + "WHERE " + BOOKER_OR_OWNER + " LIMIT 1")
+                .bind("userId", userId)
+                .map(row -> true)
+                .first()
+                .defaultIfEmpty(false);
+    }
+
+    private Flux<BookingDto> find(Query query, long userId, FieldSet fields, Pageable page) {
+        String sql = "SELECT * FROM (" + select(LIVE, query.live())
+                + (query.archive() != null ? " UNION ALL " + select(ARCHIVE, query.archive()) : "")
+                + ") h ORDER BY h." + query.order() + " DESC, h.id DESC"
+                + (page.isPaged() ? " LIMIT :limit OFFSET :offset" : "");
+        boolean withItem = fields.includes("item");
+        if (withItem) {
+            sql = ItemComments.join(sql, "item_id", "r." + query.order() + " DESC, r.id DESC");
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .bind("userId", userId);
+        if (sql.contains(":now")) {
+            spec = spec.bind("now", LocalDateTime.now());
+        }
+        if (page.isPaged()) {
+            spec = spec.bind("limit", page.getPageSize()).bind("offset", page.getOffset());
+        }
+
+        if (!withItem) {
+            return spec.map(row -> mapToBookingDto(row, fields)).all();
+        }
+        Flux<ItemComments.Row<BookingDto>> rows = spec
+                .map(row -> new ItemComments.Row<>(mapToBookingDto(row, fields), ItemComments.mapToCommentDto(row)))
+                .all();
+        return ItemComments.group(rows, BookingDto::getId, BookingDto::getItem);
+    }
+
+    private static Flux<BookingDto> notFoundIfEmpty(Flux<BookingDto> bookings, Pageable page, String message) {
+        return page.isUnpaged() || page.getOffset() == 0
+                ? bookings.switchIfEmpty(Flux.error(new ResourceNotFoundException(message)))
+                : bookings;
+    }
+
+    private static String select(String table, String where) {
+        return "SELECT " + COLUMNS + " FROM " + table + " b "
+                + "JOIN items i ON i.id = b.item_id JOIN users u ON u.id = b.booker_id WHERE " + where;
+    }
+
+    private static BookingDto mapToBookingDto(Readable row, FieldSet fields) {
+        return BookingDto.builder()
+                .id(row.get("id", Long.class))
+                .start(row.get("start_date", LocalDateTime.class))
+                .end(row.get("end_date", LocalDateTime.class))
+                .item(fields.includes("item") ? ItemDto.builder()
+                        .id(row.get("item_id", Long.class))
+                        .name(row.get("item_name", String.class))
+                        .description(row.get("item_description", String.class))
+                        .available(row.get("item_available", Boolean.class))
+                        .requestId(row.get("item_request_id", Long.class))
+                        .build() : null)
+                .booker(fields.includes("booker") ? UserDto.builder()
+                        .id(row.get("booker_id", Long.class))
+                        .name(row.get("booker_name", String.class))
+                        .email(row.get("booker_email", String.class))
+                        .build() : null)
+                .status(BookingStatus.valueOf(row.get("status", String.class)))
+                .build();
+    }
+
+    /**
+     * Условия для оперативной и архивной таблиц; без архивного условия читаются только оперативные бронирования.
+     */
+    private record Query(String live, String archive, String order) {
+    }
+}
@@ -0,0 +1,131 @@
+package ru.practicum.shareit.reactive;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.fields.FieldSet;
+import ru.practicum.shareit.item.ItemSearchSql;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.geo.GeoGrid;
+import ru.practicum.shareit.item.geo.GeoQuery;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Поиск вещей через R2DBC с той же семантикой, что и {@code ItemServiceImpl}: запросы берутся из
+ * {@link ItemSearchSql}, как и в {@code ItemRepository}.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.reactive.enabled", havingValue = "true")
+public class ReactiveItemReader {
+
+    private static final String SEARCH_AVAILABLE = ItemSearchSql.SEARCH_FREE + " LIMIT :limit OFFSET :offset";
+
+    private final DatabaseClient databaseClient;
+    private final int fetchSize;
+
+    public ReactiveItemReader(DatabaseClient databaseClient, ReactiveReadProperties properties) {
+        this.databaseClient = databaseClient;
+        this.fetchSize = properties.getFetchSize();
+    }
+
+    public Flux<ItemDto> searchItems(String searchText, FieldSet fields) {
+        if (searchText.isBlank()) {
+            return Flux.empty();
+        }
+        return find(ItemSearchSql.SEARCH, fields, spec -> spec.bind("pattern", ItemSearchSql.pattern(searchText)));
+    }
+
+    public Flux<ItemDto> searchAvailableItems(String searchText, LocalDateTime from, LocalDateTime to,
+                                              int page, int size, FieldSet fields) {
+        if (from == null || to == null) {
+            throw new ValidationException("Both from and to must be specified");
+        }
+
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Search period start must be before its end");
+        }
+
+        if (page < 0 || size < 1) {
+            throw new ValidationException("Invalid pagination parameters: page=" + page + ", size=" + size);
+        }
+
+        if (searchText.isBlank()) {
+            return Flux.empty();
+        }
+        return find(SEARCH_AVAILABLE, fields, spec -> spec
+                .bind("pattern", ItemSearchSql.pattern(searchText))
+                .bind("from", from)
+                .bind("to", to)
+                .bind("limit", size)
+                .bind("offset", (long) page * size));
+    }
+
+    public Flux<ItemDto> searchItemsNear(String searchText, double latitude, double longitude, double radiusKm,
+                                         LocalDateTime from, LocalDateTime to, int page, int size, FieldSet fields) {
+        GeoGrid.validateCircle(latitude, longitude, radiusKm);
+
+        if ((from == null) != (to == null)) {
+            throw new ValidationException("Both from and to must be specified");
+        }
+
+        if (from != null && !from.isBefore(to)) {
+            throw new ValidationException("Search period start must be before its end");
+        }
+
+        if (page < 0 || size < 1) {
+            throw new ValidationException("Invalid pagination parameters: page=" + page + ", size=" + size);
+        }
+
+        if (searchText.isBlank()) {
+            return Flux.empty();
+        }
+        GeoQuery geo = GeoQuery.of(latitude, longitude, radiusKm);
+        String sql = geo.search("i.id, i.name, i.description, i.is_available, i.request_id, i.latitude, i.longitude",
+                from != null);
+        return find(sql, "r.distance, r.id", fields, spec -> {
+            spec = spec.bind("pattern", ItemSearchSql.pattern(searchText))
+                    .bind("limit", size)
+                    .bind("offset", (long) page * size);
+            for (Map.Entry<String, Object> parameter : geo.parameters().entrySet()) {
+                spec = spec.bind(parameter.getKey(), parameter.getValue());
+            }
+            return from == null ? spec : spec.bind("from", from).bind("to", to);
+        });
+    }
+
+    private Flux<ItemDto> find(String sql, FieldSet fields, UnaryOperator<DatabaseClient.GenericExecuteSpec> binder) {
+        return find(sql, "r.id", fields, binder);
+    }
+
+    private Flux<ItemDto> find(String sql, String order, FieldSet fields,
+                               UnaryOperator<DatabaseClient.GenericExecuteSpec> binder) {
+        if (!fields.includes("comments")) {
+            return binder.apply(databaseClient.sql(sql).filter(statement -> statement.fetchSize(fetchSize)))
+                    .map(ReactiveItemReader::mapToItemDto)
+                    .all();
+        }
+        Flux<ItemComments.Row<ItemDto>> rows = binder.apply(databaseClient.sql(ItemComments.join(sql, "id", order))
+                        .filter(statement -> statement.fetchSize(fetchSize)))
+                .map(row -> new ItemComments.Row<>(mapToItemDto(row), ItemComments.mapToCommentDto(row)))
+                .all();
+        return ItemComments.group(rows, ItemDto::getId, item -> item);
+    }
+
+    private static ItemDto mapToItemDto(Readable row) {
+        return ItemDto.builder()
+                .id(row.get("id", Long.class))
+                .name(row.get("name", String.class))
+                .description(row.get("description", String.class))
+                .available(row.get("is_available", Boolean.class))
+                .requestId(row.get("request_id", Long.class))
+                .latitude(row.get("latitude", Double.class))
+                .longitude(row.get("longitude", Double.class))
+                .build();
+    }
+}
@@ -0,0 +1,284 @@
+package ru.practicum.shareit.reactive;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebExceptionHandler;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.exceptions.ErrorMessage;
+import ru.practicum.shareit.exceptions.ResourceNotFoundException;
+import ru.practicum.shareit.exceptions.TooManyRequestsException;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.fields.FieldSet;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.ratelimit.RateLimitProperties;
+import ru.practicum.shareit.ratelimit.TokenBuckets;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static ru.practicum.shareit.item.ItemController.USER_ID;
+import static ru.practicum.shareit.item.ItemController.checkPage;
+
+/**
+ * Эндпоинты чтения неблокирующего стека: те же пути, параметры и ошибки, что у {@code ItemController}
+ * и {@code BookingController}.
+ * <p>
+ * Ответ пишется по мере чтения строк из базы и с учётом спроса клиента: при {@code Accept: application/x-ndjson}
+ * — по одному объекту в строке, иначе — JSON-массивом. Корзины токенов пользователей общие с сервлетным стеком;
+ * лимита одновременных запросов здесь нет — запрос не держит ни поток, ни соединение с базой в ожидании.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.reactive.enabled", havingValue = "true")
+public class ReactiveReadHandler implements WebExceptionHandler {
+
+    private static final byte[] EMPTY_ARRAY = "[]".getBytes();
+
+    private final ReactiveItemReader itemReader;
+    private final ReactiveBookingReader bookingReader;
+    private final RateLimitProperties rateLimitProperties;
+    private final TokenBuckets tokenBuckets;
+    private final ObjectMapper objectMapper;
+
+    public ReactiveReadHandler(ReactiveItemReader itemReader, ReactiveBookingReader bookingReader,
+                               RateLimitProperties rateLimitProperties, TokenBuckets tokenBuckets,
+                               ObjectMapper objectMapper) {
+        this.itemReader = itemReader;
+        this.bookingReader = bookingReader;
+        this.rateLimitProperties = rateLimitProperties;
+        this.tokenBuckets = tokenBuckets;
+        this.objectMapper = objectMapper;
+    }
+
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+                .GET("/items/search", this::searchItems)
+                .GET("/bookings/owner", this::findBookingsByStateAndOwnerId)
+                .GET("/bookings", this::findBookingsByStateAndBookerId)
+                .filter(this::admit)
+                .build();
+    }
+
+    private Mono<ServerResponse> searchItems(ServerRequest request) {
+        String searchText = request.queryParam("text")
+                .orElseThrow(() -> new ValidationException("Required parameter 'text' is not present"));
+        LocalDateTime from = dateTimeParam(request, "from");
+        LocalDateTime to = dateTimeParam(request, "to");
+        Double latitude = doubleParam(request, "lat");
+        Double longitude = doubleParam(request, "lon");
+        Double radiusKm = doubleParam(request, "radius");
+        FieldSet fieldSet = FieldSet.parse(request.queryParam(FieldSet.PARAM).orElse(null), ItemDto.class);
+        if (latitude != null || longitude != null || radiusKm != null) {
+            if (latitude == null || longitude == null || radiusKm == null) {
+                throw new ValidationException("lat, lon and radius must be specified together");
+            }
+            log.info("Поиск предметов под text: {} в радиусе {} км от ({}, {})", searchText, radiusKm, latitude,
+                    longitude);
+            int page = intParam(request, "page", 0);
+            int size = intParam(request, "size", 20);
+            checkPage(page, size);
+            return write(request, itemReader.searchItemsNear(searchText, latitude, longitude, radiusKm, from, to,
+                    page, size, fieldSet), fieldSet.filters(ItemDto.FILTER));
+        }
+        if (from == null && to == null) {
+            log.info("Поиск всех предметов под text: {}", searchText);
+            return write(request, itemReader.searchItems(searchText, fieldSet), fieldSet.filters(ItemDto.FILTER));
+        }
+        log.info("Поиск свободных предметов под text: {} в период с {} по {}", searchText, from, to);
+        int page = intParam(request, "page", 0);
+        int size = intParam(request, "size", 20);
+        checkPage(page, size);
+        return write(request, itemReader.searchAvailableItems(searchText, from, to, page, size, fieldSet),
+                fieldSet.filters(ItemDto.FILTER));
+    }
+
+    private Mono<ServerResponse> findBookingsByStateAndOwnerId(ServerRequest request) {
+        long userId = userId(request);
+        String state = request.queryParam("state").orElse(null);
+        log.info("Received request to get bookings by owner with ID: {} and state: {}", userId, state);
+        FieldSet fieldSet = FieldSet.parse(request.queryParam(FieldSet.PARAM).orElse(null), BookingDto.class);
+        return write(request, bookingReader.findByStateAndOwnerId(userId, state, fieldSet, pageable(request)),
+                fieldSet.filters(BookingDto.FILTER));
+    }
+
+    private Mono<ServerResponse> findBookingsByStateAndBookerId(ServerRequest request) {
+        long userId = userId(request);
+        String state = request.queryParam("state").orElse(null);
+        log.info("Received request to get bookings by booker with ID: {} and state: {}", userId, state);
+        FieldSet fieldSet = FieldSet.parse(request.queryParam(FieldSet.PARAM).orElse(null), BookingDto.class);
+        return write(request, bookingReader.findByStateAndBookerId(userId, state, fieldSet, pageable(request)),
+                fieldSet.filters(BookingDto.FILTER));
+    }
+
+    /**
+     * Та же корзина токенов пользователя и та же стоимость эндпоинтов, что в {@code AdmissionControlInterceptor}.
+     */
+    private Mono<ServerResponse> admit(ServerRequest request, HandlerFunction<ServerResponse> next) {
+        if (rateLimitProperties.isEnabled()) {
+            String header = request.headers().firstHeader(USER_ID);
+            Long userId = parseLong(header);
+            if (userId != null) {
+                int cost = rateLimitProperties.getCosts().getOrDefault(request.method().name() + " " + request.path(), 1);
+                long waitNanos = tokenBuckets.tryConsume(userId, cost);
+                if (waitNanos > 0) {
+                    return Mono.error(new TooManyRequestsException("Too many requests from user with ID: " + userId,
+                            Duration.ofNanos(waitNanos)));
+                }
+            }
+        }
+        return Mono.defer(() -> next.handle(request));
+    }
+
+    private Mono<ServerResponse> write(ServerRequest request, Flux<?> body, FilterProvider filters) {
+        ObjectWriter writer = filters != null ? objectMapper.writer(filters) : objectMapper.writer();
+        boolean ndjson = request.headers().accept().stream().anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+        Flux<DataBuffer> buffers = Flux.defer(() -> {
+            // Скобка массива пишется вместе с первым элементом: ошибка до него ещё может стать ответом 4xx.
+            AtomicBoolean first = new AtomicBoolean(true);
+            Flux<DataBuffer> elements = body.map(value -> {
+                byte[] json = toJson(writer, value);
+                DataBuffer buffer = DefaultDataBufferFactory.sharedInstance.allocateBuffer(json.length + 1);
+                if (ndjson) {
+                    return buffer.write(json).write((byte) '\n');
+                }
+                return buffer.write((byte) (first.getAndSet(false) ? '[' : ',')).write(json);
+            });
+            if (ndjson) {
+                return elements;
+            }
+            return elements.concatWith(Mono.fromSupplier(() -> DefaultDataBufferFactory.sharedInstance
+                    .wrap(first.get() ? EMPTY_ARRAY : new byte[]{']'})));
+        });
+        return ServerResponse.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromDataBuffers(buffers));
+    }
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, Throwable ex) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpStatus status;
+        if (ex instanceof ValidationException) {
+            status = HttpStatus.BAD_REQUEST;
+        } else if (ex instanceof ResourceNotFoundException) {
+            status = HttpStatus.NOT_FOUND;
+        } else if (ex instanceof TooManyRequestsException tooManyRequests) {
+            status = HttpStatus.TOO_MANY_REQUESTS;
+            long retryAfterSeconds = Math.max(1, (tooManyRequests.getRetryAfter().toMillis() + 999) / 1000);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        } else {
+            return Mono.error(ex);
+        }
+        if (response.isCommitted()) {
+            return Mono.error(ex);
+        }
+
+        log.warn(ex.getMessage());
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        byte[] json = toJson(objectMapper.writer(), new ErrorMessage(ex.getMessage()));
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(json)));
+    }
+
+    private static byte[] toJson(ObjectWriter writer, Object value) {
+        try {
+            return writer.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw Exceptions.propagate(e);
+        }
+    }
+
+    private static long userId(ServerRequest request) {
+        String header = request.headers().firstHeader(USER_ID);
+        Long userId = parseLong(header);
+        if (userId == null) {
+            throw new ValidationException("Required header '" + USER_ID + "' is missing or invalid");
+        }
+        return userId;
+    }
+
+    private static Pageable pageable(ServerRequest request) {
+        int page = intParam(request, "page", 0);
+        if (request.queryParam("size").isEmpty()) {
+            return Pageable.unpaged();
+        }
+        int size = intParam(request, "size", 0);
+        if (page < 0 || size < 1) {
+            throw new ValidationException("Invalid pagination parameters: page=" + page + ", size=" + size);
+        }
+        checkPage(page, size);
+        return PageRequest.of(page, size);
+    }
+
+    private static int intParam(ServerRequest request, String name, int defaultValue) {
+        String value = request.queryParam(name).orElse(null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Invalid value of parameter '" + name + "': " + value);
+        }
+    }
+
+    private static Double doubleParam(ServerRequest request, String name) {
+        String value = request.queryParam(name).orElse(null);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Invalid value of parameter '" + name + "': " + value);
+        }
+    }
+
+    private static LocalDateTime dateTimeParam(ServerRequest request, String name) {
+        String value = request.queryParam(name).orElse(null);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("Invalid value of parameter '" + name + "': " + value);
+        }
+    }
+
+    private static Long parseLong(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
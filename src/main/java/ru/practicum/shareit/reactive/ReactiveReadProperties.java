@@ -0,0 +1,30 @@
+package ru.practicum.shareit.reactive;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Неблокирующий стек чтения: отдельный сервер Netty на {@code port} и пул R2DBC к той же базе,
+ * что и {@code spring.datasource}, например {@code r2dbc:postgresql://localhost:5432/shareit}.
+ */
+@Data
+@ConfigurationProperties(prefix = "shareit.reactive")
+public class ReactiveReadProperties {
+
+    private boolean enabled = false;
+
+    private int port = 8081;
+
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    private int maxPoolSize = 20;
+
+    /**
+     * Сколько строк драйвер запрашивает у базы за раз; результат не буферизуется целиком.
+     */
+    private int fetchSize = 256;
+}
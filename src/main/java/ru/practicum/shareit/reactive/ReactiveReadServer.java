@@ -0,0 +1,52 @@
+package ru.practicum.shareit.reactive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+
+/**
+ * Сервер Netty неблокирующего стека чтения. Работает рядом с Tomcat на своём порту
+ * и стартует вместе с контекстом, когда {@code shareit.reactive.enabled=true}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.reactive.enabled", havingValue = "true")
+public class ReactiveReadServer implements SmartLifecycle {
+
+    private final WebServer server;
+    private volatile boolean running;
+
+    public ReactiveReadServer(ReactiveReadProperties properties, ReactiveReadHandler handler) {
+        HttpHandler httpHandler = RouterFunctions.toHttpHandler(handler.routes(),
+                HandlerStrategies.builder().exceptionHandler(handler).build());
+        this.server = new NettyReactiveWebServerFactory(properties.getPort()).getWebServer(httpHandler);
+    }
+
+    @Override
+    public void start() {
+        server.start();
+        running = true;
+        log.info("Reactive read stack started on port {}", server.getPort());
+    }
+
+    @Override
+    public void stop() {
+        server.stop();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int getPort() {
+        return server.getPort();
+    }
+}
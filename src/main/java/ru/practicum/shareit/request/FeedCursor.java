@@ -0,0 +1,36 @@
+package ru.practicum.shareit.request;
+
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Позиция в ленте запросов: время создания и id последнего отданного запроса.
+ * Клиенту уходит непрозрачной строкой base64url.
+ */
+record FeedCursor(LocalDateTime created, long id) {
+
+    static FeedCursor after(ItemRequest request) {
+        return new FeedCursor(request.getCreated(), request.getId());
+    }
+
+    static FeedCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf('/');
+            return new FeedCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new ValidationException("Invalid cursor: " + cursor);
+        }
+    }
+
+    String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((created + "/" + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
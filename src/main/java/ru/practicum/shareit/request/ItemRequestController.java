@@ -1,12 +1,66 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.intf.Create;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestPage;
+
+import java.util.List;
+
+import static ru.practicum.shareit.item.ItemController.USER_ID;
 
-/**
- * TODO Sprint add-item-requests.
- */
 @RestController
 @RequestMapping(path = "/requests")
+@RequiredArgsConstructor
+@Slf4j
 public class ItemRequestController {
+
+    /**
+     * Курсор следующей страницы ленты; на последней странице заголовка нет.
+     */
+    public static final String NEXT_CURSOR = "X-Next-Cursor";
+
+    private final ItemRequestService itemRequestService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public ItemRequestDto createRequest(@RequestHeader(USER_ID) long userId,
+                                        @RequestBody @Validated(Create.class) ItemRequestDto requestDto) {
+        log.info("Received request to save new item request for user with ID: {}", userId);
+        return itemRequestService.createRequest(userId, requestDto);
+    }
+
+    @GetMapping
+    @ResponseStatus(HttpStatus.OK)
+    public List<ItemRequestDto> getOwnRequests(@RequestHeader(USER_ID) long userId) {
+        log.info("Received request to get item requests of user with ID: {}", userId);
+        return itemRequestService.getOwnRequests(userId);
+    }
+
+    @GetMapping("/all")
+    public ResponseEntity<List<ItemRequestDto>> getOtherRequests(@RequestHeader(USER_ID) long userId,
+                                                                 @RequestParam(value = "cursor", required = false)
+                                                                 String cursor,
+                                                                 @RequestParam(value = "size", defaultValue = "20")
+                                                                 int size) {
+        log.info("Received request to get item requests of other users for user with ID: {}", userId);
+        ItemRequestPage page = itemRequestService.getOtherRequests(userId, cursor, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR, page.nextCursor());
+        }
+        return response.body(page.requests());
+    }
+
+    @GetMapping("/{requestId}")
+    @ResponseStatus(HttpStatus.OK)
+    public ItemRequestDto getRequestById(@RequestHeader(USER_ID) long userId, @PathVariable long requestId) {
+        log.info("Received request to get item request by ID {} for user with ID: {}", requestId, userId);
+        return itemRequestService.getRequestById(userId, requestId);
+    }
 }
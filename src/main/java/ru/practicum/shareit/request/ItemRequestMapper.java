@@ -0,0 +1,33 @@
+package ru.practicum.shareit.request;
+
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+public class ItemRequestMapper {
+
+    public static ItemRequestDto mapToItemRequestDto(ItemRequest request, List<ItemAnswerDto> items) {
+        return ItemRequestDto.builder()
+                .id(request.getId())
+                .description(request.getDescription())
+                .created(request.getCreated())
+                .items(items)
+                .build();
+    }
+
+    /**
+     * Время создания обрезается до микросекунд — точности колонки, иначе курсор ленты,
+     * взятый из ответа, не совпал бы с сохранённым значением.
+     */
+    public static ItemRequest mapToNewItemRequest(long userId, ItemRequestDto requestDto) {
+        ItemRequest request = new ItemRequest();
+        request.setDescription(requestDto.getDescription());
+        request.setRequestor(userId);
+        request.setCreated(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        return request;
+    }
+}
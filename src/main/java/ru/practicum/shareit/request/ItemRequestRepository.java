@@ -0,0 +1,30 @@
+package ru.practicum.shareit.request;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+
+    List<ItemRequest> findAllByRequestorOrderByCreatedDescIdDesc(long requestor);
+
+    /**
+     * Первая страница ленты чужих запросов; идёт по индексу {@code (created_at DESC, id DESC)}.
+     */
+    @Query("SELECT r FROM ItemRequest r WHERE r.requestor <> :userId ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findOthers(@Param("userId") long userId, Limit limit);
+
+    /**
+     * Следующая страница ленты: запросы строго после курсора {@code (created, id)} в том же порядке.
+     */
+    @Query("SELECT r FROM ItemRequest r WHERE r.requestor <> :userId "
+            + "AND (r.created < :created OR (r.created = :created AND r.id < :id)) "
+            + "ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findOthersAfter(@Param("userId") long userId, @Param("created") LocalDateTime created,
+                                      @Param("id") long id, Limit limit);
+}
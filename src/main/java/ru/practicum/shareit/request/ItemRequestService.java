@@ -0,0 +1,17 @@
+package ru.practicum.shareit.request;
+
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestPage;
+
+import java.util.List;
+
+public interface ItemRequestService {
+
+    ItemRequestDto createRequest(long userId, ItemRequestDto requestDto);
+
+    List<ItemRequestDto> getOwnRequests(long userId);
+
+    ItemRequestPage getOtherRequests(long userId, String cursor, int size);
+
+    ItemRequestDto getRequestById(long userId, long requestId);
+}
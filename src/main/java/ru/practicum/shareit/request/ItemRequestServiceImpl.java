@@ -0,0 +1,92 @@
+package ru.practicum.shareit.request;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exceptions.ResourceNotFoundException;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestPage;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.UserService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Любой список запросов читается двумя запросами к базе: страница запросов и одним {@code IN}
+ * все вещи, добавленные в ответ на них.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ItemRequestServiceImpl implements ItemRequestService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final ItemRequestRepository requestRepository;
+    private final ItemService itemService;
+    private final UserService userService;
+
+    /**
+     * Один {@code INSERT}: внешний ключ не отличает удалённого пользователя, поэтому пользователь
+     * проверяется заранее, обычно из кэша второго уровня.
+     */
+    @Override
+    @Transactional
+    public ItemRequestDto createRequest(long userId, ItemRequestDto requestDto) {
+        userService.getUserById(userId);
+        ItemRequest request = requestRepository.save(ItemRequestMapper.mapToNewItemRequest(userId, requestDto));
+        return ItemRequestMapper.mapToItemRequestDto(request, List.of());
+    }
+
+    @Override
+    public List<ItemRequestDto> getOwnRequests(long userId) {
+        userService.getUserById(userId);
+        return withAnswers(requestRepository.findAllByRequestorOrderByCreatedDescIdDesc(userId));
+    }
+
+    @Override
+    public ItemRequestPage getOtherRequests(long userId, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ValidationException("Page size must be between 1 and " + MAX_PAGE_SIZE + ", got " + size);
+        }
+
+        List<ItemRequest> requests;
+        if (cursor == null) {
+            requests = requestRepository.findOthers(userId, Limit.of(size));
+        } else {
+            FeedCursor after = FeedCursor.decode(cursor);
+            requests = requestRepository.findOthersAfter(userId, after.created(), after.id(), Limit.of(size));
+        }
+
+        String nextCursor = requests.size() < size ? null : FeedCursor.after(requests.getLast()).encode();
+        return new ItemRequestPage(withAnswers(requests), nextCursor);
+    }
+
+    @Override
+    public ItemRequestDto getRequestById(long userId, long requestId) {
+        userService.getUserById(userId);
+        ItemRequest request = requestRepository.findById(requestId)
+                .orElseThrow(() -> new ResourceNotFoundException("Request not found with ID: " + requestId));
+        return withAnswers(List.of(request)).getFirst();
+    }
+
+    private List<ItemRequestDto> withAnswers(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> requestIds = requests.stream().map(ItemRequest::getId).toList();
+        Map<Long, List<ItemAnswerDto>> answers = itemService.findItemsByRequestIds(requestIds).stream()
+                .collect(Collectors.groupingBy(ItemAnswerDto::getRequestId));
+        return requests.stream()
+                .map(request -> ItemRequestMapper.mapToItemRequestDto(request,
+                        answers.getOrDefault(request.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+}
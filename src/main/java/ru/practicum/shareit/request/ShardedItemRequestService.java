@@ -0,0 +1,61 @@
+package ru.practicum.shareit.request;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestPage;
+import ru.practicum.shareit.shard.Shards;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Запросы, как и пользователи, хранятся на каждом шарде, чтобы на них ссылались вещи любого шарда.
+ * Id выдаёт шард {@link #HOME_SHARD}, с него же читается лента; вещи-ответы собираются со всех шардов.
+ * Копия вставляется через JDBC, чтобы нативный запрос Hibernate не сбрасывал кэш второго уровня.
+ */
+@Service
+@Primary
+@RequiredArgsConstructor
+public class ShardedItemRequestService implements ItemRequestService {
+
+    private static final int HOME_SHARD = 0;
+    private static final String INSERT_REPLICA = "INSERT INTO requests (id, description, requestor_id, created_at) "
+            + "VALUES (:id, :description, :requestor, :created)";
+
+    private final ItemRequestServiceImpl delegate;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Shards shards;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public ItemRequestDto createRequest(long userId, ItemRequestDto requestDto) {
+        ItemRequestDto saved = shards.on(HOME_SHARD, () -> delegate.createRequest(userId, requestDto));
+        shards.forEach(shard -> {
+            if (shard != HOME_SHARD) {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(INSERT_REPLICA,
+                        Map.of("id", saved.getId(), "description", saved.getDescription(), "requestor", userId,
+                                "created", saved.getCreated())));
+            }
+        });
+        return saved;
+    }
+
+    @Override
+    public List<ItemRequestDto> getOwnRequests(long userId) {
+        return shards.on(HOME_SHARD, () -> delegate.getOwnRequests(userId));
+    }
+
+    @Override
+    public ItemRequestPage getOtherRequests(long userId, String cursor, int size) {
+        return shards.on(HOME_SHARD, () -> delegate.getOtherRequests(userId, cursor, size));
+    }
+
+    @Override
+    public ItemRequestDto getRequestById(long userId, long requestId) {
+        return shards.on(HOME_SHARD, () -> delegate.getRequestById(userId, requestId));
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.request.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Вещь, добавленная в ответ на запрос.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemAnswerDto {
+
+    private Long id;
+
+    private String name;
+
+    private Long ownerId;
+
+    @JsonIgnore
+    private Long requestId;
+}
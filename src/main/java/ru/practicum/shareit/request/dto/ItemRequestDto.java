@@ -1,7 +1,29 @@
 package ru.practicum.shareit.request.dto;
 
-/**
- * TODO Sprint add-item-requests.
- */
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.intf.Create;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
 public class ItemRequestDto {
+
+    private Long id;
+
+    @NotBlank(groups = Create.class, message = "Описание не может быть пустым")
+    @Size(groups = Create.class, max = 512, message = "Описание не может быть длиннее 512 символов")
+    private String description;
+
+    private LocalDateTime created;
+
+    private List<ItemAnswerDto> items;
 }
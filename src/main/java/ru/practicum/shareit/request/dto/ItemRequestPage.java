@@ -0,0 +1,9 @@
+package ru.practicum.shareit.request.dto;
+
+import java.util.List;
+
+/**
+ * Страница ленты запросов и курсор следующей страницы; {@code nextCursor} равен {@code null} на последней.
+ */
+public record ItemRequestPage(List<ItemRequestDto> requests, String nextCursor) {
+}
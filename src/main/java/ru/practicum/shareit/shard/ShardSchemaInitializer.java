@@ -0,0 +1,45 @@
+package ru.practicum.shareit.shard;
+
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Заменяет стандартную инициализацию схемы: скрипты выполняются на каждом шарде, после чего
+ * счётчики id вещей, бронирований и комментариев шарда {@code k} из {@code n} начинаются с {@code k + 1}
+ * и растут на {@code n}. Так id не пересекаются между шардами и сами указывают на шард ({@link Shards#forId}).
+ */
+public class ShardSchemaInitializer extends SqlDataSourceScriptDatabaseInitializer {
+
+    private static final List<String> SHARDED_TABLES = List.of("items", "bookings", "comments");
+
+    private final ShardRoutingDataSource dataSource;
+    private final SqlInitializationProperties properties;
+
+    public ShardSchemaInitializer(ShardRoutingDataSource dataSource, SqlInitializationProperties properties) {
+        super(dataSource, properties);
+        this.dataSource = dataSource;
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean initializeDatabase() {
+        List<DataSource> shards = dataSource.getShards();
+        boolean initialized = false;
+        for (int shard = 0; shard < shards.size(); shard++) {
+            DataSource target = shards.get(shard);
+            if (new SqlDataSourceScriptDatabaseInitializer(target, properties).initializeDatabase()) {
+                JdbcTemplate jdbcTemplate = new JdbcTemplate(target);
+                for (String table : SHARDED_TABLES) {
+                    jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id SET INCREMENT BY " + shards.size()
+                            + " RESTART WITH " + (shard + 1));
+                }
+                initialized = true;
+            }
+        }
+        return initialized;
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.shard;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Базы шардов. Пока шардирование выключено, используется обычный {@code spring.datasource}.
+ * Локально шарды можно поднять на встроенных H2:
+ * {@code shareit.sharding.shards[0].url=jdbc:h2:mem:shard0;MODE=PostgreSQL}.
+ */
+@Data
+@ConfigurationProperties(prefix = "shareit.sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+
+    private List<Shard> shards = new ArrayList<>();
+
+    @Data
+    public static class Shard {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+    }
+}
@@ -0,0 +1,130 @@
+package ru.practicum.shareit.shard;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Маршрутизация по шардам. Вещи владельца, их бронирования и комментарии хранятся на шарде
+ * {@link #forOwner}; каждый шард выдаёт id вещей, бронирований и комментариев со своим остатком
+ * (см. {@link ShardSchemaInitializer}), поэтому шард находится и по id. Пользователи есть на всех шардах.
+ * <p>
+ * Номер шарда хранится в потоке и читается {@link ShardRoutingDataSource} при получении соединения,
+ * поэтому его выбирают до начала транзакции. Без шардирования шард один, и действия выполняются
+ * в вызывающем потоке.
+ */
+@Component
+public class Shards implements DisposableBean {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private final int count;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public Shards(ShardingProperties properties) {
+        this.count = properties.isEnabled() ? properties.getShards().size() : 1;
+    }
+
+    /**
+     * Шард, выбранный в текущем потоке через {@link #on}; вне выбранного шарда — {@code null}.
+     */
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int forOwner(long ownerId) {
+        return Math.floorMod(ownerId, count);
+    }
+
+    public int forId(long id) {
+        return Math.floorMod(id - 1, count);
+    }
+
+    public <T> T on(int shard, Supplier<T> action) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public void run(int shard, Runnable action) {
+        on(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Выполняет действие на каждом шарде по очереди в текущем потоке.
+     */
+    public void forEach(IntConsumer action) {
+        for (int shard = 0; shard < count; shard++) {
+            int current = shard;
+            run(current, () -> action.accept(current));
+        }
+    }
+
+    /**
+     * Выполняет действие на всех шардах параллельно; результаты идут в порядке номеров шардов.
+     * Исключение первого по номеру упавшего шарда пробрасывается как есть.
+     */
+    public <T> List<T> gather(IntFunction<T> action) {
+        if (count == 1) {
+            return Collections.singletonList(on(0, () -> action.apply(0)));
+        }
+
+        List<Future<T>> futures = new ArrayList<>(count);
+        for (int shard = 0; shard < count; shard++) {
+            int current = shard;
+            futures.add(executor.submit(() -> on(current, () -> action.apply(current))));
+        }
+        List<T> results = new ArrayList<>(count);
+        for (Future<T> future : futures) {
+            results.add(await(future));
+        }
+        return results;
+    }
+
+    @Override
+    public void destroy() {
+        executor.close();
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for shard", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.slowquery;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Метод репозитория, из которого выполняется текущий запрос. Запоминается внешний вызов:
+ * запросы {@code findById} внутри {@code findActiveById} приписываются {@code findActiveById}.
+ */
+final class SlowQueryContext {
+
+    private static final ThreadLocal<String> REPOSITORY_METHOD = new ThreadLocal<>();
+
+    private SlowQueryContext() {
+    }
+
+    static String repositoryMethod() {
+        return REPOSITORY_METHOD.get();
+    }
+
+    static MethodInterceptor repositoryAdvice(Class<?> repositoryInterface) {
+        String repository = repositoryInterface.getSimpleName();
+        return (MethodInvocation invocation) -> {
+            if (REPOSITORY_METHOD.get() != null) {
+                return invocation.proceed();
+            }
+            REPOSITORY_METHOD.set(repository + "." + invocation.getMethod().getName());
+            try {
+                return invocation.proceed();
+            } finally {
+                REPOSITORY_METHOD.remove();
+            }
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.slowquery;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.slowquery.dto.SlowQueryDto;
+
+import java.util.List;
+
+/**
+ * {@code GET /actuator/slowqueries} — медленные запросы по убыванию суммарного времени,
+ * {@code DELETE /actuator/slowqueries} — очистка журнала.
+ */
+@Component
+@Endpoint(id = "slowqueries")
+@ConditionalOnProperty(name = "shareit.slow-query.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class SlowQueryEndpoint {
+
+    private final SlowQueryLog slowQueryLog;
+
+    @ReadOperation
+    public List<SlowQueryDto> slowQueries() {
+        return slowQueryLog.snapshot();
+    }
+
+    @DeleteOperation
+    public void clear() {
+        slowQueryLog.clear();
+    }
+}
@@ -0,0 +1,257 @@
+package ru.practicum.shareit.slowquery;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.practicum.shareit.shard.Shards;
+import ru.practicum.shareit.slowquery.dto.SlowQueryDto;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Журнал медленных запросов в памяти: по одной записи на форму запроса, не больше {@code max-entries} записей.
+ * <p>
+ * Для самых медленных выполнений план снимается отдельным потоком: тот же SQL с теми же параметрами
+ * под {@code EXPLAIN} (без {@code ANALYZE}, так что запрос не выполняется) на шарде исходного запроса.
+ * Синтаксис {@code EXPLAIN <запрос>} одинаков у H2 и PostgreSQL. Значения параметров хранятся только
+ * до снятия плана, в журнал попадают лишь их типы.
+ */
+@Slf4j
+public class SlowQueryLog implements DisposableBean {
+
+    private static final ThreadLocal<Boolean> EXPLAINING = new ThreadLocal<>();
+    private static final Pattern EXPLAINABLE = Pattern.compile("(?is)^\\s*(select|with|insert|update|delete)\\b.*");
+    private static final int MAX_SAMPLES = 5;
+
+    private final SlowQueryProperties properties;
+    private final DataSource dataSource;
+    private final Shards shards;
+    private final long thresholdNanos;
+    private final long explainThresholdNanos;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor explainExecutor;
+    private final Counter slowCounter;
+
+    public SlowQueryLog(SlowQueryProperties properties, DataSource dataSource, Shards shards,
+                        MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.dataSource = dataSource;
+        this.shards = shards;
+        this.thresholdNanos = properties.getThreshold().toNanos();
+        this.explainThresholdNanos = properties.getExplainThreshold().toNanos();
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(16), runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+        this.slowCounter = Counter.builder("shareit.slow.queries")
+                .description("Statements slower than shareit.slow-query.threshold")
+                .register(meterRegistry);
+    }
+
+    void onExecuted(String sql, List<Object> parameters, long elapsedNanos) {
+        if (elapsedNanos < thresholdNanos || EXPLAINING.get() != null) {
+            return;
+        }
+
+        slowCounter.increment();
+        String shape = SqlShape.of(sql, properties.getMaxSqlLength());
+        Entry entry = entries.get(shape);
+        if (entry == null) {
+            evictIfFull();
+            entry = entries.computeIfAbsent(shape, Entry::new);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        boolean explain = entry.record(elapsedNanos, now, SqlShape.fingerprint(parameters),
+                SlowQueryContext.repositoryMethod(), endpoint(),
+                elapsedNanos >= explainThresholdNanos, properties.getExplainInterval().toNanos());
+        if (explain) {
+            scheduleExplain(entry, sql, parameters.stream().map(SlowQueryLog::orNull).toList(), Shards.current());
+        }
+    }
+
+    public List<SlowQueryDto> snapshot() {
+        return entries.values().stream()
+                .map(Entry::toDto)
+                .sorted(Comparator.comparingDouble(SlowQueryDto::getTotalMillis).reversed())
+                .toList();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public void destroy() {
+        explainExecutor.shutdownNow();
+    }
+
+    private void evictIfFull() {
+        if (entries.size() < properties.getMaxEntries()) {
+            return;
+        }
+        entries.values().stream()
+                .min(Comparator.comparingLong(Entry::totalNanos))
+                .ifPresent(victim -> entries.remove(victim.shape, victim));
+    }
+
+    private void scheduleExplain(Entry entry, String sql, List<Object> parameters, Integer shard) {
+        if (!EXPLAINABLE.matcher(sql).matches()) {
+            entry.planCaptured("EXPLAIN is not supported for this statement", LocalDateTime.now());
+            return;
+        }
+        try {
+            explainExecutor.execute(() -> {
+                EXPLAINING.set(Boolean.TRUE);
+                try {
+                    Supplier<String> explain = () -> explain(sql, parameters);
+                    String plan = shard != null ? shards.on(shard, explain) : explain.get();
+                    entry.planCaptured(plan, LocalDateTime.now());
+                } finally {
+                    EXPLAINING.remove();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Explain of slow query skipped: executor is shut down");
+        }
+    }
+
+    private String explain(String sql, List<Object> parameters) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < parameters.size(); i++) {
+                Object parameter = parameters.get(i);
+                if (parameter instanceof SqlShape.SqlNull sqlNull) {
+                    statement.setNull(i + 1, sqlNull.sqlType());
+                } else {
+                    statement.setObject(i + 1, parameter);
+                }
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    if (!plan.isEmpty()) {
+                        plan.append('\n');
+                    }
+                    plan.append(rs.getString(1));
+                }
+            }
+            return plan.toString();
+        } catch (SQLException | RuntimeException e) {
+            log.warn("Не удалось снять план медленного запроса: {}", e.getMessage());
+            return "EXPLAIN failed: " + e.getMessage();
+        }
+    }
+
+    private static String endpoint() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return null;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+
+    private static Object orNull(Object parameter) {
+        return parameter == null ? new SqlShape.SqlNull(Types.NULL) : parameter;
+    }
+
+    private static final class Entry {
+
+        private final String shape;
+        private final Set<String> parameterFingerprints = new LinkedHashSet<>();
+        private final Set<String> repositoryMethods = new LinkedHashSet<>();
+        private final Set<String> endpoints = new LinkedHashSet<>();
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+        private LocalDateTime lastSeen;
+        private String plan;
+        private LocalDateTime planCapturedAt;
+        private long planRequestedAt;
+        private boolean planRequested;
+
+        Entry(String shape) {
+            this.shape = shape;
+        }
+
+        /**
+         * Возвращает {@code true}, если для этого выполнения нужно снять план.
+         */
+        synchronized boolean record(long elapsedNanos, LocalDateTime now, String fingerprint, String repositoryMethod,
+                                    String endpoint, boolean worstOffender, long explainIntervalNanos) {
+            count++;
+            totalNanos += elapsedNanos;
+            maxNanos = Math.max(maxNanos, elapsedNanos);
+            lastSeen = now;
+            addSample(parameterFingerprints, fingerprint);
+            addSample(repositoryMethods, repositoryMethod);
+            addSample(endpoints, endpoint);
+            if (!worstOffender) {
+                return false;
+            }
+            long nowNanos = System.nanoTime();
+            if (planRequested && nowNanos - planRequestedAt < explainIntervalNanos) {
+                return false;
+            }
+            planRequested = true;
+            planRequestedAt = nowNanos;
+            return true;
+        }
+
+        synchronized void planCaptured(String plan, LocalDateTime at) {
+            this.plan = plan;
+            this.planCapturedAt = at;
+        }
+
+        synchronized long totalNanos() {
+            return totalNanos;
+        }
+
+        synchronized SlowQueryDto toDto() {
+            return SlowQueryDto.builder()
+                    .sql(shape)
+                    .count(count)
+                    .totalMillis(totalNanos / 1_000_000.0)
+                    .maxMillis(maxNanos / 1_000_000.0)
+                    .lastSeen(lastSeen)
+                    .parameterFingerprints(new ArrayList<>(parameterFingerprints))
+                    .repositoryMethods(new ArrayList<>(repositoryMethods))
+                    .endpoints(new ArrayList<>(endpoints))
+                    .plan(plan)
+                    .planCapturedAt(planCapturedAt)
+                    .build();
+        }
+
+        private static void addSample(Set<String> samples, String sample) {
+            if (sample != null && samples.size() < MAX_SAMPLES) {
+                samples.add(sample);
+            }
+        }
+    }
+}
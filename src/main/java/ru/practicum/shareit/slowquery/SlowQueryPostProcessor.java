@@ -0,0 +1,63 @@
+package ru.practicum.shareit.slowquery;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+/**
+ * Подключает журнал медленных запросов: соединения источников данных оборачиваются в {@link StatementTimer},
+ * а вызовы репозиториев Spring Data запоминают свой метод в {@link SlowQueryContext}.
+ * <p>
+ * Источник данных проксируется подклассом, поэтому бины вроде {@code ShardRoutingDataSource}
+ * по-прежнему внедряются по своему типу.
+ */
+public class SlowQueryPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<SlowQueryLog> slowQueryLogProvider;
+    private volatile SlowQueryLog slowQueryLog;
+
+    public SlowQueryPostProcessor(ObjectProvider<SlowQueryLog> slowQueryLogProvider) {
+        this.slowQueryLogProvider = slowQueryLogProvider;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, information) -> proxyFactory.addAdvice(
+                            SlowQueryContext.repositoryAdvice(information.getRepositoryInterface()))));
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource)) {
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+            Object result = invocation.proceed();
+            if (result instanceof Connection connection && "getConnection".equals(invocation.getMethod().getName())) {
+                return StatementTimer.wrap(connection, this::slowQueryLog);
+            }
+            return result;
+        });
+        return proxyFactory.getProxy(bean.getClass().getClassLoader());
+    }
+
+    private SlowQueryLog slowQueryLog() {
+        SlowQueryLog current = slowQueryLog;
+        if (current == null) {
+            current = slowQueryLogProvider.getObject();
+            slowQueryLog = current;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.slowquery;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.slow-query")
+public class SlowQueryProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Выполнение запроса дольше этого времени попадает в журнал медленных запросов. Время чтения строк
+     * после {@code execute*} не учитывается, см. {@code StatementTimer}.
+     */
+    private Duration threshold = Duration.ofMillis(100);
+
+    /**
+     * Для выполнений дольше этого времени снимается план {@code EXPLAIN}.
+     */
+    private Duration explainThreshold = Duration.ofMillis(500);
+
+    /**
+     * Как часто план одного и того же запроса снимается повторно.
+     */
+    private Duration explainInterval = Duration.ofMinutes(5);
+
+    /**
+     * Сколько разных запросов хранит журнал; при переполнении вытесняется запрос с наименьшим суммарным временем.
+     */
+    private int maxEntries = 200;
+
+    private int maxSqlLength = 4000;
+}
@@ -0,0 +1,67 @@
+package ru.practicum.shareit.slowquery;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Форма запроса: SQL без литералов и с одинаковыми списками {@code IN} любой длины,
+ * и отпечаток параметров — их типы без значений.
+ */
+final class SqlShape {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.$])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+    private SqlShape() {
+    }
+
+    static String of(String sql, int maxLength) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("in (?...)");
+        return shape.length() > maxLength ? shape.substring(0, maxLength) : shape;
+    }
+
+    /**
+     * Типы параметров по порядку; повторы подряд сворачиваются, как и списки {@code IN} в форме запроса.
+     */
+    static String fingerprint(List<Object> parameters) {
+        StringBuilder fingerprint = new StringBuilder();
+        String previous = null;
+        int run = 0;
+        for (Object parameter : parameters) {
+            String type = parameter == null || parameter instanceof SqlNull ? "null" : parameter.getClass().getSimpleName();
+            if (type.equals(previous)) {
+                run++;
+                continue;
+            }
+            appendRun(fingerprint, previous, run);
+            previous = type;
+            run = 1;
+        }
+        appendRun(fingerprint, previous, run);
+        return fingerprint.toString();
+    }
+
+    private static void appendRun(StringBuilder fingerprint, String type, int run) {
+        if (type == null) {
+            return;
+        }
+        if (!fingerprint.isEmpty()) {
+            fingerprint.append(", ");
+        }
+        fingerprint.append(type);
+        if (run > 1) {
+            fingerprint.append('*');
+        }
+    }
+
+    /**
+     * Параметр, заданный через {@code setNull}.
+     */
+    record SqlNull(int sqlType) {
+    }
+}
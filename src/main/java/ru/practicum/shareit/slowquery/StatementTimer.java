@@ -0,0 +1,123 @@
+package ru.practicum.shareit.slowquery;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Обёртка соединения: замеряет выполнение каждого запроса и запоминает параметры подготовленных запросов,
+ * чтобы медленный запрос можно было повторить под {@code EXPLAIN}.
+ * <p>
+ * Замеряется только вызов {@code execute*}. Чтение строк через {@code ResultSet.next} в замер не входит:
+ * Hibernate и {@code JdbcTemplate} здесь работают без {@code fetchSize}, и драйверы PostgreSQL и H2 получают
+ * весь результат ещё внутри {@code execute*}, но запрос, читающий строки порциями, попадёт в журнал
+ * только со временем первой порции. Обёртка {@code ResultSet} стоила бы по вызову через прокси на каждую
+ * колонку каждой строки.
+ */
+final class StatementTimer {
+
+    private StatementTimer() {
+    }
+
+    static Connection wrap(Connection connection, Supplier<SlowQueryLog> slowQueryLog) {
+        return (Connection) Proxy.newProxyInstance(StatementTimer.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection, slowQueryLog));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private record ConnectionHandler(Connection target, Supplier<SlowQueryLog> slowQueryLog)
+            implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+
+            Object result = StatementTimer.invoke(target, method, args);
+            return switch (method.getName()) {
+                case "prepareStatement" -> statement(PreparedStatement.class, (Statement) result, (String) args[0]);
+                case "prepareCall" -> statement(CallableStatement.class, (Statement) result, (String) args[0]);
+                case "createStatement" -> statement(Statement.class, (Statement) result, null);
+                default -> result;
+            };
+        }
+
+        private Object statement(Class<? extends Statement> type, Statement statement, String sql) {
+            return Proxy.newProxyInstance(StatementTimer.class.getClassLoader(), new Class<?>[]{type},
+                    new StatementHandler(statement, sql, slowQueryLog));
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final String sql;
+        private final Supplier<SlowQueryLog> slowQueryLog;
+        private final List<Object> parameters = new ArrayList<>();
+
+        StatementHandler(Statement target, String sql, Supplier<SlowQueryLog> slowQueryLog) {
+            this.target = target;
+            this.sql = sql;
+            this.slowQueryLog = slowQueryLog;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                bind(index, "setNull".equals(name) ? new SqlShape.SqlNull((Integer) args[1]) : args[1]);
+            } else if ("clearParameters".equals(name)) {
+                parameters.clear();
+            } else if ("equals".equals(name)) {
+                return proxy == args[0];
+            } else if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            }
+            return StatementTimer.invoke(target, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            String executed = sql != null ? sql : args != null && args.length > 0 ? (String) args[0] : null;
+            long start = System.nanoTime();
+            try {
+                return StatementTimer.invoke(target, method, args);
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                if (executed != null) {
+                    slowQueryLog.get().onExecuted(executed, parameters, elapsed);
+                }
+            }
+        }
+
+        private void bind(int index, Object value) {
+            while (parameters.size() < index) {
+                parameters.add(null);
+            }
+            parameters.set(index - 1, value);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.slowquery.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SlowQueryDto {
+
+    private String sql;
+
+    private long count;
+
+    private double totalMillis;
+
+    private double maxMillis;
+
+    private LocalDateTime lastSeen;
+
+    private List<String> parameterFingerprints;
+
+    private List<String> repositoryMethods;
+
+    private List<String> endpoints;
+
+    private String plan;
+
+    private LocalDateTime planCapturedAt;
+}
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.coalescing.SingleFlight;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.List;
+
+/**
+ * Объединяет одновременные {@link #getUserById} одного пользователя в одно обращение к {@link UserServiceImpl};
+ * остальные методы передаются как есть.
+ */
+@Service
+public class CoalescingUserService implements UserService {
+
+    private final UserServiceImpl delegate;
+    private final SingleFlight<Long, UserDto> userReads;
+
+    public CoalescingUserService(UserServiceImpl delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.userReads = new SingleFlight<>("user", user -> user.toBuilder().build(), meterRegistry);
+    }
+
+    @Override
+    public UserDto getUserById(long userId) {
+        return userReads.execute(userId, () -> delegate.getUserById(userId));
+    }
+
+    @Override
+    public List<UserDto> getAllUsers() {
+        return delegate.getAllUsers();
+    }
+
+    @Override
+    public UserDto saveUser(UserDto userDto) {
+        return delegate.saveUser(userDto);
+    }
+
+    @Override
+    public UserDto update(long userId, UserDto userDto) {
+        return delegate.update(userId, userDto);
+    }
+
+    @Override
+    public void deleteUserById(long userId) {
+        delegate.deleteUserById(userId);
+    }
+
+    @Override
+    public String getUserNameById(Long userId) {
+        return delegate.getUserNameById(userId);
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.user;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.shard.Shards;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Пользователи хранятся на каждом шарде, чтобы на них ссылались вещи и бронирования любого шарда.
+ * Id выдаёт шард {@link #HOME_SHARD}, на остальные шарды пользователь копируется с тем же id.
+ * Чтение идёт с текущего шарда. Копирование не атомарно: изменение, упавшее на одном из шардов,
+ * на предыдущих уже применено; такие расхождения находит и исправляет {@code UserReplicaReconciler}.
+ * <p>
+ * Копии меняются через JDBC: нативный или массовый запрос Hibernate сбросил бы весь регион кэша, а устареть
+ * может только запись этого пользователя.
+ */
+@Service
+@Primary
+@RequiredArgsConstructor
+public class ShardedUserService implements UserService {
+
+    public static final int HOME_SHARD = 0;
+    public static final String INSERT_REPLICA = "INSERT INTO users (id, name, email) VALUES (:id, :name, :email)";
+    private static final String SELECT_DELETED_AT = "SELECT deleted_at FROM users WHERE id = :id";
+
+    private final CoalescingUserService delegate;
+    private final UserRepository repository;
+    private final Shards shards;
+    private final TransactionTemplate transactionTemplate;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public List<UserDto> getAllUsers() {
+        return delegate.getAllUsers();
+    }
+
+    @Override
+    public UserDto saveUser(UserDto userDto) {
+        UserDto saved = shards.on(HOME_SHARD, () -> delegate.saveUser(userDto));
+        forEachReplica(() -> jdbcTemplate.update(INSERT_REPLICA,
+                Map.of("id", saved.getId(), "name", saved.getName(), "email", saved.getEmail())));
+        evict(saved.getId());
+        return saved;
+    }
+
+    @Override
+    public UserDto getUserById(long userId) {
+        return delegate.getUserById(userId);
+    }
+
+    @Override
+    public UserDto update(long userId, UserDto userDto) {
+        UserDto updated = shards.on(HOME_SHARD, () -> delegate.update(userId, userDto));
+        forEachReplica(() -> repository.updateUser(userId, updated.getName(), updated.getEmail()));
+        return updated;
+    }
+
+    @Override
+    public void deleteUserById(long userId) {
+        LocalDateTime deletedAt = shards.on(HOME_SHARD, () -> {
+            delegate.deleteUserById(userId);
+            return jdbcTemplate.queryForObject(SELECT_DELETED_AT, Map.of("id", userId), LocalDateTime.class);
+        });
+        forEachReplica(() -> repository.softDelete(userId, deletedAt));
+    }
+
+    @Override
+    public String getUserNameById(Long userId) {
+        return delegate.getUserNameById(userId);
+    }
+
+    /**
+     * Убирает из кэша второго уровня только запись пользователя, вставленного в обход Hibernate.
+     */
+    public void evict(long userId) {
+        entityManagerFactory.getCache().evict(User.class, userId);
+    }
+
+    private void forEachReplica(Runnable change) {
+        shards.forEach(shard -> {
+            if (shard != HOME_SHARD) {
+                transactionTemplate.executeWithoutResult(status -> change.run());
+            }
+        });
+    }
+}
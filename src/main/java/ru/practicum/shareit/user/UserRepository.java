@@ -1,19 +1,37 @@
 package ru.practicum.shareit.user;
 
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.user.model.User;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Чтения для запросов пользователей видят только неудалённых: {@link #findActiveById}, {@link #existsActiveById},
+ * {@link #findAll}. Простые {@code findById}/{@code existsById} видят и удалённых — они нужны для отображения
+ * старых отзывов и бронирований и для {@code UserPurger}.
+ */
+public interface UserRepository extends JpaRepository<User, Long>, UserWriteRepository {
 
     boolean existsByEmail(String email);
 
-    @Modifying
-    @Query("UPDATE User u SET u.name = :name, u.email = :email WHERE u.id = :userId")
-    void updateUser(@Param("userId") long userId, @Param("name") String name, @Param("email") String email);
+    @Override
+    @Query("SELECT u FROM User u WHERE u.deletedAt IS NULL")
+    List<User> findAll();
+
+    /**
+     * Читает через кэш второго уровня: мягкое удаление убирает из него запись пользователя.
+     */
+    default Optional<User> findActiveById(long userId) {
+        return findById(userId).filter(User::isActive);
+    }
 
-    void deleteUserById(@Param("userId") long userId);
+    @Query("SELECT COUNT(u) > 0 FROM User u WHERE u.id = :userId AND u.deletedAt IS NULL")
+    boolean existsActiveById(@Param("userId") long userId);
 
+    @Query(value = "SELECT id FROM users WHERE deleted_at IS NOT NULL AND purged_at IS NULL " +
+            "ORDER BY deleted_at LIMIT :limit", nativeQuery = true)
+    List<Long> findUsersToPurge(@Param("limit") int limit);
 }
\ No newline at end of file
@@ -3,12 +3,15 @@ package ru.practicum.shareit.user;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.config.EntityCacheConfig;
 import ru.practicum.shareit.exceptions.ConflictException;
 import ru.practicum.shareit.exceptions.ResourceNotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.invalidation.CacheInvalidationService;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
@@ -17,6 +20,7 @@ import java.util.List;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository repository;
+    private final CacheInvalidationService invalidationService;
 
     @Override
     public List<UserDto> getAllUsers() {
@@ -35,6 +39,9 @@ public class UserServiceImpl implements UserService {
         return UserMapper.mapToUserDto(user);
     }
 
+    /**
+     * Имя нужно для отзывов, поэтому удалённые пользователи тоже находятся.
+     */
     @Override
     public String getUserNameById(Long userId) {
         User user = repository.findById(userId)
@@ -44,7 +51,7 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public UserDto getUserById(long userId) {
-        User user = repository.findById(userId)
+        User user = repository.findActiveById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
         return UserMapper.mapToUserDto(user);
     }
@@ -52,29 +59,35 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public UserDto update(long userId, UserDto userDto) {
-        User updatedUser = repository.findById(userId)
+        User user = repository.findActiveById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
-        if (userDto.getName() != null) {
-            updatedUser.setName(userDto.getName());
-        }
+        String name = userDto.getName() != null ? userDto.getName() : user.getName();
+        String email = user.getEmail();
 
-        if (userDto.getEmail() != null && !userDto.getEmail().equals(updatedUser.getEmail())) {
+        if (userDto.getEmail() != null && !userDto.getEmail().equals(email)) {
             if (repository.existsByEmail(userDto.getEmail())) {
                 throw new ConflictException("User with email '" + userDto.getEmail() + "' already exists.");
             }
-            updatedUser.setEmail(userDto.getEmail());
+            email = userDto.getEmail();
         }
 
-        repository.updateUser(userId, updatedUser.getName(), updatedUser.getEmail());
-        return UserMapper.mapToUserDto(updatedUser);
+        repository.updateUser(userId, name, email);
+        invalidationService.publish(EntityCacheConfig.USERS_REGION, userId);
+        return UserDto.builder().id(userId).name(name).email(email).build();
     }
 
+    /**
+     * Только помечает пользователя удалённым; зависимые строки освобождает {@code UserPurger}.
+     */
     @Override
     @Transactional
     public void deleteUserById(long userId) {
         if (userId < 1) {
             throw new ValidationException("Id не может быть отрицательным");
         }
-        repository.deleteUserById(userId);
+        if (repository.softDelete(userId, LocalDateTime.now()) == 0) {
+            throw new ResourceNotFoundException("User not found with ID: " + userId);
+        }
+        invalidationService.publish(EntityCacheConfig.USERS_REGION, userId);
     }
 }
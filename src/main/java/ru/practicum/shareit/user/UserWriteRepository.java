@@ -0,0 +1,23 @@
+package ru.practicum.shareit.user;
+
+import java.time.LocalDateTime;
+
+/**
+ * Точечные изменения строки пользователя. Массовый JPQL-запрос сбросил бы весь регион {@code users} кэша
+ * второго уровня, поэтому строка меняется через JDBC, а из кэша убирается только запись этого пользователя.
+ */
+public interface UserWriteRepository {
+
+    void updateUser(long userId, String name, String email);
+
+    /**
+     * @return 0, если пользователя нет или он уже удалён
+     */
+    int softDelete(long userId, LocalDateTime now);
+
+    /**
+     * Обнуляет имя и почту, освобождая их для новых пользователей. Уникальность не мешает: NULL не совпадает
+     * ни с одним значением, в том числе с другим NULL.
+     */
+    int anonymize(long userId, LocalDateTime now);
+}
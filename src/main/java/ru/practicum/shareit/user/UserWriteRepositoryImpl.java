@@ -0,0 +1,69 @@
+package ru.practicum.shareit.user;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+@RequiredArgsConstructor
+class UserWriteRepositoryImpl implements UserWriteRepository {
+
+    private static final String UPDATE = "UPDATE users SET name = :name, email = :email WHERE id = :id";
+    private static final String SOFT_DELETE = "UPDATE users SET deleted_at = :now "
+            + "WHERE id = :id AND deleted_at IS NULL";
+    private static final String ANONYMIZE = "UPDATE users SET name = NULL, email = NULL, purged_at = :now "
+            + "WHERE id = :id";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void updateUser(long userId, String name, String email) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("id", userId);
+        parameters.put("name", name);
+        parameters.put("email", email);
+        jdbcTemplate.update(UPDATE, parameters);
+        evict(userId);
+    }
+
+    @Override
+    public int softDelete(long userId, LocalDateTime now) {
+        return update(SOFT_DELETE, userId, now);
+    }
+
+    @Override
+    public int anonymize(long userId, LocalDateTime now) {
+        return update(ANONYMIZE, userId, now);
+    }
+
+    private int update(String sql, long userId, LocalDateTime now) {
+        int updated = jdbcTemplate.update(sql, Map.of("id", userId, "now", now));
+        evict(userId);
+        return updated;
+    }
+
+    /**
+     * Запись убирается сразу и ещё раз после завершения транзакции: до коммита параллельное чтение может
+     * снова положить в кэш старую строку.
+     */
+    private void evict(long userId) {
+        Cache cache = entityManagerFactory.getCache();
+        cache.evict(User.class, userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evict(User.class, userId);
+                }
+            });
+        }
+    }
+}
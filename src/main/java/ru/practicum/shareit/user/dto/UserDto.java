@@ -1,5 +1,6 @@
 package ru.practicum.shareit.user.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -10,9 +11,12 @@ import ru.practicum.shareit.intf.Create;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
+@Builder(toBuilder = true)
+@JsonFilter(UserDto.FILTER)
 public class UserDto {
 
+    public static final String FILTER = "userFields";
+
     private Long id;
 
     @NotBlank(groups = Create.class, message = "Имя не может быть пустым")
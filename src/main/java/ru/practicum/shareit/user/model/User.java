@@ -6,14 +6,21 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import ru.practicum.shareit.config.EntityCacheConfig;
 import ru.practicum.shareit.intf.Create;
 
+import java.time.LocalDateTime;
+
 @Data
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfig.USERS_REGION)
 public class User {
 
     @Id
@@ -27,4 +34,21 @@ public class User {
     @Email(groups = Create.class, message = "электронная почта не может быть пустой и должна содержать символ @")
     @Column(name = "email", unique = true)
     private String email;
+
+    /**
+     * Момент удаления пользователя. Удалённый пользователь остаётся строкой, на которую ссылаются
+     * вещи, бронирования и отзывы, но не виден через {@code UserRepository#findActiveById}.
+     */
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
+    /**
+     * Момент, когда {@code UserPurger} обезличил пользователя и освободил его зависимые строки.
+     */
+    @Column(name = "purged_at")
+    private LocalDateTime purgedAt;
+
+    public boolean isActive() {
+        return deletedAt == null;
+    }
 }
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.user.purge;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.user.purge")
+public class UserPurgeProperties {
+
+    private boolean enabled = true;
+
+    private Duration interval = Duration.ofSeconds(10);
+
+    private Duration leaseDuration = Duration.ofMinutes(1);
+
+    /**
+     * Сколько строк меняет одна транзакция очистки.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Сколько удалённых пользователей обрабатывается за один запуск.
+     */
+    private int usersPerRun = 100;
+}
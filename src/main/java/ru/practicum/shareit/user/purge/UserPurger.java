@@ -0,0 +1,162 @@
+package ru.practicum.shareit.user.purge;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.events.BookingEventLog;
+import ru.practicum.shareit.booking.events.BookingEventType;
+import ru.practicum.shareit.booking.summary.BookingCounterService;
+import ru.practicum.shareit.booking.summary.BookingSummaryState;
+import ru.practicum.shareit.config.EntityCacheConfig;
+import ru.practicum.shareit.invalidation.CacheInvalidationService;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.lease.LeaseService;
+import ru.practicum.shareit.shard.Shards;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Освобождает зависимые строки пользователей, удалённых через {@code DELETE /users/{id}}.
+ * <p>
+ * Ещё не начавшиеся бронирования, где пользователь — бронирующий или владелец вещи, отклоняются,
+ * а его вещи снимаются с выдачи; всё это пачками по {@code batch-size} строк в отдельных транзакциях.
+ * Прошедшие бронирования и отзывы остаются в истории других пользователей: строка пользователя сохраняется,
+ * а имя и почта в ней обнуляются. Любую непустую заглушку мог бы уже занять живой пользователь, и тогда
+ * очистка этого пользователя падала бы на уникальности при каждом запуске. Шарды обрабатываются по очереди, у каждого своя аренда.
+ */
+@Slf4j
+@Component
+public class UserPurger {
+
+    public static final String LEASE_NAME = "user-purge";
+
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingCounterService counterService;
+    private final BookingEventLog eventLog;
+    private final CacheInvalidationService invalidationService;
+    private final LeaseService leaseService;
+    private final Shards shards;
+    private final TransactionTemplate transactionTemplate;
+    private final UserPurgeProperties properties;
+    private final Counter purgedCounter;
+
+    public UserPurger(UserRepository userRepository, ItemRepository itemRepository,
+                      BookingRepository bookingRepository, BookingCounterService counterService,
+                      BookingEventLog eventLog, CacheInvalidationService invalidationService,
+                      LeaseService leaseService, Shards shards, TransactionTemplate transactionTemplate,
+                      UserPurgeProperties properties, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.itemRepository = itemRepository;
+        this.bookingRepository = bookingRepository;
+        this.counterService = counterService;
+        this.eventLog = eventLog;
+        this.invalidationService = invalidationService;
+        this.leaseService = leaseService;
+        this.shards = shards;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.purgedCounter = Counter.builder("users.purged")
+                .description("Deleted users whose dependent rows were released")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.user.purge.interval:10s}")
+    public void purge() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        shards.forEach(this::purge);
+    }
+
+    private void purge(int shard) {
+        if (!leaseService.tryAcquire(LEASE_NAME, properties.getLeaseDuration())) {
+            return;
+        }
+
+        try {
+            purgeUsers(shard);
+        } finally {
+            leaseService.release(LEASE_NAME);
+        }
+    }
+
+    private void purgeUsers(int shard) {
+        int purged = 0;
+        for (long userId : userRepository.findUsersToPurge(properties.getUsersPerRun())) {
+            if (!purge(userId) || !leaseService.tryAcquire(LEASE_NAME, properties.getLeaseDuration())) {
+                break;
+            }
+            purged++;
+        }
+
+        purgedCounter.increment(purged);
+        if (purged > 0) {
+            log.info("Очищено удалённых пользователей на шарде {}: {}", shard, purged);
+        }
+    }
+
+    /**
+     * Возвращает {@code false}, если аренда потеряна до конца очистки; тогда пользователь
+     * будет дочищен при следующем запуске.
+     */
+    private boolean purge(long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        boolean done = runInBatches(limit -> bookingRepository.lockUpcomingBookingsOfUser(userId,
+                        BookingStatus.WAITING.name(), now, limit),
+                ids -> {
+                    counterService.onTransition(ids, BookingSummaryState.WAITING, BookingSummaryState.REJECTED);
+                    eventLog.append(BookingEventType.REJECTED, ids);
+                    return bookingRepository.rejectBookings(ids);
+                })
+                && runInBatches(limit -> bookingRepository.lockUpcomingBookingsOfUser(userId,
+                        BookingStatus.APPROVED.name(), now, limit),
+                ids -> {
+                    counterService.onTransition(ids, BookingSummaryState.FUTURE, BookingSummaryState.REJECTED);
+                    eventLog.append(BookingEventType.REJECTED, ids);
+                    return bookingRepository.rejectBookings(ids);
+                })
+                && runInBatches(limit -> itemRepository.findAvailableIdsByOwner(userId, Limit.of(limit)),
+                ids -> {
+                    invalidationService.publish(EntityCacheConfig.ITEMS_REGION, ids);
+                    return itemRepository.markUnavailable(ids);
+                });
+        if (!done) {
+            return false;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            counterService.deleteCounters(userId);
+            userRepository.anonymize(userId, now);
+            invalidationService.publish(EntityCacheConfig.USERS_REGION, userId);
+        });
+        return true;
+    }
+
+    private boolean runInBatches(IntFunction<List<Long>> select, ToIntFunction<List<Long>> update) {
+        int updated;
+        do {
+            Integer result = transactionTemplate.execute(status -> {
+                List<Long> ids = select.apply(properties.getBatchSize());
+                return ids.isEmpty() ? 0 : update.applyAsInt(ids);
+            });
+            updated = result == null ? 0 : result;
+            if (updated == properties.getBatchSize()
+                    && !leaseService.tryAcquire(LEASE_NAME, properties.getLeaseDuration())) {
+                return false;
+            }
+        } while (updated == properties.getBatchSize());
+        return true;
+    }
+}
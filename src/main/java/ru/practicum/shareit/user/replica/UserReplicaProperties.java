@@ -0,0 +1,22 @@
+package ru.practicum.shareit.user.replica;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.user.replica")
+public class UserReplicaProperties {
+
+    private boolean enabled = true;
+
+    private Duration interval = Duration.ofMinutes(10);
+
+    private Duration leaseDuration = Duration.ofMinutes(5);
+
+    /**
+     * Сколько пользователей сверяется за один запрос к шардам.
+     */
+    private int batchSize = 1000;
+}
@@ -0,0 +1,182 @@
+package ru.practicum.shareit.user.replica;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.lease.LeaseService;
+import ru.practicum.shareit.shard.Shards;
+import ru.practicum.shareit.user.ShardedUserService;
+
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Сверяет копии пользователей на шардах с домашним шардом {@link ShardedUserService#HOME_SHARD}.
+ * {@code ShardedUserService} меняет шарды по очереди, и изменение, упавшее посередине, остаётся только на части
+ * из них. Недостающая копия вставляется, отличающаяся переписывается строкой домашнего шарда.
+ * {@code purged_at} у каждого шарда свой — это ход {@code UserPurger} на этом шарде, — поэтому он не сверяется,
+ * а копию пользователя, уже обезличенного на домашнем шарде, дочищает {@code UserPurger} самого шарда.
+ * <p>
+ * Копия переписывается, только если она не изменилась с момента сверки: иначе запоздавшая сверка затёрла бы
+ * изменение, которое {@code ShardedUserService} успел применить после её чтения. Копии, которых нет на домашнем
+ * шарде, и копии, которые не удалось исправить (например, из-за уникального имени, ещё не освобождённого
+ * на этом шарде), только считаются и попадают в журнал; их подхватит следующий запуск.
+ */
+@Slf4j
+@Component
+public class UserReplicaReconciler {
+
+    public static final String LEASE_NAME = "user-replica-reconcile";
+
+    private static final String SELECT = "SELECT id, name, email, deleted_at, purged_at FROM users "
+            + "WHERE id > :after AND id <= :last ORDER BY id";
+    private static final String SELECT_HOME = "SELECT id, name, email, deleted_at, purged_at FROM users "
+            + "WHERE id > :after ORDER BY id LIMIT :limit";
+    private static final String INSERT = "INSERT INTO users (id, name, email, deleted_at, purged_at) "
+            + "VALUES (:id, :name, :email, :deletedAt, :purgedAt)";
+    private static final String REPAIR = "UPDATE users SET name = :name, email = :email, deleted_at = :deletedAt "
+            + "WHERE id = :id AND name IS NOT DISTINCT FROM :seenName "
+            + "AND email IS NOT DISTINCT FROM :seenEmail AND deleted_at IS NOT DISTINCT FROM :seenDeletedAt";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ShardedUserService userService;
+    private final LeaseService leaseService;
+    private final Shards shards;
+    private final UserReplicaProperties properties;
+    private final Counter repairedCounter;
+    private final Counter unrepairedCounter;
+
+    public UserReplicaReconciler(NamedParameterJdbcTemplate jdbcTemplate, ShardedUserService userService,
+                                 LeaseService leaseService, Shards shards, UserReplicaProperties properties,
+                                 MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userService = userService;
+        this.leaseService = leaseService;
+        this.shards = shards;
+        this.properties = properties;
+        this.repairedCounter = Counter.builder("users.replica.repaired")
+                .description("User replicas rewritten from the home shard")
+                .register(meterRegistry);
+        this.unrepairedCounter = Counter.builder("users.replica.unrepaired")
+                .description("Diverged user replicas left for the next run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.user.replica.interval:10m}")
+    public void reconcile() {
+        if (!properties.isEnabled() || shards.count() == 1) {
+            return;
+        }
+        shards.run(ShardedUserService.HOME_SHARD, () -> {
+            if (!leaseService.tryAcquire(LEASE_NAME, properties.getLeaseDuration())) {
+                return;
+            }
+            try {
+                reconcileAll();
+            } finally {
+                leaseService.release(LEASE_NAME);
+            }
+        });
+    }
+
+    private void reconcileAll() {
+        long after = 0;
+        int repaired = 0;
+        int unrepaired = 0;
+        while (true) {
+            Map<Long, UserRow> home = select(ShardedUserService.HOME_SHARD, SELECT_HOME,
+                    Map.of("after", after, "limit", properties.getBatchSize()));
+            if (home.isEmpty()) {
+                break;
+            }
+            boolean tail = home.size() < properties.getBatchSize();
+            long last = home.keySet().stream().reduce((first, second) -> second).orElseThrow();
+            // В последней порции сверяются и копии с id больше последнего на домашнем шарде.
+            long upTo = tail ? Long.MAX_VALUE : last;
+            for (int shard = 0; shard < shards.count(); shard++) {
+                if (shard == ShardedUserService.HOME_SHARD) {
+                    continue;
+                }
+                Map<Long, UserRow> replica = select(shard, SELECT, Map.of("after", after, "last", upTo));
+                for (UserRow row : home.values()) {
+                    UserRow copy = replica.remove(row.id());
+                    if (copy != null && (row.sameAs(copy) || row.purgedAt() != null)) {
+                        continue;
+                    }
+                    if (repair(shard, row, copy)) {
+                        repaired++;
+                    } else {
+                        unrepaired++;
+                    }
+                }
+                for (UserRow orphan : replica.values()) {
+                    log.warn("Пользователь {} есть на шарде {}, но не на домашнем шарде", orphan.id(), shard);
+                    unrepaired++;
+                }
+            }
+            if (tail || !leaseService.tryAcquire(LEASE_NAME, properties.getLeaseDuration())) {
+                break;
+            }
+            after = last;
+        }
+
+        repairedCounter.increment(repaired);
+        unrepairedCounter.increment(unrepaired);
+        if (repaired > 0 || unrepaired > 0) {
+            log.info("Сверка копий пользователей: исправлено {}, осталось {}", repaired, unrepaired);
+        }
+    }
+
+    private boolean repair(int shard, UserRow row, UserRow copy) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("id", row.id());
+        parameters.put("name", row.name());
+        parameters.put("email", row.email());
+        parameters.put("deletedAt", row.deletedAt());
+        parameters.put("purgedAt", row.purgedAt());
+        String sql = INSERT;
+        if (copy != null) {
+            parameters.put("seenName", copy.name());
+            parameters.put("seenEmail", copy.email());
+            parameters.put("seenDeletedAt", copy.deletedAt());
+            sql = REPAIR;
+        }
+        String statement = sql;
+        try {
+            int updated = shards.on(shard, () -> jdbcTemplate.update(statement, parameters));
+            userService.evict(row.id());
+            return updated == 1;
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Не удалось исправить копию пользователя {} на шарде {}: {}", row.id(), shard,
+                    e.getMostSpecificCause().getMessage());
+            return false;
+        }
+    }
+
+    private Map<Long, UserRow> select(int shard, String sql, Map<String, Object> parameters) {
+        List<UserRow> rows = shards.on(shard, () -> jdbcTemplate.query(sql, parameters, (rs, rowNum) -> new UserRow(
+                rs.getLong("id"), rs.getString("name"), rs.getString("email"),
+                rs.getTimestamp("deleted_at"), rs.getTimestamp("purged_at"))));
+        Map<Long, UserRow> byId = new LinkedHashMap<>();
+        for (UserRow row : rows) {
+            byId.put(row.id(), row);
+        }
+        return byId;
+    }
+
+    private record UserRow(long id, String name, String email, Timestamp deletedAt, Timestamp purgedAt) {
+
+        boolean sameAs(UserRow copy) {
+            return Objects.equals(name, copy.name) && Objects.equals(email, copy.email)
+                    && Objects.equals(deletedAt, copy.deletedAt);
+        }
+    }
+}
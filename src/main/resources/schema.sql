@@ -1,15 +1,35 @@
 DROP TABLE IF EXISTS items CASCADE;
 DROP TABLE IF EXISTS users CASCADE;
+DROP TABLE IF EXISTS requests CASCADE;
 DROP TABLE IF EXISTS bookings CASCADE;
 DROP TABLE IF EXISTS comments CASCADE;
+DROP TABLE IF EXISTS leases CASCADE;
+DROP TABLE IF EXISTS outbox_events CASCADE;
+DROP TABLE IF EXISTS booking_counters CASCADE;
+DROP TABLE IF EXISTS bookings_archive CASCADE;
+DROP TABLE IF EXISTS cache_invalidations CASCADE;
+DROP TABLE IF EXISTS booking_events CASCADE;
+DROP TABLE IF EXISTS booking_event_snapshots CASCADE;
 
 CREATE TABLE IF NOT EXISTS users
 (
     id    BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY NOT NULL,
-    name  VARCHAR(255) UNIQUE                               NOT NULL,
-        email VARCHAR(512) UNIQUE                               NOT NULL
+    name  VARCHAR(255) UNIQUE,
+        email VARCHAR(512) UNIQUE,
+    deleted_at TIMESTAMP WITHOUT TIME ZONE,
+    purged_at  TIMESTAMP WITHOUT TIME ZONE,
+    CONSTRAINT users_name_email_until_purged
+        CHECK (purged_at IS NOT NULL OR (name IS NOT NULL AND email IS NOT NULL))
     );
 
+CREATE TABLE IF NOT EXISTS requests
+(
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY NOT NULL,
+    description  varchar(512)                                        NOT NULL,
+    requestor_id BIGINT REFERENCES users (id)                       NOT NULL,
+    created_at   TIMESTAMP WITHOUT TIME ZONE                         NOT NULL
+);
+
     CREATE TABLE IF NOT EXISTS items
     (
         id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY NOT NULL,
@@ -17,7 +37,10 @@ CREATE TABLE IF NOT EXISTS users
         description varchar(255),
         is_available   boolean,
         owner_id       integer REFERENCES users(id),
-        request_id     integer
+        request_id     BIGINT REFERENCES requests(id),
+        latitude       DOUBLE PRECISION,
+        longitude      DOUBLE PRECISION,
+        geo_cell       BIGINT
         );
 
     CREATE TABLE IF NOT EXISTS bookings
@@ -27,7 +50,9 @@ CREATE TABLE IF NOT EXISTS users
         end_date TIMESTAMP WITHOUT TIME ZONE,
         item_id   integer REFERENCES items(id),
         booker_id  integer REFERENCES users(id),
-        status     varchar(255)
+        status     varchar(255),
+        is_started boolean DEFAULT false NOT NULL,
+        is_finished boolean DEFAULT false NOT NULL
         );
 
     CREATE TABLE IF NOT EXISTS comments
@@ -37,4 +62,101 @@ CREATE TABLE IF NOT EXISTS users
         item_id integer REFERENCES items(id),
         author_id   integer REFERENCES users(id),
         created_at TIMESTAMP WITHOUT TIME ZONE
-        );
\ No newline at end of file
+        );
+
+CREATE INDEX IF NOT EXISTS idx_users_deleted ON users (deleted_at);
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id);
+CREATE INDEX IF NOT EXISTS idx_items_geo_cell ON items (geo_cell);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status ON bookings (booker_id, status);
+CREATE INDEX IF NOT EXISTS idx_requests_created ON requests (created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_requests_requestor_created ON requests (requestor_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_period ON bookings (item_id, status, start_date, end_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_status_start ON bookings (status, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_status_started_start ON bookings (status, is_started, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_status_finished_end ON bookings (status, is_finished, end_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_end ON bookings (end_date);
+
+CREATE TABLE IF NOT EXISTS leases
+(
+    name       varchar(64) PRIMARY KEY,
+    owner      varchar(64)                 NOT NULL,
+    expires_at TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS outbox_events
+(
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY NOT NULL,
+    event_type      varchar(64)                 NOT NULL,
+    aggregate_id    BIGINT                      NOT NULL,
+    recipient_id    BIGINT                      NOT NULL,
+    payload         varchar(4096),
+    attempts        integer DEFAULT 0           NOT NULL,
+    next_attempt_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    last_error      varchar(512),
+    is_dead         boolean DEFAULT false       NOT NULL,
+    created_at      TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_outbox_events_due ON outbox_events (is_dead, next_attempt_at, id);
+
+CREATE TABLE IF NOT EXISTS booking_counters
+(
+    user_id BIGINT      NOT NULL,
+    role    varchar(16) NOT NULL,
+    state   varchar(16) NOT NULL,
+    stripe  smallint    NOT NULL,
+    cnt     BIGINT      NOT NULL,
+    PRIMARY KEY (user_id, role, state, stripe)
+);
+
+CREATE TABLE IF NOT EXISTS bookings_archive
+(
+    id          BIGINT PRIMARY KEY          NOT NULL,
+    start_date  TIMESTAMP WITHOUT TIME ZONE,
+    end_date    TIMESTAMP WITHOUT TIME ZONE,
+    item_id     integer REFERENCES items(id),
+    booker_id   integer REFERENCES users(id),
+    status      varchar(255),
+    is_started  boolean DEFAULT false       NOT NULL,
+    is_finished boolean DEFAULT false       NOT NULL,
+    archived_at TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_booker_end ON bookings_archive (booker_id, end_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_item_status_start ON bookings_archive (item_id, status, start_date);
+
+CREATE TABLE IF NOT EXISTS cache_invalidations
+(
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY NOT NULL,
+    region     varchar(32)                 NOT NULL,
+    entity_id  BIGINT                      NOT NULL,
+    node_id    varchar(64)                 NOT NULL,
+    created_at TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_cache_invalidations_created ON cache_invalidations (created_at, id);
+
+CREATE TABLE IF NOT EXISTS booking_events
+(
+    seq         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY NOT NULL,
+    booking_id  BIGINT                      NOT NULL,
+    type        varchar(16)                 NOT NULL,
+    item_id     BIGINT                      NOT NULL,
+    owner_id    BIGINT                      NOT NULL,
+    booker_id   BIGINT                      NOT NULL,
+    occurred_at TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_booking_events_booking ON booking_events (booking_id, seq);
+
+CREATE TABLE IF NOT EXISTS booking_event_snapshots
+(
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY NOT NULL,
+    projection varchar(64)                 NOT NULL,
+    state      BYTEA                       NOT NULL,
+    created_at TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_booking_event_snapshots_projection ON booking_event_snapshots (projection, id);
@@ -0,0 +1,155 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.exceptions.ResourceNotFoundException;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Число SQL-операторов на {@code createBooking}. Операторы Hibernate считает его статистика, все операторы
+ * вместе с {@code JdbcTemplate} (счётчики, журнал событий) — {@code QUERY_STATISTICS} H2. Фоновые опросы
+ * базы выключены, чтобы не попасть в счёт.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:mem:create-booking;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "shareit.booking.counters.stripes=1",
+        "shareit.booking.lifecycle.enabled=false",
+        "shareit.booking.archive.enabled=false",
+        "shareit.booking.events.enabled=false",
+        "shareit.cache.invalidation.enabled=false",
+        "shareit.outbox.enabled=false"})
+@DirtiesContext
+class CreateBookingStatementsTest {
+
+    /**
+     * Само создание: проекция вещи вместе с проверкой бронирующего и вставка бронирования.
+     */
+    private static final int BOOKING_STATEMENTS = 2;
+
+    /**
+     * Вставка в outbox. Кэш второго уровня на счёт не влияет: ответ собирается без чтения вещи и бронирующего.
+     */
+    private static final int HIBERNATE_STATEMENTS = BOOKING_STATEMENTS + 1;
+
+    /**
+     * Два UPDATE счётчиков (владелец и бронирующий) и вставка в журнал событий при фиксации.
+     */
+    private static final int JDBC_TEMPLATE_STATEMENTS = 3;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private long bookerId;
+    private long itemId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long suffix = System.nanoTime();
+        long ownerId = userService.saveUser(new UserDto(null, "owner" + suffix, "owner" + suffix + "@example.com"))
+                .getId();
+        bookerId = userService.saveUser(new UserDto(null, "booker" + suffix, "booker" + suffix + "@example.com"))
+                .getId();
+        itemId = itemService.saveItem(ownerId, ItemDto.builder()
+                .name("item" + suffix)
+                .description("description")
+                .available(true)
+                .build()).getId();
+        jdbcTemplate.update("INSERT INTO comments (text, item_id, author_id, created_at) VALUES (?, ?, ?, ?)",
+                "comment", itemId, bookerId, LocalDateTime.now());
+        // Первое бронирование создаёт строки счётчиков; дальше они только обновляются.
+        create(1);
+        jdbcTemplate.execute("SET QUERY_STATISTICS TRUE");
+        jdbcTemplate.execute("SET QUERY_STATISTICS_MAX_ENTRIES 1000");
+    }
+
+    @Test
+    void createBookingWithWarmCache() {
+        long executed = executedStatements();
+        statistics.clear();
+
+        BookingDto booking = create(2);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(HIBERNATE_STATEMENTS);
+        assertThat(executedStatements() - executed).isEqualTo(HIBERNATE_STATEMENTS + JDBC_TEMPLATE_STATEMENTS);
+        assertThat(booking.getItem().getName()).startsWith("item");
+        assertThat(booking.getBooker().getId()).isEqualTo(bookerId);
+    }
+
+    @Test
+    void createBookingWithColdCache() {
+        entityManagerFactory.getCache().evictAll();
+        long executed = executedStatements();
+        statistics.clear();
+
+        BookingDto booking = create(3);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(HIBERNATE_STATEMENTS);
+        assertThat(executedStatements() - executed).isEqualTo(HIBERNATE_STATEMENTS + JDBC_TEMPLATE_STATEMENTS);
+        assertThat(booking.getItem().getName()).startsWith("item");
+        assertThat(booking.getItem().getComments()).isNull();
+    }
+
+    @Test
+    void createBookingForDeletedBooker() {
+        userService.deleteUserById(bookerId);
+
+        assertThatThrownBy(() -> create(4))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("User not found with ID: " + bookerId);
+    }
+
+    private BookingDto create(int daysAhead) {
+        LocalDateTime start = LocalDateTime.now().plusDays(daysAhead);
+        return bookingService.createBooking(bookerId, BookingRequestDto.builder()
+                .itemId(itemId)
+                .start(start)
+                .end(start.plusHours(2))
+                .build());
+    }
+
+    /**
+     * Сколько раз выполнялись запросы и изменения данных с включения статистики: без COMMIT, SET
+     * и обращений к самой статистике.
+     */
+    private long executedStatements() {
+        Long total = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(EXECUTION_COUNT), 0) " +
+                "FROM INFORMATION_SCHEMA.QUERY_STATISTICS " +
+                "WHERE SQL_STATEMENT NOT LIKE 'COMMIT%' AND SQL_STATEMENT NOT LIKE 'SET %' " +
+                "AND SQL_STATEMENT NOT LIKE '%INFORMATION_SCHEMA.QUERY_STATISTICS%'", Long.class);
+        return total == null ? 0 : total;
+    }
+}
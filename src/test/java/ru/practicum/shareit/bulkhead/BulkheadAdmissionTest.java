@@ -0,0 +1,133 @@
+package ru.practicum.shareit.bulkhead;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import ru.practicum.shareit.config.WebConfig;
+import ru.practicum.shareit.ratelimit.AdmissionControlInterceptor;
+import ru.practicum.shareit.ratelimit.RateLimitProperties;
+import ru.practicum.shareit.ratelimit.TokenBuckets;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Перехватчики допуска в порядке {@link WebConfig}: очередь тяжёлых чтений не должна отнимать у записей
+ * ни место в их классе, ни место узла.
+ */
+class BulkheadAdmissionTest {
+
+    private static final int HEAVY_READ_MAX_CONCURRENT = 2;
+    private static final int BURST = 20;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch finish = new CountDownLatch(1);
+    private ExecutorService executor;
+    private List<HandlerInterceptor> chain;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties rateLimitProperties = new RateLimitProperties();
+        BulkheadProperties bulkheadProperties = new BulkheadProperties();
+        bulkheadProperties.setEnabled(true);
+        bulkheadProperties.getEndpoints().put("GET /items/search", EndpointClass.HEAVY_READ);
+        bulkheadProperties.getClasses().put(EndpointClass.HEAVY_READ,
+                new BulkheadProperties.Partition(HEAVY_READ_MAX_CONCURRENT, HEAVY_READ_MAX_CONCURRENT,
+                        Duration.ofSeconds(10)));
+
+        ChainRegistry registry = new ChainRegistry();
+        new WebConfig(
+                new AdmissionControlInterceptor(rateLimitProperties, bulkheadProperties,
+                        new TokenBuckets(rateLimitProperties, meterRegistry), meterRegistry),
+                new BulkheadInterceptor(bulkheadProperties, meterRegistry))
+                .addInterceptors(registry);
+        chain = registry.chain();
+        executor = Executors.newFixedThreadPool(BURST);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        finish.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void criticalWritesPassDuringHeavyReadBurst() throws Exception {
+        for (int i = 0; i < BURST; i++) {
+            executor.submit(() -> {
+                MockHttpServletRequest search = request("GET", "/items/search");
+                List<HandlerInterceptor> admitted = preHandle(search);
+                if (admitted.size() == chain.size()) {
+                    finish.await();
+                }
+                afterCompletion(search, admitted);
+                return null;
+            });
+        }
+        awaitQueued(BURST - HEAVY_READ_MAX_CONCURRENT);
+
+        for (String[] write : new String[][]{{"POST", "/bookings"}, {"PATCH", "/bookings/{bookingId}"}}) {
+            MockHttpServletRequest request = request(write[0], write[1]);
+            List<HandlerInterceptor> admitted = preHandle(request);
+            assertThat(admitted).hasSize(chain.size());
+            afterCompletion(request, admitted);
+        }
+    }
+
+    private List<HandlerInterceptor> preHandle(MockHttpServletRequest request) throws Exception {
+        List<HandlerInterceptor> admitted = new ArrayList<>();
+        for (HandlerInterceptor interceptor : chain) {
+            interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+            admitted.add(interceptor);
+        }
+        return admitted;
+    }
+
+    private void afterCompletion(MockHttpServletRequest request, List<HandlerInterceptor> admitted)
+            throws Exception {
+        for (int i = admitted.size() - 1; i >= 0; i--) {
+            admitted.get(i).afterCompletion(request, new MockHttpServletResponse(), new Object(), null);
+        }
+    }
+
+    private void awaitQueued(int expected) throws InterruptedException {
+        Gauge queued = meterRegistry.get("shareit.bulkhead.queued")
+                .tag("class", EndpointClass.HEAVY_READ.tag())
+                .gauge();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (queued.value() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(queued.value()).isEqualTo(expected);
+    }
+
+    private static MockHttpServletRequest request(String method, String pattern) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, pattern);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        return request;
+    }
+
+    private static class ChainRegistry extends InterceptorRegistry {
+
+        List<HandlerInterceptor> chain() {
+            return getInterceptors().stream()
+                    .map(HandlerInterceptor.class::cast)
+                    .toList();
+        }
+    }
+}